@@ -9,6 +9,21 @@ public class IdaConstants {
     public static final String IDA_LOCAL_SOURCE_LABEL = "IDA local source";
     public static final String IDA_LOCAL_SOURCE_HELP_TEXT = "Use Keycloak's local database as a source for verified claims?";
 
+    public static final String IDA_CONNECTOR_NAME = "ida.connector";
+    public static final String IDA_CONNECTOR_LABEL = "IDA connector";
+    public static final String IDA_CONNECTOR_HELP_TEXT = "Connector used to retrieve verified claims from the external source (only if local source is disabled)";
+
+    public static final String WARM_UP_CONFIG = "warmUp";
+    public static final String WARM_UP_ITERATIONS_CONFIG = "warmUpIterations";
+    public static final int WARM_UP_ITERATIONS_DEFAULT = 20;
+    public static final String WARM_UP_CONNECTIONS_CONFIG = "warmUpConnections";
+    public static final String WARM_UP_TIMEOUT_CONFIG = "warmUpTimeout";
+    public static final int WARM_UP_TIMEOUT_DEFAULT = 10000;
+    public static final String WARM_UP_REQUEST_PATH = "/warmup/claims_request.json";
+    public static final String WARM_UP_USER_CLAIMS_PATH = "/user_claims.json";
+
+    public static final String IDA_EXTERNAL_STORE_TIMEOUT_HELP_TEXT = "How long, in milliseconds, to wait for the external source's verified claims before issuing the token without them (only if local source is disabled)";
+
     // JSON keys
     public static final String USERINFO = "userinfo";
     public static final String VERIFIED_CLAIMS = "verified_claims";
@@ -29,6 +44,19 @@ public class IdaConstants {
     public static final String ERROR_MESSAGE_USER_VERIFIED_CLAIMS_EMPTY = "The user's verified claims could not be found.";
     public static final String ERROR_MESSAGE_USER_VERIFIED_CLAIMS_INVALID_JSON = "The \"verified_claims\" object is not in a valid JSON format.";
     public static final String ERROR_MESSAGE_USER_VERIFIED_CLAIMS_INVALID_SCHEMA = "The user's \"verified_claims\" object could not be validated using the JSON schema.";
+    public static final String ERROR_MESSAGE_USER_VERIFIED_CLAIMS_TIMEOUT = "The user's verified claims could not be retrieved from the external source within %d ms.";
+
+    // External store calls
+    public static final String ERROR_MESSAGE_ADMISSION_REJECTED = "The external source was not called, as client '%s' or its realm is over its limits.";
+
+    // Mapper configuration
+    public static final String ERROR_MESSAGE_UNKNOWN_CONNECTOR = "The selected IDA connector is not deployed.";
+    public static final String ERROR_MESSAGE_EXTERNAL_STORE_INVALID_TIMEOUT = "The IDA's external source's timeout must be a positive number of milliseconds.";
+
+    // Warm-up
+    public static final String ERROR_MESSAGE_WARM_UP_FAILED = "The OIDC4IDA warm-up could not be completed, the first tokens may be slower to issue.";
+    public static final String ERROR_MESSAGE_WARM_UP_FIXTURE_MISSING = "The OIDC4IDA warm-up fixture '%s' is not bundled with the extension.";
+    public static final String ERROR_MESSAGE_WARM_UP_CONNECTIONS_TIMEOUT = "The connections to the IDA's external sources could not be opened within %d ms.";
 
     // Resulting verified claims
     public static final String ERROR_MESSAGE_VERIFIED_CLAIMS_EMPTY = "The current user does not have any verified claims that match the request.";
@@ -0,0 +1,263 @@
+package org.keycloak.protocol.oidc.ida.mappers;
+
+import org.keycloak.models.ProtocolMapperModel;
+import org.keycloak.protocol.ProtocolMapperUtils;
+import org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionLimits;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnector;
+import org.keycloak.protocol.oidc.ida.mappers.replication.VerifiedClaimsReplicator;
+import org.keycloak.protocol.oidc.mappers.OIDCAttributeMapperHelper;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.IDA_CONNECTOR_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.IDA_LOCAL_SOURCE_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.IDA_CLIENT_BURST_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.IDA_CLIENT_CONCURRENCY_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.IDA_CLIENT_RATE_LIMIT_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.IDA_EXTERNAL_STORE_CACHE_TTL_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.IDA_EXTERNAL_STORE_PROJECTION_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.IDA_REPLICATION_NAME;
+
+/**
+ * Immutable snapshot of an IDA mapper's configuration. The configuration is parsed once, when the mapper is first 
+ * used or after it changes, so issuing a token requires no string parsing and never writes to the shared 
+ * {@link ProtocolMapperModel}, which is used by concurrent requests.
+ */
+public final class IdaMapperConfig {
+    // The configuration this snapshot has been compiled from
+    private final Map<String, String> source;
+    private final Map<String, String> sourceCopy;
+
+    private final String mapperId;
+    private final boolean localSource;
+    private final String connectorId;
+    private final String externalStoreUrl;
+    private final long externalStoreTimeout;
+    private final long externalStoreCacheTtl;
+    private final boolean externalStoreProjection;
+    private final Map<String, String> connectorConfig;
+    private final AdmissionLimits clientLimits;
+    private final boolean replicated;
+    private final String replicationWatermarkAttribute;
+    private final String replicationCompletedAttribute;
+    private final String replicationClaimsAttribute;
+
+    // Models used to add the verified_claims to tokens, holding one or multiple verified_claims objects
+    private final ProtocolMapperModel singleClaimModel;
+    private final ProtocolMapperModel multivaluedClaimModel;
+
+    private IdaMapperConfig(ProtocolMapperModel mappingModel) {
+        source = mappingModel.getConfig();
+        sourceCopy = Collections.unmodifiableMap(new HashMap<>(source));
+
+        mapperId = mappingModel.getId();
+        localSource = Boolean.parseBoolean(sourceCopy.get(IDA_LOCAL_SOURCE_NAME));
+        connectorId = sourceCopy.get(IDA_CONNECTOR_NAME);
+        externalStoreUrl = sourceCopy.get(IdaConnector.IDA_EXTERNAL_STORE_NAME);
+        externalStoreTimeout = parseExternalStoreTimeout(sourceCopy);
+        externalStoreCacheTtl = parseExternalStoreCacheTtl(sourceCopy);
+        externalStoreProjection = Boolean.parseBoolean(sourceCopy.get(IDA_EXTERNAL_STORE_PROJECTION_NAME));
+        connectorConfig = sourceCopy;
+        clientLimits = parseClientLimitsOrUnlimited(sourceCopy);
+        replicated = Boolean.parseBoolean(sourceCopy.get(IDA_REPLICATION_NAME));
+        replicationWatermarkAttribute = replicated 
+            ? VerifiedClaimsReplicator.getWatermarkAttribute(connectorId, externalStoreUrl) 
+            : null;
+        replicationCompletedAttribute = replicated 
+            ? VerifiedClaimsReplicator.getCompletedAttribute(replicationWatermarkAttribute) 
+            : null;
+        replicationClaimsAttribute = replicated 
+            ? VerifiedClaimsReplicator.getClaimsAttribute(replicationWatermarkAttribute) 
+            : null;
+
+        singleClaimModel = copyModel(mappingModel, false);
+        multivaluedClaimModel = copyModel(mappingModel, true);
+    }
+
+    /**
+     * Compiles a mapper's configuration
+     * 
+     * @param mappingModel
+     * @return
+     */
+    public static IdaMapperConfig compile(ProtocolMapperModel mappingModel) {
+        return new IdaMapperConfig(mappingModel);
+    }
+
+    /**
+     * Checks whether this snapshot still reflects a mapper's configuration. Cached mapper models are replaced when 
+     * their configuration changes, so comparing references is usually enough
+     * 
+     * @param mappingModel
+     * @return
+     */
+    public boolean isCompiledFrom(ProtocolMapperModel mappingModel) {
+        return source == mappingModel.getConfig() || sourceCopy.equals(mappingModel.getConfig());
+    }
+
+    /**
+     * Gets the deadline for the external store's answer, in milliseconds
+     * 
+     * @param config
+     * @return the deadline or -1, if the configured value is not a number
+     */
+    public static long parseExternalStoreTimeout(Map<String, String> config) {
+        String timeout = config.get(IdaConnector.IDA_EXTERNAL_STORE_TIMEOUT_NAME);
+
+        try {
+            return Long.parseLong(timeout == null || timeout.isBlank() 
+                ? IdaConnector.IDA_EXTERNAL_STORE_TIMEOUT_DEFAULT 
+                : timeout.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets how long verified claims retrieved from the external store are cached, in milliseconds
+     * 
+     * @param config
+     * @return the TTL, 0 if the cache is disabled, or -1 if the configured value is not a number
+     */
+    public static long parseExternalStoreCacheTtl(Map<String, String> config) {
+        String cacheTtl = config.get(IDA_EXTERNAL_STORE_CACHE_TTL_NAME);
+
+        if (cacheTtl == null || cacheTtl.isBlank()) {
+            return 0;
+        }
+
+        try {
+            long seconds = Long.parseLong(cacheTtl.trim());
+
+            return seconds < 0 ? -1 : seconds * 1000;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the limits applied to each client's calls to the external store
+     * 
+     * @param config
+     * @return
+     * @throws IllegalArgumentException If the rate is not a finite non-negative number, or the burst or concurrency 
+     *                                  is not a non-negative integer
+     */
+    public static AdmissionLimits parseClientLimits(Map<String, String> config) {
+        return AdmissionLimits.parse(config.get(IDA_CLIENT_RATE_LIMIT_NAME), config.get(IDA_CLIENT_BURST_NAME), 
+            config.get(IDA_CLIENT_CONCURRENCY_NAME));
+    }
+
+    private static AdmissionLimits parseClientLimitsOrUnlimited(Map<String, String> config) {
+        try {
+            return parseClientLimits(config);
+        } catch (IllegalArgumentException e) {
+        // The limits are validated when the mapper is saved, so this shouldn't happen
+
+            return AdmissionLimits.UNLIMITED;
+        }
+    }
+
+    private static ProtocolMapperModel copyModel(ProtocolMapperModel mappingModel, boolean multivalued) {
+        Map<String, String> config = new HashMap<>(mappingModel.getConfig());
+        config.put(OIDCAttributeMapperHelper.TOKEN_CLAIM_NAME, VERIFIED_CLAIMS);
+        config.put(ProtocolMapperUtils.MULTIVALUED, Boolean.toString(multivalued));
+
+        ProtocolMapperModel model = new ProtocolMapperModel();
+        model.setId(mappingModel.getId());
+        model.setName(mappingModel.getName());
+        model.setProtocol(mappingModel.getProtocol());
+        model.setProtocolMapper(mappingModel.getProtocolMapper());
+        model.setConfig(Collections.unmodifiableMap(config));
+
+        return model;
+    }
+
+    public String getMapperId() {
+        return mapperId;
+    }
+
+    public boolean isLocalSource() {
+        return localSource;
+    }
+
+    public String getConnectorId() {
+        return connectorId;
+    }
+
+    public String getExternalStoreUrl() {
+        return externalStoreUrl;
+    }
+
+    public long getExternalStoreTimeout() {
+        return externalStoreTimeout;
+    }
+
+    /**
+     * Gets how long verified claims retrieved from the external store are cached
+     * 
+     * @return the TTL in milliseconds, or a non-positive number if the cache is disabled
+     */
+    public long getExternalStoreCacheTtl() {
+        return externalStoreCacheTtl;
+    }
+
+    /**
+     * Checks whether the requested claims are sent to the external store, so it only returns what may be released
+     * 
+     * @return
+     */
+    public boolean isExternalStoreProjection() {
+        return externalStoreProjection;
+    }
+
+    public Map<String, String> getConnectorConfig() {
+        return connectorConfig;
+    }
+
+    public AdmissionLimits getClientLimits() {
+        return clientLimits;
+    }
+
+    public boolean isReplicated() {
+        return replicated;
+    }
+
+    /**
+     * Gets the realm attribute holding the watermark of the replicated store
+     * 
+     * @return the attribute's name or null, if the store is not replicated
+     */
+    public String getReplicationWatermarkAttribute() {
+        return replicationWatermarkAttribute;
+    }
+
+    /**
+     * Gets the realm attribute set once the replicated store's first full snapshot has been replicated
+     * 
+     * @return the attribute's name or null, if the store is not replicated
+     */
+    public String getReplicationCompletedAttribute() {
+        return replicationCompletedAttribute;
+    }
+
+    /**
+     * Gets the user attribute holding the verified claims replicated from the store
+     * 
+     * @return the attribute's name or null, if the store is not replicated
+     */
+    public String getReplicationClaimsAttribute() {
+        return replicationClaimsAttribute;
+    }
+
+    public ProtocolMapperModel getSingleClaimModel() {
+        return singleClaimModel;
+    }
+
+    public ProtocolMapperModel getMultivaluedClaimModel() {
+        return multivaluedClaimModel;
+    }
+}
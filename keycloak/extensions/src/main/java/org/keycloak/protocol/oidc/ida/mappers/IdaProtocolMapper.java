@@ -1,8 +1,11 @@
 package org.keycloak.protocol.oidc.ida.mappers;
 
 import org.jboss.logging.Logger;
+import org.keycloak.Config;
 import org.keycloak.OAuthErrorException;
 import org.keycloak.models.AuthenticatedClientSessionModel;
+import org.keycloak.models.ClientModel;
+import org.keycloak.models.ClientScopeModel;
 import org.keycloak.models.ClientSessionContext;
 import org.keycloak.models.KeycloakSession;
 import org.keycloak.models.KeycloakSessionFactory;
@@ -11,10 +14,19 @@ import org.keycloak.models.ProtocolMapperModel;
 import org.keycloak.models.RealmModel;
 import org.keycloak.models.UserModel;
 import org.keycloak.models.UserSessionModel;
+import org.keycloak.models.utils.KeycloakModelUtils;
 import org.keycloak.protocol.ProtocolMapperConfigException;
-import org.keycloak.protocol.ProtocolMapperUtils;
 import org.keycloak.protocol.oidc.OIDCLoginProtocol;
+import org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionController;
+import org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionLimits;
+import org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestClassifier;
+import org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ValidatedClaimsRequests;
+import org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorFactory;
+import org.keycloak.protocol.oidc.ida.mappers.connector.VerifiedClaimsProjection;
 import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnector;
+import org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetrics;
+import org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationTask;
+import org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsAttributeReader;
 import org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidator;
 import org.keycloak.protocol.oidc.mappers.AbstractOIDCProtocolMapper;
 import org.keycloak.protocol.oidc.mappers.OIDCAccessTokenMapper;
@@ -23,8 +35,11 @@ import org.keycloak.protocol.oidc.mappers.OIDCIDTokenMapper;
 import org.keycloak.protocol.oidc.mappers.UserInfoTokenMapper;
 import org.keycloak.provider.EnvironmentDependentProviderFactory;
 import org.keycloak.provider.ProviderConfigProperty;
+import org.keycloak.provider.ProviderFactory;
 import org.keycloak.representations.IDToken;
 import org.keycloak.services.ErrorResponseException;
+import org.keycloak.services.scheduled.ClusterAwareScheduledTaskRunner;
+import org.keycloak.timer.TimerProvider;
 
 import com.authlete.common.ida.DatasetExtractor;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -38,22 +53,46 @@ import jakarta.ws.rs.core.Response;
 import net.jimblackler.jsonschemafriend.GenerationException;
 import net.jimblackler.jsonschemafriend.ValidationException;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static net.jimblackler.jsonschemafriend.StreamUtils.streamToString;
 
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_ADMISSION_REJECTED;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_EXTERNAL_STORE_INVALID_TIMEOUT;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_REQUESTED_CLAIMS_EMPTY;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_REQUESTED_CLAIMS_INVALID_JSON;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_REQUESTED_CLAIMS_NOT_REQUESTED;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_REQUESTED_VERIFIED_CLAIMS_CLAIMS_EMPTY;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_REQUESTED_VERIFIED_CLAIMS_INVALID_SCHEMA;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_REQUESTED_VERIFIED_CLAIMS_NOT_REQUESTED;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_UNKNOWN_CONNECTOR;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_USER_VERIFIED_CLAIMS_EMPTY;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_USER_VERIFIED_CLAIMS_INVALID_JSON;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_USER_VERIFIED_CLAIMS_INVALID_SCHEMA;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_USER_VERIFIED_CLAIMS_TIMEOUT;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_VERIFIED_CLAIMS_EMPTY;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_WARM_UP_CONNECTIONS_TIMEOUT;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_WARM_UP_FAILED;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_WARM_UP_FIXTURE_MISSING;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.IDA_CONNECTOR_HELP_TEXT;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.IDA_CONNECTOR_LABEL;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.IDA_CONNECTOR_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.IDA_EXTERNAL_STORE_TIMEOUT_HELP_TEXT;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.IDA_LOCAL_SOURCE_HELP_TEXT;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.IDA_LOCAL_SOURCE_LABEL;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.IDA_LOCAL_SOURCE_NAME;
@@ -61,9 +100,46 @@ import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.IDA_MAPPER_DIS
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.IDA_MAPPER_HELP_TEXT;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.USERINFO;
 import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.WARM_UP_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.WARM_UP_CONNECTIONS_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.WARM_UP_ITERATIONS_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.WARM_UP_ITERATIONS_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.WARM_UP_REQUEST_PATH;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.WARM_UP_TIMEOUT_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.WARM_UP_TIMEOUT_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.WARM_UP_USER_CLAIMS_PATH;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.ERROR_MESSAGE_INVALID_LIMIT;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.ERROR_MESSAGE_INVALID_REALM_LIMIT;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.IDA_CLIENT_BURST_HELP_TEXT;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.IDA_CLIENT_BURST_LABEL;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.IDA_CLIENT_BURST_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.IDA_CLIENT_CONCURRENCY_HELP_TEXT;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.IDA_CLIENT_CONCURRENCY_LABEL;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.IDA_CLIENT_CONCURRENCY_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.IDA_CLIENT_RATE_LIMIT_HELP_TEXT;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.IDA_CLIENT_RATE_LIMIT_LABEL;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.IDA_CLIENT_RATE_LIMIT_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.LIMIT_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.REALM_BURST_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.REALM_CONCURRENCY_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.admission.AdmissionConstants.REALM_RATE_LIMIT_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestConstants.CLAIMS_VALIDATED_NOTE;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.ADMISSION_SERVED_STALE;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.WARM_UP_DURATION;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.IDA_REPLICATION_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.IDA_REPLICATION_HELP_TEXT;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.IDA_REPLICATION_LABEL;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.IDA_REPLICATION_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.REPLICATION_BATCH_SIZE_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.REPLICATION_BATCH_SIZE_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.REPLICATION_INTERVAL_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.REPLICATION_INTERVAL_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.REPLICATION_TASK_NAME;
 import static org.keycloak.protocol.oidc.utils.OIDCResponseType.ID_TOKEN;
 import static org.keycloak.util.TokenUtil.TOKEN_TYPE_BEARER;
 import static org.keycloak.util.TokenUtil.TOKEN_TYPE_ID;
+import static org.keycloak.validate.validators.AbstractNumberValidator.MESSAGE_INVALID_NUMBER;
+import static org.keycloak.validate.validators.ValidatorConfigValidator.MESSAGE_CONFIG_INVALID_VALUE;
 
 /**
  * Support an extension of OpenID Connect for providing Replying Parties with
@@ -72,11 +148,34 @@ import static org.keycloak.util.TokenUtil.TOKEN_TYPE_ID;
  */
 public class IdaProtocolMapper extends AbstractOIDCProtocolMapper implements OIDCAccessTokenMapper, OIDCIDTokenMapper,
         UserInfoTokenMapper, EnvironmentDependentProviderFactory {
-    private static final String PROVIDER_ID = "oidc-ida-mapper";
+    public static final String PROVIDER_ID = "oidc-ida-mapper";
     private static final Logger LOG = Logger.getLogger(IdaProtocolMapper.class);
 
+    // Mappers are thread-safe once configured, so a single one is shared by every token
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
+        .enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
+
+    // Compiled configurations, indexed by realm ID and mapper ID, so they are discarded along with their realm
+    private final Map<String, Map<String, IdaMapperConfig>> compiledConfigs = new ConcurrentHashMap<>();
+
+    // Limits the calls made to external stores by each client and realm
+    private AdmissionController admissionController;
+
+    // Warm-up settings
+    private boolean warmUp;
+    private int warmUpIterations;
+    private boolean warmUpConnections;
+    private int warmUpTimeout;
+
+    // Replication settings
+    private int replicationInterval;
+    private int replicationBatchSize;
+    private ReplicationTask replicationTask;
+
     // Provider configs
     private static final List<ProviderConfigProperty> configProperties = new ArrayList<>();
+    private static final ProviderConfigProperty connectorProperty = new ProviderConfigProperty();
     static {
         OIDCAttributeMapperHelper.addIncludeInTokensConfig(configProperties, IdaProtocolMapper.class);
 
@@ -87,14 +186,265 @@ public class IdaProtocolMapper extends AbstractOIDCProtocolMapper implements OID
         property.setHelpText(IDA_LOCAL_SOURCE_HELP_TEXT);
         property.setDefaultValue(true);
         configProperties.add(property);
+
+        connectorProperty.setName(IDA_CONNECTOR_NAME);
+        connectorProperty.setLabel(IDA_CONNECTOR_LABEL);
+        connectorProperty.setType(ProviderConfigProperty.LIST_TYPE);
+        connectorProperty.setHelpText(IDA_CONNECTOR_HELP_TEXT);
+        connectorProperty.setDefaultValue(IdaHttpConnectorFactory.PROVIDER_ID);
+        configProperties.add(connectorProperty);
+
+        property = new ProviderConfigProperty();
+        property.setName(IdaConnector.IDA_EXTERNAL_STORE_TIMEOUT_NAME);
+        property.setLabel(IdaConnector.IDA_EXTERNAL_STORE_TIMEOUT_LABEL);
+        property.setType(ProviderConfigProperty.STRING_TYPE);
+        property.setHelpText(IDA_EXTERNAL_STORE_TIMEOUT_HELP_TEXT);
+        property.setDefaultValue(IdaConnector.IDA_EXTERNAL_STORE_TIMEOUT_DEFAULT);
+        configProperties.add(property);
+
+        property = new ProviderConfigProperty();
+        property.setName(IDA_CLIENT_RATE_LIMIT_NAME);
+        property.setLabel(IDA_CLIENT_RATE_LIMIT_LABEL);
+        property.setType(ProviderConfigProperty.STRING_TYPE);
+        property.setHelpText(IDA_CLIENT_RATE_LIMIT_HELP_TEXT);
+        property.setDefaultValue(LIMIT_DEFAULT);
+        configProperties.add(property);
+
+        property = new ProviderConfigProperty();
+        property.setName(IDA_CLIENT_BURST_NAME);
+        property.setLabel(IDA_CLIENT_BURST_LABEL);
+        property.setType(ProviderConfigProperty.STRING_TYPE);
+        property.setHelpText(IDA_CLIENT_BURST_HELP_TEXT);
+        property.setDefaultValue(LIMIT_DEFAULT);
+        configProperties.add(property);
+
+        property = new ProviderConfigProperty();
+        property.setName(IDA_CLIENT_CONCURRENCY_NAME);
+        property.setLabel(IDA_CLIENT_CONCURRENCY_LABEL);
+        property.setType(ProviderConfigProperty.STRING_TYPE);
+        property.setHelpText(IDA_CLIENT_CONCURRENCY_HELP_TEXT);
+        property.setDefaultValue(LIMIT_DEFAULT);
+        configProperties.add(property);
+
+        property = new ProviderConfigProperty();
+        property.setName(IDA_REPLICATION_NAME);
+        property.setLabel(IDA_REPLICATION_LABEL);
+        property.setType(ProviderConfigProperty.BOOLEAN_TYPE);
+        property.setHelpText(IDA_REPLICATION_HELP_TEXT);
+        property.setDefaultValue(IDA_REPLICATION_DEFAULT);
+        configProperties.add(property);
+    }
+
+    @Override
+    public void init(Config.Scope config) {
+        // The same limits apply to each realm
+        AdmissionLimits realmLimits;
+        try {
+            realmLimits = AdmissionLimits.parse(config.get(REALM_RATE_LIMIT_CONFIG), config.get(REALM_BURST_CONFIG), 
+                config.get(REALM_CONCURRENCY_CONFIG));
+        } catch (IllegalArgumentException e) {
+        // If a limit is invalid, the server fails to start rather than running without it
+
+            throw new IllegalArgumentException(String.format(ERROR_MESSAGE_INVALID_REALM_LIMIT, REALM_RATE_LIMIT_CONFIG, 
+                REALM_BURST_CONFIG, REALM_CONCURRENCY_CONFIG, e.getMessage()), e);
+        }
+        admissionController = new AdmissionController(realmLimits, IdaMetrics.getInstance());
+
+        warmUp = config.getBoolean(WARM_UP_CONFIG, true);
+        warmUpIterations = config.getInt(WARM_UP_ITERATIONS_CONFIG, WARM_UP_ITERATIONS_DEFAULT);
+        warmUpConnections = config.getBoolean(WARM_UP_CONNECTIONS_CONFIG, false);
+        warmUpTimeout = config.getInt(WARM_UP_TIMEOUT_CONFIG, WARM_UP_TIMEOUT_DEFAULT);
+
+        replicationInterval = config.getInt(REPLICATION_INTERVAL_CONFIG, REPLICATION_INTERVAL_DEFAULT);
+        replicationBatchSize = config.getInt(REPLICATION_BATCH_SIZE_CONFIG, REPLICATION_BATCH_SIZE_DEFAULT);
     }
 
     @Override
     public void postInit(KeycloakSessionFactory factory) {
-        // Adds external IDA source configs
+        // Adds the configs of every IDA connector, which can be selected for each mapper
+        KeycloakModelUtils.runJobInTransaction(factory, session -> {
+            List<String> connectorIds = factory.getProviderFactoriesStream(IdaConnector.class)
+                .map(ProviderFactory::getId)
+                .sorted()
+                .collect(Collectors.toList());
+            connectorProperty.setOptions(connectorIds);
+
+            for (String connectorId : connectorIds) {
+                List<ProviderConfigProperty> connectorProperties = new ArrayList<>();
+                session.getProvider(IdaConnector.class, connectorId).addIdaExternalStore(connectorProperties);
+
+                // Connectors may share properties, which are only added once
+                connectorProperties.stream()
+                    .filter(property -> configProperties.stream().noneMatch(added -> added.getName().equals(property.getName())))
+                    .forEach(configProperties::add);
+            }
+        });
+
+        // The limits, metrics and compiled configurations of removed realms and clients are discarded
+        factory.register(event -> {
+            if (event instanceof RealmModel.RealmRemovedEvent) {
+                String realmId = ((RealmModel.RealmRemovedEvent) event).getRealm().getId();
+                admissionController.removeRealm(realmId);
+                IdaMetrics.getInstance().remove(realmId);
+                compiledConfigs.remove(realmId);
+            } else if (event instanceof ClientModel.ClientRemovedEvent) {
+                ClientModel client = ((ClientModel.ClientRemovedEvent) event).getClient();
+                admissionController.removeClient(client.getId());
+                removeCompiledConfigs(client.getRealm(), client);
+            } else if (event instanceof ClientScopeModel.ClientScopeRemovedEvent) {
+            // Client scopes are removed before the event is published, so the realm's configurations are compiled again
+
+                compiledConfigs.remove(((ClientScopeModel.ClientScopeRemovedEvent) event).getClientScope().getRealm().getId());
+            }
+        });
+
+        if (warmUp) {
+            warmUp(factory);
+        }
+
+        if (replicationInterval > 0) {
+        // A single node of the cluster replicates the external stores at each interval
 
-        IdaConnector idaConnector = factory.create().getProvider(IdaConnector.class);
-        idaConnector.addIdaExternalStore(configProperties);
+            long intervalMillis = TimeUnit.SECONDS.toMillis(replicationInterval);
+            replicationTask = new ReplicationTask(factory, replicationBatchSize, intervalMillis);
+
+            KeycloakModelUtils.runJobInTransaction(factory, session -> session.getProvider(TimerProvider.class)
+                .schedule(new ClusterAwareScheduledTaskRunner(factory, replicationTask, intervalMillis), intervalMillis, 
+                    REPLICATION_TASK_NAME));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (replicationTask != null) {
+            replicationTask.close();
+        }
+    }
+
+    /**
+     * Pays the costs of the first token requests before the node serves any: compiles the schemas, runs the whole 
+     * request, validation and extraction path on bundled fixtures, so classes are loaded and hot code is compiled, 
+     * and optionally opens connections to the external stores used by the realms' mappers
+     * 
+     * @param factory
+     */
+    private void warmUp(KeycloakSessionFactory factory) {
+        long start = System.nanoTime();
+
+        try {
+            VerifiedClaimsValidator.compileSchemas();
+            warmUpPipeline();
+
+            if (warmUpConnections) {
+                warmUpConnections(factory);
+            }
+        } catch (FileNotFoundException e) {
+        // The extension has been packaged without its fixtures
+
+            LOG.error(ERROR_MESSAGE_WARM_UP_FAILED, e);
+        } catch (Exception e) {
+        // The warm-up must never prevent the server from starting
+
+            LOG.warn(ERROR_MESSAGE_WARM_UP_FAILED, e);
+        }
+
+        long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        IdaMetrics.getInstance().setGauge(WARM_UP_DURATION, duration);
+        LOG.infof("OIDC4IDA warm-up finished in %d ms", duration);
+    }
+
+    /**
+     * Runs the token path on the bundled fixtures
+     * 
+     * @throws IOException
+     * @throws GenerationException
+     * @throws ValidationException
+     */
+    private void warmUpPipeline() throws IOException, GenerationException, ValidationException {
+        String requestString = readWarmUpFixture(WARM_UP_REQUEST_PATH);
+        String userClaimsString = readWarmUpFixture(WARM_UP_USER_CLAIMS_PATH);
+
+        for (int i = 0; i < warmUpIterations; i++) {
+            ValidatedClaimsRequests.fingerprint(requestString);
+            JsonNode requestedClaims = ValidatedClaimsRequests.parse(requestString);
+            assertClaimsNotEmpty(requestedClaims);
+            VerifiedClaimsValidator.validateVerifiedClaimsRequest(requestedClaims);
+
+            JsonNode userVerifiedClaims = MAPPER.readTree(userClaimsString);
+            VerifiedClaimsValidator.validateVerifiedClaims(userVerifiedClaims);
+
+            for (String endpointKey : List.of(USERINFO, ID_TOKEN)) {
+                JsonNode requestedVerifiedClaims = requestedClaims.get(endpointKey).get(VERIFIED_CLAIMS);
+
+                List<Map<String, Object>> extractedClaims = new ArrayList<Map<String, Object>>();
+                extractClaims(
+                    MAPPER.convertValue(requestedVerifiedClaims, Map.class), 
+                    MAPPER.convertValue(userVerifiedClaims.get(VERIFIED_CLAIMS), Map.class), 
+                    extractedClaims);
+                MAPPER.writeValueAsString(extractedClaims);
+            }
+        }
+    }
+
+    /**
+     * Reads a fixture bundled with the mapper
+     * 
+     * @param path The fixture's path in the classpath
+     * @return
+     * @throws FileNotFoundException If the fixture is not bundled
+     * @throws IOException
+     */
+    private static String readWarmUpFixture(String path) throws IOException {
+        try (InputStream in = IdaProtocolMapper.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new FileNotFoundException(String.format(ERROR_MESSAGE_WARM_UP_FIXTURE_MISSING, path));
+            }
+
+            return streamToString(in);
+        }
+    }
+
+    /**
+     * Opens connections to the external stores used by every realm's mappers, waiting for them up to the warm-up 
+     * timeout
+     * 
+     * @param factory
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    private void warmUpConnections(KeycloakSessionFactory factory) throws InterruptedException, ExecutionException {
+        List<CompletableFuture<Void>> connections = KeycloakModelUtils.runJobInTransactionWithResult(factory, session -> {
+            List<CompletableFuture<Void>> realmConnections = new ArrayList<>();
+
+            session.realms().getRealmsStream().forEach(realm -> {
+                // Connectors keep separate connections for each realm
+                session.getContext().setRealm(realm);
+
+                Stream.concat(
+                        realm.getClientsStream().flatMap(ProtocolMapperContainerModel::getProtocolMappersStream), 
+                        realm.getClientScopesStream().flatMap(ProtocolMapperContainerModel::getProtocolMappersStream))
+                    .filter(mapperModel -> PROVIDER_ID.equals(mapperModel.getProtocolMapper()))
+                    .map(IdaMapperConfig::compile)
+                    .filter(config -> !config.isLocalSource())
+                    .collect(Collectors.toMap(
+                        config -> Arrays.asList(config.getConnectorId(), config.getConnectorConfig()), 
+                        Function.identity(), 
+                        (first, second) -> first))
+                    .values().stream()
+                    .filter(config -> getConnector(session, config.getConnectorId()) != null)
+                    .map(config -> getConnector(session, config.getConnectorId()).warmUp(config.getConnectorConfig()))
+                    .forEach(realmConnections::add);
+            });
+
+            return realmConnections;
+        });
+
+        try {
+            CompletableFuture.allOf(connections.toArray(new CompletableFuture[0]))
+                .get(warmUpTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOG.warnf(ERROR_MESSAGE_WARM_UP_CONNECTIONS_TIMEOUT, warmUpTimeout);
+        }
     }
 
     @Override
@@ -128,8 +478,28 @@ public class IdaProtocolMapper extends AbstractOIDCProtocolMapper implements OID
         if (!Boolean.parseBoolean(mapperModel.getConfig().get(IDA_LOCAL_SOURCE_NAME))) {
         // If external source will be used then validates it
 
-            IdaConnector idaConnector = session.getProvider(IdaConnector.class);
+            IdaConnector idaConnector = getConnector(session, mapperModel.getConfig().get(IDA_CONNECTOR_NAME));
+            if (idaConnector == null) {
+            // If the selected connector is not deployed
+
+                throw new ProtocolMapperConfigException(ERROR_MESSAGE_UNKNOWN_CONNECTOR, MESSAGE_CONFIG_INVALID_VALUE);
+            }
+
             idaConnector.validateIdaExternalStore(mapperModel.getConfig());   
+
+            if (IdaMapperConfig.parseExternalStoreTimeout(mapperModel.getConfig()) <= 0) {
+            // If the timeout is not a positive number of milliseconds
+
+                throw new ProtocolMapperConfigException(ERROR_MESSAGE_EXTERNAL_STORE_INVALID_TIMEOUT, MESSAGE_INVALID_NUMBER);
+            }
+
+            try {
+                IdaMapperConfig.parseClientLimits(mapperModel.getConfig());
+            } catch (IllegalArgumentException e) {
+            // If a limit is negative, the rate is not finite, or the burst or concurrency is not an integer
+
+                throw new ProtocolMapperConfigException(ERROR_MESSAGE_INVALID_LIMIT, MESSAGE_INVALID_NUMBER, e);
+            }
         }
     }
 
@@ -149,16 +519,40 @@ public class IdaProtocolMapper extends AbstractOIDCProtocolMapper implements OID
             return;
         }
 
-        LOG.debugf("Requested claims string: %s", requestedString.replaceAll("\\s", ""));
+        String curEndpointKey = getEndpointKey(token.getType()); // Current token type (userinfo or id_token)
+        if (!ClaimsRequestClassifier.mayRequestVerifiedClaims(requestedString, curEndpointKey)) {
+        // If verified claims are not even mentioned, the request is neither hashed nor parsed
+
+            LOG.debug(ERROR_MESSAGE_REQUESTED_VERIFIED_CLAIMS_NOT_REQUESTED);
+
+            return;
+        }
+
+        // The fingerprint matches the session's classification, then the validated request
+        String fingerprint = ValidatedClaimsRequests.fingerprint(requestedString);
+        if (!ClaimsRequestClassifier.requestsVerifiedClaims(acs, requestedString, fingerprint, curEndpointKey)) {
+        // If no verified claims were requested for the current token, the request is not even parsed
+
+            LOG.debug(ERROR_MESSAGE_REQUESTED_VERIFIED_CLAIMS_NOT_REQUESTED);
+
+            return;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Requested claims string: %s", requestedString.replaceAll("\\s", ""));
+        }
 
         try {
-            // Parsing the requested claims to a JSON object
-            ObjectMapper mapper = new ObjectMapper()
-                .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
-                .enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
-            JsonNode requestedClaims = mapper.readTree(requestedString);
+            // Requests validated at the authorization endpoint, or for a previous token, are not validated again
+            JsonNode requestedClaims = ValidatedClaimsRequests.getInstance().get(fingerprint);
+            boolean validated = requestedClaims != null || fingerprint.equals(acs.getNote(CLAIMS_VALIDATED_NOTE));
+
+            if (requestedClaims == null || requestedClaims.isMissingNode()) {
+            // Parsing the requested claims to a JSON object, unless a small validated request has been kept parsed
+
+                requestedClaims = ValidatedClaimsRequests.parse(requestedString);
+            }
 
-            String curEndpointKey = getEndpointKey(token.getType()); // Current token type (userinfo or id_token)
             if (requestedClaims.get(curEndpointKey) == null) {
             // If the current token is not of a requested type, return
 
@@ -178,25 +572,40 @@ public class IdaProtocolMapper extends AbstractOIDCProtocolMapper implements OID
                 return;
             }
 
-            // Asserts that every "claims" sub-element is not null 
-            assertClaimsNotEmpty(
-                requestedVerifiedClaims.isArray() 
-                    ? mapper.convertValue(requestedVerifiedClaims, List.class) 
-                    : mapper.convertValue(requestedVerifiedClaims, Map.class));
+            if (!validated) {
+            // If the request has not been validated yet, on this node or for this client session
 
-            // Validates the request using a JSON schema 
-            VerifiedClaimsValidator.validateVerifiedClaimsRequest(requestedClaims);
+                // Asserts that every "claims" sub-element is not null 
+                assertClaimsNotEmpty(requestedClaims);
 
-            JsonNode userVerifiedClaims = null;
-            if (!Boolean.parseBoolean(mappingModel.getConfig().get(IDA_LOCAL_SOURCE_NAME))) {
-            // Retrieves user's verified claims from external source
+                // Validates the request using a JSON schema 
+                VerifiedClaimsValidator.validateVerifiedClaimsRequest(requestedClaims);
 
-                IdaConnector idaConnector = keycloakSession.getProvider(IdaConnector.class); 
-                userVerifiedClaims = idaConnector.getVerifiedClaims(mappingModel.getConfig(), userSession.getUser().getUsername());
-            } else if (userSession.getUser() != null) {
+                ValidatedClaimsRequests.getInstance().put(fingerprint, requestedString, requestedClaims);
+                acs.setNote(CLAIMS_VALIDATED_NOTE, fingerprint);
+            }
+
+            IdaMapperConfig config = getCompiledConfig(userSession.getRealm(), mappingModel);
+            JsonNode userVerifiedClaims = null;
+            if (config.isLocalSource()) {
             // Retrieves user's verified claims from keycloak's database
 
-                userVerifiedClaims = getVerifiedClaimsFromUserAttribute(userSession.getUser());
+                if (userSession.getUser() != null) {
+                    userVerifiedClaims = getVerifiedClaimsFromUserAttribute(userSession.getUser(), VERIFIED_CLAIMS, 
+                        requestedVerifiedClaims);
+                }
+            } else if (isReplicated(config, userSession.getRealm())) {
+            // Retrieves user's verified claims from the attribute the external source is replicated into
+
+                if (userSession.getUser() != null) {
+                    userVerifiedClaims = getVerifiedClaimsFromUserAttribute(userSession.getUser(), 
+                        config.getReplicationClaimsAttribute(), requestedVerifiedClaims);
+                }
+            } else {
+            // Retrieves user's verified claims from external source
+
+                userVerifiedClaims = getVerifiedClaimsFromExternalStore(keycloakSession, config, 
+                    userSession.getRealm(), acs.getClient(), userSession.getUser(), requestedVerifiedClaims);
             }
 
             if (userVerifiedClaims == null || userVerifiedClaims.get(VERIFIED_CLAIMS) == null) {
@@ -211,11 +620,11 @@ public class IdaProtocolMapper extends AbstractOIDCProtocolMapper implements OID
             List<Map<String, Object>> extractedClaims = new ArrayList<Map<String, Object>>();
             extractClaims(
                 requestedVerifiedClaims.isArray() 
-                    ? mapper.convertValue(requestedVerifiedClaims, List.class) 
-                    : mapper.convertValue(requestedVerifiedClaims, Map.class), 
+                    ? MAPPER.convertValue(requestedVerifiedClaims, List.class) 
+                    : MAPPER.convertValue(requestedVerifiedClaims, Map.class), 
                 userVerifiedClaims.isArray() 
-                    ? mapper.convertValue(userVerifiedClaims, List.class) 
-                    : mapper.convertValue(userVerifiedClaims, Map.class), 
+                    ? MAPPER.convertValue(userVerifiedClaims, List.class) 
+                    : MAPPER.convertValue(userVerifiedClaims, Map.class), 
                 extractedClaims);
             
             if (extractedClaims.isEmpty()) {
@@ -229,16 +638,14 @@ public class IdaProtocolMapper extends AbstractOIDCProtocolMapper implements OID
             extractedClaims.forEach(entry -> LOG.debugf("Resulting verified claims object: %s", entry.toString()));
 
             // Adding the verified_claims property to token
-            mappingModel.getConfig().put(OIDCAttributeMapperHelper.TOKEN_CLAIM_NAME, VERIFIED_CLAIMS);
             if (extractedClaims.size() > 1) {
             // If multiple verified_claims objects were extracted
 
-                mappingModel.getConfig().put(ProtocolMapperUtils.MULTIVALUED, "true");
-                OIDCAttributeMapperHelper.mapClaim(token, mappingModel, extractedClaims);
+                OIDCAttributeMapperHelper.mapClaim(token, config.getMultivaluedClaimModel(), extractedClaims);
             } else {
             // If a single verified_claims object was extracted
 
-                OIDCAttributeMapperHelper.mapClaim(token, mappingModel, extractedClaims.get(0));
+                OIDCAttributeMapperHelper.mapClaim(token, config.getSingleClaimModel(), extractedClaims.get(0));
             }
         } catch (JsonProcessingException e) {
         // The requested claims are not in a valid JSON format
@@ -256,6 +663,174 @@ public class IdaProtocolMapper extends AbstractOIDCProtocolMapper implements OID
         }
     }
 
+    /**
+     * Checks whether the mapper's external store has been replicated into Keycloak's database, so verified claims 
+     * can be read locally. Until the store's first full snapshot has been replicated, the store is called
+     * 
+     * @param config
+     * @param realm
+     * @return
+     */
+    private boolean isReplicated(IdaMapperConfig config, RealmModel realm) {
+        return config.isReplicated() && realm.getAttribute(config.getReplicationCompletedAttribute()) != null;
+    }
+
+    /**
+     * Gets the compiled configuration of a mapper, compiling it again if the mapper's configuration has changed
+     * 
+     * @param realm        The realm the mapper belongs to
+     * @param mappingModel
+     * @return
+     */
+    private IdaMapperConfig getCompiledConfig(RealmModel realm, ProtocolMapperModel mappingModel) {
+        if (mappingModel.getId() == null || realm == null) {
+        // Mappers without an ID cannot be told apart, so their configuration is not kept
+
+            return IdaMapperConfig.compile(mappingModel);
+        }
+
+        Map<String, IdaMapperConfig> realmConfigs = compiledConfigs.computeIfAbsent(realm.getId(), 
+            key -> new ConcurrentHashMap<>());
+        IdaMapperConfig config = realmConfigs.get(mappingModel.getId());
+
+        if (config == null || !config.isCompiledFrom(mappingModel)) {
+        // If the mapper is used for the first time, or its configuration has changed
+
+            config = IdaMapperConfig.compile(mappingModel);
+            realmConfigs.put(mappingModel.getId(), config);
+        }
+
+        return config;
+    }
+
+    /**
+     * Discards the compiled configurations of a client's mappers. Client removal events are published before the 
+     * client's mappers are deleted, so they can still be listed
+     * 
+     * @param realm
+     * @param client
+     */
+    private void removeCompiledConfigs(RealmModel realm, ClientModel client) {
+        Map<String, IdaMapperConfig> realmConfigs = realm != null ? compiledConfigs.get(realm.getId()) : null;
+
+        if (realmConfigs == null) {
+            return;
+        }
+
+        try {
+            client.getProtocolMappersStream().map(ProtocolMapperModel::getId).forEach(realmConfigs::remove);
+        } catch (RuntimeException e) {
+        // If the mappers can no longer be listed, the realm's configurations are compiled again on next use
+
+            compiledConfigs.remove(realm.getId());
+        }
+    }
+
+    /**
+     * Gets the verified claims from the external store. Claims cached by the connector are served first, and the 
+     * store is only called if the client and realm are under their limits. Otherwise, the cached claims are served 
+     * even if expired
+     * 
+     * @param session
+     * @param config
+     * @param realm
+     * @param client
+     * @param user
+     * @param requestedVerifiedClaims
+     * @return the verified claims or null, if they could not be retrieved
+     */
+    private JsonNode getVerifiedClaimsFromExternalStore(KeycloakSession session, IdaMapperConfig config, 
+            RealmModel realm, ClientModel client, UserModel user, JsonNode requestedVerifiedClaims) {
+        IdaConnector idaConnector = getConnector(session, config.getConnectorId());
+        if (idaConnector == null) {
+        // If the selected connector is no longer deployed
+
+            LOG.errorf(ERROR_MESSAGE_UNKNOWN_CONNECTOR + " IDA Connector = '%s'", config.getConnectorId());
+            return null;
+        }
+
+        String userId = user.getUsername();
+
+        JsonNode cachedVerifiedClaims = idaConnector.getCachedVerifiedClaims(config, userId, 
+            requestedVerifiedClaims, false);
+        if (cachedVerifiedClaims != null) {
+        // Cached claims do not count against the limits
+
+            return cachedVerifiedClaims;
+        }
+
+        AdmissionController.Permit permit = admissionController.tryAdmit(realm.getId(), client.getId(), 
+            config.getMapperId(), config.getClientLimits());
+
+        if (permit == null) {
+        // If the client or the realm is over its limits, the store is not called
+
+            LOG.debugf(ERROR_MESSAGE_ADMISSION_REJECTED, client.getClientId());
+            cachedVerifiedClaims = idaConnector.getCachedVerifiedClaims(config, userId, 
+                requestedVerifiedClaims, true);
+
+            if (cachedVerifiedClaims != null) {
+                IdaMetrics.getInstance().increment(realm.getId(), ADMISSION_SERVED_STALE);
+            }
+
+            return cachedVerifiedClaims;
+        }
+
+        CompletableFuture<JsonNode> verifiedClaims;
+        try {
+            verifiedClaims = idaConnector.getVerifiedClaimsAsync(config, userId, requestedVerifiedClaims);
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+
+        // The permit is held until the call completes or is given up on
+        verifiedClaims.whenComplete((result, e) -> permit.release());
+
+        return awaitVerifiedClaims(verifiedClaims, config.getExternalStoreTimeout());
+    }
+
+    /**
+     * Gets a mapper's connector
+     * 
+     * @param session
+     * @param connectorId The connector selected for the mapper, or null for the default connector
+     * @return the connector or null, if it is not deployed
+     */
+    private IdaConnector getConnector(KeycloakSession session, String connectorId) {
+        return connectorId == null || connectorId.isBlank() 
+            ? session.getProvider(IdaConnector.class) 
+            : session.getProvider(IdaConnector.class, connectorId);
+    }
+
+    /**
+     * Waits for the verified claims being retrieved from the external store, giving up once the deadline is reached
+     * 
+     * @param verifiedClaims
+     * @param timeoutMillis
+     * @return the verified claims or null, if they could not be retrieved in time
+     */
+    private JsonNode awaitVerifiedClaims(CompletableFuture<JsonNode> verifiedClaims, long timeoutMillis) {
+        try {
+            return verifiedClaims.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+        // If the external store did not answer in time, the token is issued without verified claims
+
+            LOG.warnf(ERROR_MESSAGE_USER_VERIFIED_CLAIMS_TIMEOUT, timeoutMillis);
+            verifiedClaims.cancel(true);
+
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            return null;
+        } catch (ExecutionException e) {
+            LOG.warn(e.getCause().getMessage());
+
+            return null;
+        }
+    }
+
     /**
      * Try to extracts the verified_claims request from user's all verified claims set and put them into a list
      * 
@@ -291,23 +866,13 @@ public class IdaProtocolMapper extends AbstractOIDCProtocolMapper implements OID
     }
 
     /**
-     * Inspects each "verified_claims" object and assure that the "claims" sub-element is not empty
+     * Inspects each requested "verified_claims" object and assure that the "claims" sub-element is not empty
      * 
-     * @param verifiedClaims
+     * @param requestedClaims
      */
-    @SuppressWarnings("unchecked")
-    private void assertClaimsNotEmpty(Object verifiedClaims) {
-        if (verifiedClaims instanceof List) {
-        // If the verifiedClaims object is a list
-            
-            ((List<Map<String, Object>>) verifiedClaims).forEach(entry -> assertClaimsNotEmpty(entry));
-            return;
-        }
-
-        Object claims = ((Map<String, Object>) verifiedClaims).get(CLAIMS);
-
-        if (claims != null && claims instanceof Map && ((Map<String, Object>) claims).isEmpty()) {
-        // If the claims sub-element is empty, abort the transaction with an invalid_request error
+    private void assertClaimsNotEmpty(JsonNode requestedClaims) {
+        if (ValidatedClaimsRequests.hasEmptyClaims(requestedClaims)) {
+        // If a claims sub-element is empty, abort the transaction with an invalid_request error
 
             LOG.debug(ERROR_MESSAGE_REQUESTED_VERIFIED_CLAIMS_CLAIMS_EMPTY);
             
@@ -338,38 +903,46 @@ public class IdaProtocolMapper extends AbstractOIDCProtocolMapper implements OID
 
     /**
      * Gets the verified claims from user's attributes. The default verified claims attribute's name is 
-     * "verified_claims". It should have a JSON string containing one or more verified claims elements. It is also 
-     * possible to have multiple "verified_claims" attributes, each one with a different verified claims JSON.
+     * "verified_claims", while replicated stores each have their own attribute. It should have a JSON string 
+     * containing one or more verified claims elements. It is also possible to have multiple attributes, each one with 
+     * a different verified claims JSON. Only the parts that may satisfy the request are read, so large attributes are 
+     * not fully materialized.
      *   
      * @param user
+     * @param attribute               The name of the attributes holding the verified claims
+     * @param requestedVerifiedClaims The "verified_claims" request being served
      * @return
      */
-    private JsonNode getVerifiedClaimsFromUserAttribute(UserModel user) {
-        if (user.getFirstAttribute(VERIFIED_CLAIMS) == null) {
+    private JsonNode getVerifiedClaimsFromUserAttribute(UserModel user, String attribute, 
+            JsonNode requestedVerifiedClaims) {
+        if (user.getFirstAttribute(attribute) == null) {
         // If the user does not have any verified claims registered
 
             return null;
         }
 
         // The JsonNode that will be returned
-        ObjectMapper mapper = new ObjectMapper()
-            .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
-            .enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
-        ArrayNode userVerifiedClaims = mapper.createArrayNode();
+        ArrayNode userVerifiedClaims = MAPPER.createArrayNode();
+        VerifiedClaimsProjection projection = VerifiedClaimsProjection.of(requestedVerifiedClaims);
         
         // Gets all user's verified_claims attributes
-        List<String> verifiedClaimsStrings = user.getAttributeStream(VERIFIED_CLAIMS).collect(Collectors.toList());
+        List<String> verifiedClaimsStrings = user.getAttributeStream(attribute).collect(Collectors.toList());
         for (String verifiedClaimsString : verifiedClaimsStrings) {
         // For each verified_claim
 
-            JsonNode verifiedClaims;
+            List<JsonNode> candidates;
 
             try {
-                // Parses the verified_claims string
-                verifiedClaims = mapper.readTree(verifiedClaimsString);
-                // Validates the verified_claims object using a JSON schema
-                VerifiedClaimsValidator.validateVerifiedClaims(verifiedClaims);
-            } catch (JsonProcessingException e) {
+                // Reads the verified_claims elements that may satisfy the request
+                candidates = VerifiedClaimsAttributeReader.read(verifiedClaimsString, projection);
+                if (candidates.isEmpty()) {
+                    continue;
+                }
+
+                // Validates the candidates using a JSON schema
+                VerifiedClaimsValidator.validateVerifiedClaims(
+                    MAPPER.createObjectNode().set(VERIFIED_CLAIMS, MAPPER.createArrayNode().addAll(candidates)));
+            } catch (IOException e) {
             // The verified_claims are not in a valid JSON format
 
                 LOG.info(ERROR_MESSAGE_USER_VERIFIED_CLAIMS_INVALID_JSON);
@@ -381,24 +954,10 @@ public class IdaProtocolMapper extends AbstractOIDCProtocolMapper implements OID
                 continue;
             }
 
-            if (verifiedClaims.get(VERIFIED_CLAIMS) == null) {
-            // If verified claims cannot be found
-
-                continue;
-            }
-
-            if (verifiedClaims.get(VERIFIED_CLAIMS).isArray()) {
-            // If the verified_claims is a array, add each element to userVerifiedClaims
-
-                verifiedClaims.get(VERIFIED_CLAIMS).elements().forEachRemaining(entry -> userVerifiedClaims.add(entry));
-            } else {
-            // If the verified_claims is a single object, add it to userVerifiedClaims
-
-                userVerifiedClaims.add(verifiedClaims.get(VERIFIED_CLAIMS));
-            }
+            userVerifiedClaims.addAll(candidates);
         }
 
-        return mapper.createObjectNode().set(VERIFIED_CLAIMS, userVerifiedClaims);
+        return MAPPER.createObjectNode().set(VERIFIED_CLAIMS, userVerifiedClaims);
     }
 
     @Override
@@ -0,0 +1,23 @@
+package org.keycloak.protocol.oidc.ida.mappers.admission;
+
+public class AdmissionConstants {
+    // Configs and properties
+    public static final String IDA_CLIENT_RATE_LIMIT_NAME = "ida.admission.client.rate";
+    public static final String IDA_CLIENT_RATE_LIMIT_LABEL = "IDA external source's client rate limit";
+    public static final String IDA_CLIENT_RATE_LIMIT_HELP_TEXT = "How many calls per second each client can make to the external source (0 disables the limit). Over the limit, cached verified claims are served, even if expired, or the token is issued without them";
+    public static final String IDA_CLIENT_BURST_NAME = "ida.admission.client.burst";
+    public static final String IDA_CLIENT_BURST_LABEL = "IDA external source's client burst";
+    public static final String IDA_CLIENT_BURST_HELP_TEXT = "How many calls each client can make at once to the external source after being idle (0 uses the rate limit)";
+    public static final String IDA_CLIENT_CONCURRENCY_NAME = "ida.admission.client.concurrency";
+    public static final String IDA_CLIENT_CONCURRENCY_LABEL = "IDA external source's client concurrency";
+    public static final String IDA_CLIENT_CONCURRENCY_HELP_TEXT = "How many calls each client can have in flight to the external source (0 disables the limit)";
+    public static final String LIMIT_DEFAULT = "0";
+
+    public static final String REALM_RATE_LIMIT_CONFIG = "realmRate";
+    public static final String REALM_BURST_CONFIG = "realmBurst";
+    public static final String REALM_CONCURRENCY_CONFIG = "realmConcurrency";
+
+    // Error messages
+    public static final String ERROR_MESSAGE_INVALID_LIMIT = "The IDA's external source's rate limit must be a finite non-negative number, and its burst and concurrency limits non-negative integers.";
+    public static final String ERROR_MESSAGE_INVALID_REALM_LIMIT = "The realm limits set in '%s', '%s' and '%s' are invalid: %s";
+}
@@ -0,0 +1,132 @@
+package org.keycloak.protocol.oidc.ida.mappers.admission;
+
+import org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.ADMISSION_ADMITTED;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.ADMISSION_REJECTED_CLIENT_CONCURRENCY;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.ADMISSION_REJECTED_CLIENT_RATE;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.ADMISSION_REJECTED_REALM_CONCURRENCY;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.ADMISSION_REJECTED_REALM_RATE;
+
+/**
+ * Decides whether a call to an external store can be made, so a single client cannot use up the store's quota or 
+ * slow down every other client's logins. Each client is limited by the configuration of each of its mappers, so a 
+ * client using several mappers has a limiter for each, and each realm by the server's configuration. Limits are 
+ * enforced by each cluster node on its own.
+ */
+public class AdmissionController {
+    private final AdmissionLimits realmLimits;
+    private final IdaMetrics metrics;
+    private final Map<String, AdmissionLimiter> realmLimiters = new ConcurrentHashMap<>();
+    // Indexed by client ID and mapper ID
+    private final Map<String, Map<String, AdmissionLimiter>> clientLimiters = new ConcurrentHashMap<>();
+
+    public AdmissionController(AdmissionLimits realmLimits, IdaMetrics metrics) {
+        this.realmLimits = realmLimits;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Tries to admit a call to an external store
+     * 
+     * @param realmId
+     * @param clientId     The client's internal ID
+     * @param mapperId     The ID of the mapper making the call, or null if it has none
+     * @param clientLimits Limits set in the mapper
+     * @return a permit to be released once the call completes, or null if the call was rejected
+     */
+    public Permit tryAdmit(String realmId, String clientId, String mapperId, AdmissionLimits clientLimits) {
+        AdmissionLimiter clientLimiter = getClientLimiter(clientId, mapperId != null ? mapperId : "", clientLimits);
+        AdmissionLimiter realmLimiter = getRealmLimiter(realmId);
+
+        AdmissionLimiter.Result result = clientLimiter.tryAcquire();
+        if (result != AdmissionLimiter.Result.ADMITTED) {
+            metrics.increment(realmId, result == AdmissionLimiter.Result.REJECTED_RATE 
+                ? ADMISSION_REJECTED_CLIENT_RATE 
+                : ADMISSION_REJECTED_CLIENT_CONCURRENCY);
+
+            return null;
+        }
+
+        result = realmLimiter.tryAcquire();
+        if (result != AdmissionLimiter.Result.ADMITTED) {
+        // The client's slot is given back, but not its token, so a client cannot retry faster than its own rate
+
+            clientLimiter.release();
+            metrics.increment(realmId, result == AdmissionLimiter.Result.REJECTED_RATE 
+                ? ADMISSION_REJECTED_REALM_RATE 
+                : ADMISSION_REJECTED_REALM_CONCURRENCY);
+
+            return null;
+        }
+
+        metrics.increment(realmId, ADMISSION_ADMITTED);
+
+        return new Permit(clientLimiter, realmLimiter);
+    }
+
+    /**
+     * Discards the limiters of a client
+     * 
+     * @param clientId
+     */
+    public void removeClient(String clientId) {
+        clientLimiters.remove(clientId);
+    }
+
+    /**
+     * Discards the limiters of a realm
+     * 
+     * @param realmId
+     */
+    public void removeRealm(String realmId) {
+        realmLimiters.remove(realmId);
+    }
+
+    private AdmissionLimiter getClientLimiter(String clientId, String mapperId, AdmissionLimits clientLimits) {
+        Map<String, AdmissionLimiter> mapperLimiters = clientLimiters.computeIfAbsent(clientId, 
+            key -> new ConcurrentHashMap<>());
+        AdmissionLimiter limiter = mapperLimiters.get(mapperId);
+
+        if (limiter != null && limiter.getLimits().equals(clientLimits)) {
+            return limiter;
+        }
+
+        // Limiters are rebuilt when the mapper's limits change
+        return mapperLimiters.compute(mapperId, (key, current) -> current != null && current.getLimits().equals(clientLimits) 
+            ? current 
+            : new AdmissionLimiter(clientLimits));
+    }
+
+    private AdmissionLimiter getRealmLimiter(String realmId) {
+        return realmLimiters.computeIfAbsent(realmId, key -> new AdmissionLimiter(realmLimits));
+    }
+
+    /**
+     * Permission to make a call, held until the call completes
+     */
+    public static class Permit {
+        private final AdmissionLimiter clientLimiter;
+        private final AdmissionLimiter realmLimiter;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AdmissionLimiter clientLimiter, AdmissionLimiter realmLimiter) {
+            this.clientLimiter = clientLimiter;
+            this.realmLimiter = realmLimiter;
+        }
+
+        /**
+         * Releases the permit. Releasing it more than once has no effect
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                clientLimiter.release();
+                realmLimiter.release();
+            }
+        }
+    }
+}
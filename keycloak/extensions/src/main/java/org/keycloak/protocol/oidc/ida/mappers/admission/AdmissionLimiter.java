@@ -0,0 +1,60 @@
+package org.keycloak.protocol.oidc.ida.mappers.admission;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Enforces a set of limits, for a single client or realm
+ */
+public class AdmissionLimiter {
+    /**
+     * Outcome of an admission attempt
+     */
+    public enum Result {
+        ADMITTED,
+        REJECTED_RATE,
+        REJECTED_CONCURRENCY
+    }
+
+    private final AdmissionLimits limits;
+    private final TokenBucket bucket;
+    private final Semaphore inFlight;
+
+    public AdmissionLimiter(AdmissionLimits limits) {
+        this.limits = limits;
+        this.bucket = limits.isRateLimited() ? new TokenBucket(limits.getRate(), limits.getBurst()) : null;
+        this.inFlight = limits.isConcurrencyLimited() ? new Semaphore(limits.getConcurrency()) : null;
+    }
+
+    /**
+     * Tries to admit a call. Admitted calls must be released once they complete
+     * 
+     * @return
+     */
+    public Result tryAcquire() {
+        if (inFlight != null && !inFlight.tryAcquire()) {
+            return Result.REJECTED_CONCURRENCY;
+        }
+
+        if (bucket != null && !bucket.tryAcquire()) {
+        // The concurrency slot is given back, so rejected calls do not hold it
+
+            release();
+            return Result.REJECTED_RATE;
+        }
+
+        return Result.ADMITTED;
+    }
+
+    /**
+     * Releases a call admitted before
+     */
+    public void release() {
+        if (inFlight != null) {
+            inFlight.release();
+        }
+    }
+
+    public AdmissionLimits getLimits() {
+        return limits;
+    }
+}
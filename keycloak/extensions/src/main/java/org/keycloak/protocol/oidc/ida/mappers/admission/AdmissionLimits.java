@@ -0,0 +1,99 @@
+package org.keycloak.protocol.oidc.ida.mappers.admission;
+
+import java.util.Objects;
+
+/**
+ * Limits applied to the calls made to external stores
+ */
+public final class AdmissionLimits {
+    public static final AdmissionLimits UNLIMITED = new AdmissionLimits(0, 0, 0);
+
+    private final double rate;
+    private final int burst;
+    private final int concurrency;
+
+    /**
+     * @param rate        Calls allowed per second, 0 for no limit
+     * @param burst       Calls allowed at once after being idle, 0 to use the rate
+     * @param concurrency Calls allowed in flight, 0 for no limit
+     */
+    public AdmissionLimits(double rate, int burst, int concurrency) {
+        if (!Double.isFinite(rate) || rate < 0 || burst < 0 || concurrency < 0) {
+        // NaN would pass a plain comparison, and an infinite rate could not be turned into a burst
+            throw new IllegalArgumentException(AdmissionConstants.ERROR_MESSAGE_INVALID_LIMIT);
+        }
+
+        this.rate = rate;
+        this.burst = burst > 0 ? burst : (int) Math.max(Math.ceil(rate), 1);
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Parses limits from configuration values, where blank values mean no limit
+     * 
+     * @param rate        A decimal number
+     * @param burst       An integer
+     * @param concurrency An integer
+     * @return
+     * @throws IllegalArgumentException If the rate is not a finite non-negative number, or the burst or concurrency 
+     *                                  is not a non-negative integer
+     */
+    public static AdmissionLimits parse(String rate, String burst, String concurrency) {
+        AdmissionLimits limits = new AdmissionLimits(parseRate(rate), parseCount(burst), parseCount(concurrency));
+
+        return limits.isUnlimited() ? UNLIMITED : limits;
+    }
+
+    private static double parseRate(String value) {
+        return value == null || value.isBlank() ? 0 : Double.parseDouble(value.trim());
+    }
+
+    private static int parseCount(String value) {
+        // Fractions and values past Integer.MAX_VALUE are rejected rather than truncated
+        return value == null || value.isBlank() ? 0 : Integer.parseInt(value.trim());
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public boolean isRateLimited() {
+        return rate > 0;
+    }
+
+    public boolean isConcurrencyLimited() {
+        return concurrency > 0;
+    }
+
+    public boolean isUnlimited() {
+        return !isRateLimited() && !isConcurrencyLimited();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof AdmissionLimits)) {
+            return false;
+        }
+
+        AdmissionLimits other = (AdmissionLimits) o;
+
+        return rate == other.rate && burst == other.burst && concurrency == other.concurrency;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rate, burst, concurrency);
+    }
+}
@@ -0,0 +1,41 @@
+package org.keycloak.protocol.oidc.ida.mappers.admission;
+
+/**
+ * Token bucket refilled continuously at a fixed rate, up to its capacity
+ */
+public class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilledAt;
+
+    /**
+     * @param rate     Tokens added per second
+     * @param capacity Maximum number of tokens
+     */
+    public TokenBucket(double rate, int capacity) {
+        this.tokensPerNano = rate / 1_000_000_000d;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Takes a token from the bucket
+     * 
+     * @return true if a token was available
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+
+        if (tokens < 1) {
+            return false;
+        }
+
+        tokens--;
+
+        return true;
+    }
+}
@@ -0,0 +1,27 @@
+package org.keycloak.protocol.oidc.ida.mappers.bulkimport;
+
+public class BulkImportConstants {
+    // Configs and properties
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int MAX_BATCH_SIZE = 10000;
+    public static final int MAX_REPORTED_ERRORS = 1000;
+    public static final String THREAD_NAME_PREFIX = "ida-import-";
+
+    // JSON keys
+    public static final String USER_ID = "userId";
+    public static final String USERNAME = "username";
+
+    // Error codes
+    public static final String ERROR_INVALID_JSON = "invalid_json";
+    public static final String ERROR_INVALID_SCHEMA = "invalid_schema";
+    public static final String ERROR_MISSING_USER = "missing_user";
+    public static final String ERROR_MISSING_VERIFIED_CLAIMS = "missing_verified_claims";
+    public static final String ERROR_USER_NOT_FOUND = "user_not_found";
+    public static final String ERROR_WRITE_FAILED = "write_failed";
+
+    // Error messages
+    public static final String ERROR_MESSAGE_MISSING_USER = "Each line must have either a \"userId\" or a \"username\".";
+    public static final String ERROR_MESSAGE_MISSING_VERIFIED_CLAIMS = "The line does not have a \"verified_claims\" element.";
+    public static final String ERROR_MESSAGE_USER_NOT_FOUND = "The user could not be found in the realm.";
+    public static final String ERROR_MESSAGE_BATCH_FAILED = "The batch containing lines %d to %d could not be written.";
+}
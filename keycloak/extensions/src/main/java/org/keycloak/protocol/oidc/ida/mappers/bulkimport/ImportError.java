@@ -0,0 +1,53 @@
+package org.keycloak.protocol.oidc.ida.mappers.bulkimport;
+
+/**
+ * A line of an NDJSON import that could not be imported
+ */
+public class ImportError {
+    private long line;
+    private String user;
+    private String error;
+    private String message;
+
+    public ImportError() {
+    }
+
+    public ImportError(long line, String user, String error, String message) {
+        this.line = line;
+        this.user = user;
+        this.error = error;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public void setUser(String user) {
+        this.user = user;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,89 @@
+package org.keycloak.protocol.oidc.ida.mappers.bulkimport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of an NDJSON import. At most {@link BulkImportConstants#MAX_REPORTED_ERRORS} errors are listed, but every 
+ * failed line is counted
+ */
+public class ImportResult {
+    private long processed;
+    private long imported;
+    private long failed;
+    private long durationMillis;
+    private double recordsPerSecond;
+    private boolean errorsTruncated;
+    private List<ImportError> errors = new ArrayList<>();
+
+    /**
+     * Records a line that could not be imported
+     * 
+     * @param error
+     */
+    public void addError(ImportError error) {
+        failed++;
+
+        if (errors.size() < BulkImportConstants.MAX_REPORTED_ERRORS) {
+            errors.add(error);
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public double getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+
+    public void setRecordsPerSecond(double recordsPerSecond) {
+        this.recordsPerSecond = recordsPerSecond;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public List<ImportError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<ImportError> errors) {
+        this.errors = errors;
+    }
+}
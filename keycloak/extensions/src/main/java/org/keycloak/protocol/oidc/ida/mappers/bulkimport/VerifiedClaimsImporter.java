@@ -0,0 +1,256 @@
+package org.keycloak.protocol.oidc.ida.mappers.bulkimport;
+
+import org.jboss.logging.Logger;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.models.utils.KeycloakModelUtils;
+import org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import net.jimblackler.jsonschemafriend.GenerationException;
+import net.jimblackler.jsonschemafriend.ValidationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.ERROR_INVALID_JSON;
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.ERROR_INVALID_SCHEMA;
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.ERROR_MESSAGE_BATCH_FAILED;
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.ERROR_MESSAGE_MISSING_USER;
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.ERROR_MESSAGE_MISSING_VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.ERROR_MESSAGE_USER_NOT_FOUND;
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.ERROR_MISSING_USER;
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.ERROR_MISSING_VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.ERROR_USER_NOT_FOUND;
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.ERROR_WRITE_FAILED;
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.USERNAME;
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.USER_ID;
+
+/**
+ * Imports verified claims from an NDJSON stream into users' "verified_claims" attributes. Each line holds a 
+ * "verified_claims" element and identifies its user through either a "userId" or a "username":
+ * 
+ * <pre>
+ * {"username": "ida_user", "verified_claims": {"verification": {...}, "claims": {...}}}
+ * </pre>
+ * 
+ * Lines are parsed and validated in parallel while the stream is still being read, and are written in batched 
+ * transactions, so only one batch is held in memory at a time. The attribute of an imported user is replaced.
+ */
+public class VerifiedClaimsImporter {
+    private static final Logger LOG = Logger.getLogger(VerifiedClaimsImporter.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
+        .enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
+
+    private final KeycloakSessionFactory sessionFactory;
+    private final String realmId;
+    private final int batchSize;
+    private final ExecutorService validators;
+
+    public VerifiedClaimsImporter(KeycloakSessionFactory sessionFactory, String realmId, int batchSize, 
+            ExecutorService validators) {
+        this.sessionFactory = sessionFactory;
+        this.realmId = realmId;
+        this.batchSize = batchSize;
+        this.validators = validators;
+    }
+
+    /**
+     * Imports every line of an NDJSON stream
+     * 
+     * @param input
+     * @return the import summary, including the lines that could not be imported
+     * @throws IOException If the stream could not be read
+     */
+    public ImportResult importVerifiedClaims(InputStream input) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        ImportResult result = new ImportResult();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<Future<ImportRecord>> batch = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                final long currentLineNumber = lineNumber;
+                final String currentLine = line;
+                batch.add(validators.submit(() -> parse(currentLineNumber, currentLine)));
+
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, result);
+                    batch.clear();
+                }
+            }
+
+            writeBatch(batch, result);
+        }
+
+        result.setDurationMillis(System.currentTimeMillis() - startedAt);
+        result.setRecordsPerSecond(result.getProcessed() * 1000.0 / Math.max(result.getDurationMillis(), 1));
+
+        LOG.infof("Imported %d of %d verified claims records in %d ms", result.getImported(), result.getProcessed(), 
+            result.getDurationMillis());
+
+        return result;
+    }
+
+    /**
+     * Parses and validates a single line
+     * 
+     * @param lineNumber
+     * @param line
+     * @return
+     */
+    private ImportRecord parse(long lineNumber, String line) {
+        ImportRecord record = new ImportRecord(lineNumber);
+
+        try {
+            JsonNode json = MAPPER.readTree(line);
+            record.userId = json.path(USER_ID).textValue();
+            record.username = json.path(USERNAME).textValue();
+
+            if (record.userId == null && record.username == null) {
+                return record.fail(ERROR_MISSING_USER, ERROR_MESSAGE_MISSING_USER);
+            }
+
+            if (json.get(VERIFIED_CLAIMS) == null) {
+                return record.fail(ERROR_MISSING_VERIFIED_CLAIMS, ERROR_MESSAGE_MISSING_VERIFIED_CLAIMS);
+            }
+
+            // The attribute holds a "verified_claims" object, just like the ones set through the admin API
+            ObjectNode verifiedClaims = MAPPER.createObjectNode().set(VERIFIED_CLAIMS, json.get(VERIFIED_CLAIMS));
+            VerifiedClaimsValidator.validateVerifiedClaims(verifiedClaims);
+            record.value = MAPPER.writeValueAsString(verifiedClaims);
+
+            return record;
+        } catch (JsonProcessingException e) {
+        // The line is not in a valid JSON format
+
+            return record.fail(ERROR_INVALID_JSON, e.getOriginalMessage());
+        } catch (ValidationException | GenerationException e) {
+        // The verified_claims are not in a valid verified_claims object format
+
+            return record.fail(ERROR_INVALID_SCHEMA, e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for a batch of lines to be validated and writes the valid ones in a single transaction
+     * 
+     * @param batch
+     * @param result
+     * @throws IOException If the import has been interrupted
+     */
+    private void writeBatch(List<Future<ImportRecord>> batch, ImportResult result) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<ImportRecord> records = new ArrayList<>(batch.size());
+        for (Future<ImportRecord> future : batch) {
+            try {
+                ImportRecord record = future.get();
+                result.setProcessed(result.getProcessed() + 1);
+
+                if (record.error != null) {
+                    result.addError(record.error);
+                } else {
+                    records.add(record);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+        }
+
+        if (records.isEmpty()) {
+            return;
+        }
+
+        // Only applied to the result once the transaction has been committed
+        List<ImportRecord> notFound = new ArrayList<>();
+
+        try {
+            KeycloakModelUtils.runJobInTransaction(sessionFactory, session -> {
+                notFound.clear();
+
+                RealmModel realm = session.realms().getRealm(realmId);
+                session.getContext().setRealm(realm);
+
+                for (ImportRecord record : records) {
+                    UserModel user = record.userId != null 
+                        ? session.users().getUserById(realm, record.userId) 
+                        : session.users().getUserByUsername(realm, record.username);
+
+                    if (user == null) {
+                        notFound.add(record);
+                        continue;
+                    }
+
+                    user.setAttribute(VERIFIED_CLAIMS, Collections.singletonList(record.value));
+                }
+            });
+        } catch (RuntimeException e) {
+        // The whole batch has been rolled back
+
+            String message = String.format(ERROR_MESSAGE_BATCH_FAILED, records.get(0).lineNumber, 
+                records.get(records.size() - 1).lineNumber);
+            LOG.warn(message, e);
+
+            records.forEach(record -> result.addError(record.toError(ERROR_WRITE_FAILED, message)));
+            return;
+        }
+
+        notFound.forEach(record -> result.addError(record.toError(ERROR_USER_NOT_FOUND, ERROR_MESSAGE_USER_NOT_FOUND)));
+        result.setImported(result.getImported() + records.size() - notFound.size());
+    }
+
+    /**
+     * A parsed line, holding either the attribute value to be written or the reason it cannot be imported
+     */
+    private static class ImportRecord {
+        private final long lineNumber;
+        private String userId;
+        private String username;
+        private String value;
+        private ImportError error;
+
+        private ImportRecord(long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+
+        private ImportRecord fail(String error, String message) {
+            this.error = toError(error, message);
+            return this;
+        }
+
+        private ImportError toError(String error, String message) {
+            return new ImportError(lineNumber, userId != null ? userId : username, error, message);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.keycloak.protocol.oidc.ida.mappers.cache;
+
+import java.util.Set;
+
+public class CacheConstants {
+    // Configs and properties
+    public static final int DICTIONARY_MAX_SIZE = 65536;
+    public static final int DICTIONARY_MAX_VALUE_LENGTH = 64;
+
+    // JSON keys whose values are shared by many users, and are therefore kept in the dictionary
+    public static final Set<String> DICTIONARY_VALUE_KEYS = Set.of(
+        "trust_framework", "assurance_level", "policy", "procedure", "assurance_type", "assurance_classification", 
+        "evidence_classification", "type", "method", "check_method", "organization", "jurisdiction", "country", 
+        "country_code", "nationalities", "status", "source", "level");
+
+    // Encoding tags
+    public static final byte TAG_NULL = 0;
+    public static final byte TAG_TRUE = 1;
+    public static final byte TAG_FALSE = 2;
+    public static final byte TAG_LONG = 3;
+    public static final byte TAG_DOUBLE = 4;
+    public static final byte TAG_DECIMAL = 5;
+    public static final byte TAG_STRING = 6;
+    public static final byte TAG_STRING_REF = 7;
+    public static final byte TAG_ARRAY = 8;
+    public static final byte TAG_OBJECT = 9;
+    public static final byte TAG_BIG_INTEGER = 10;
+
+    // Error messages
+    public static final String ERROR_MESSAGE_UNKNOWN_TAG = "Unknown tag %d in the encoded verified claims.";
+}
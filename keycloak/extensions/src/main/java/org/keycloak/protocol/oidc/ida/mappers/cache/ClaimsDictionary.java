@@ -0,0 +1,73 @@
+package org.keycloak.protocol.oidc.ida.mappers.cache;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary of strings shared by every cached entry. JSON keys and enum-like values, such as trust frameworks and 
+ * evidence classifications, are stored once and referenced by their index in the encoded claims. Entries are never 
+ * removed, so indexes stay valid for as long as the dictionary lives.
+ */
+public class ClaimsDictionary {
+    private final int maxSize;
+    private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[256];
+    private int size;
+
+    public ClaimsDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the index of a string, adding it to the dictionary if it is not there yet
+     * 
+     * @param value
+     * @return the index or -1, if the dictionary is full
+     */
+    public int indexOf(String value) {
+        Integer index = indexes.get(value);
+
+        return index != null ? index : add(value);
+    }
+
+    private synchronized int add(String value) {
+        Integer index = indexes.get(value);
+        if (index != null) {
+        // If another thread has just added the string
+
+            return index;
+        }
+
+        if (size >= maxSize) {
+            return -1;
+        }
+
+        String[] current = values;
+        if (size == current.length) {
+        // Grows the array before publishing the new index, so readers always find the string
+
+            current = Arrays.copyOf(current, Math.min(current.length * 2, maxSize));
+        }
+
+        current[size] = value;
+        values = current;
+        indexes.put(value, size);
+
+        return size++;
+    }
+
+    /**
+     * Gets the string with a given index
+     * 
+     * @param index
+     * @return
+     */
+    public String get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return indexes.size();
+    }
+}
@@ -0,0 +1,241 @@
+package org.keycloak.protocol.oidc.ida.mappers.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.DICTIONARY_MAX_VALUE_LENGTH;
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.DICTIONARY_VALUE_KEYS;
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.ERROR_MESSAGE_UNKNOWN_TAG;
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.TAG_ARRAY;
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.TAG_BIG_INTEGER;
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.TAG_DECIMAL;
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.TAG_DOUBLE;
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.TAG_FALSE;
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.TAG_LONG;
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.TAG_NULL;
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.TAG_OBJECT;
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.TAG_STRING;
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.TAG_STRING_REF;
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.TAG_TRUE;
+
+/**
+ * Verified claims encoded in a compact binary form. Keys and enum-like values are replaced by references to a 
+ * {@link ClaimsDictionary}, every other value is written inline. The JSON tree is only materialized when the claims 
+ * are read, and is not kept, so a cached user costs a single byte array.
+ */
+public class CompactVerifiedClaims {
+    private static final JsonNodeFactory NODE_FACTORY = JsonNodeFactory.instance;
+
+    private final ClaimsDictionary dictionary;
+    private final byte[] data;
+
+    private CompactVerifiedClaims(ClaimsDictionary dictionary, byte[] data) {
+        this.dictionary = dictionary;
+        this.data = data;
+    }
+
+    /**
+     * Encodes verified claims
+     * 
+     * @param dictionary
+     * @param verifiedClaims
+     * @return
+     */
+    public static CompactVerifiedClaims encode(ClaimsDictionary dictionary, JsonNode verifiedClaims) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(out, dictionary, verifiedClaims, false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new CompactVerifiedClaims(dictionary, bytes.toByteArray());
+    }
+
+    /**
+     * Materializes the verified claims as a new JSON tree
+     * 
+     * @return
+     */
+    public JsonNode toJsonNode() {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            return read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the size of the encoded claims, in bytes
+     * 
+     * @return
+     */
+    public int size() {
+        return data.length;
+    }
+
+    private static void write(DataOutputStream out, ClaimsDictionary dictionary, JsonNode node, boolean shared) 
+        throws IOException {
+        switch (node.getNodeType()) {
+            case OBJECT:
+                out.writeByte(TAG_OBJECT);
+                writeVarInt(out, node.size());
+
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    writeString(out, dictionary, field.getKey(), true);
+                    write(out, dictionary, field.getValue(), DICTIONARY_VALUE_KEYS.contains(field.getKey()));
+                }
+                break;
+            case ARRAY:
+                out.writeByte(TAG_ARRAY);
+                writeVarInt(out, node.size());
+
+                for (JsonNode element : node) {
+                    write(out, dictionary, element, shared);
+                }
+                break;
+            case STRING:
+                writeString(out, dictionary, node.textValue(), shared);
+                break;
+            case BOOLEAN:
+                out.writeByte(node.booleanValue() ? TAG_TRUE : TAG_FALSE);
+                break;
+            case NUMBER:
+                // Numbers keep their type, so 1.0 is not read back as 1
+                if (node.isIntegralNumber() && node.canConvertToLong()) {
+                    out.writeByte(TAG_LONG);
+                    writeVarLong(out, (node.longValue() << 1) ^ (node.longValue() >> 63));
+                } else if (node.isIntegralNumber()) {
+                    out.writeByte(TAG_BIG_INTEGER);
+                    writeBytes(out, node.bigIntegerValue().toByteArray());
+                } else if (node.isDouble() || node.isFloat()) {
+                    out.writeByte(TAG_DOUBLE);
+                    out.writeDouble(node.doubleValue());
+                } else {
+                    out.writeByte(TAG_DECIMAL);
+                    writeBytes(out, node.decimalValue().toString().getBytes(StandardCharsets.UTF_8));
+                }
+                break;
+            default:
+                out.writeByte(TAG_NULL);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, ClaimsDictionary dictionary, String value, boolean shared) 
+        throws IOException {
+        int index = shared && value.length() <= DICTIONARY_MAX_VALUE_LENGTH ? dictionary.indexOf(value) : -1;
+
+        if (index >= 0) {
+            out.writeByte(TAG_STRING_REF);
+            writeVarInt(out, index);
+        } else {
+        // If the string is not shared or the dictionary is full
+
+            out.writeByte(TAG_STRING);
+            writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private JsonNode read(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+
+        switch (tag) {
+            case TAG_OBJECT:
+                ObjectNode object = NODE_FACTORY.objectNode();
+                for (int i = readVarInt(in); i > 0; i--) {
+                    String key = read(in).textValue();
+                    object.set(key, read(in));
+                }
+                return object;
+            case TAG_ARRAY:
+                ArrayNode array = NODE_FACTORY.arrayNode();
+                for (int i = readVarInt(in); i > 0; i--) {
+                    array.add(read(in));
+                }
+                return array;
+            case TAG_STRING_REF:
+                return NODE_FACTORY.textNode(dictionary.get(readVarInt(in)));
+            case TAG_STRING:
+                return NODE_FACTORY.textNode(new String(readBytes(in), StandardCharsets.UTF_8));
+            case TAG_TRUE:
+                return NODE_FACTORY.booleanNode(true);
+            case TAG_FALSE:
+                return NODE_FACTORY.booleanNode(false);
+            case TAG_LONG:
+                long encoded = readVarLong(in);
+                long value = (encoded >>> 1) ^ -(encoded & 1);
+
+                // Like Jackson's parser, numbers that fit in an int are read as ints
+                return value == (int) value ? NODE_FACTORY.numberNode((int) value) : NODE_FACTORY.numberNode(value);
+            case TAG_BIG_INTEGER:
+                return NODE_FACTORY.numberNode(new BigInteger(readBytes(in)));
+            case TAG_DOUBLE:
+                return NODE_FACTORY.numberNode(in.readDouble());
+            case TAG_DECIMAL:
+                return NODE_FACTORY.numberNode(new BigDecimal(new String(readBytes(in), StandardCharsets.UTF_8)));
+            case TAG_NULL:
+                return NODE_FACTORY.nullNode();
+            default:
+                throw new IOException(String.format(ERROR_MESSAGE_UNKNOWN_TAG, tag));
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+
+        return bytes;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        out.writeByte((int) value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
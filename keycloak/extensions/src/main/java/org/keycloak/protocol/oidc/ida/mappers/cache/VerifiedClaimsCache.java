@@ -0,0 +1,155 @@
+package org.keycloak.protocol.oidc.ida.mappers.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.keycloak.protocol.oidc.ida.mappers.cache.CacheConstants.DICTIONARY_MAX_SIZE;
+
+/**
+ * In-memory cache of users' verified claims retrieved from external stores. Entries are indexed by user ID first, so 
+ * every entry of a user can be invalidated at once when the user's claims change, whichever store they came from.
+ * Expired entries are kept until evicted, so they can still be served when the store cannot be called. Claims are 
+ * kept in their compact encoding and materialized on each read.
+ */
+public class VerifiedClaimsCache {
+    private final int maxUsers;
+    private final Map<String, Map<String, Entry>> entries = new ConcurrentHashMap<>();
+    private final ClaimsDictionary dictionary = new ClaimsDictionary(DICTIONARY_MAX_SIZE);
+
+    public VerifiedClaimsCache(int maxUsers) {
+        this.maxUsers = maxUsers;
+    }
+
+    /**
+     * Gets the cached verified claims of a user, if they have not expired yet
+     * 
+     * @param store  The external store the claims were retrieved from
+     * @param userId
+     * @return the verified claims or null, if there is no fresh entry
+     */
+    public JsonNode get(String store, String userId) {
+        Entry entry = getEntry(store, userId);
+
+        return entry != null && !entry.isExpired() ? entry.verifiedClaims.toJsonNode() : null;
+    }
+
+    /**
+     * Gets the cached verified claims of a user, even if they have already expired
+     * 
+     * @param store
+     * @param userId
+     * @return the verified claims or null, if there is no entry at all
+     */
+    public JsonNode getStale(String store, String userId) {
+        Entry entry = getEntry(store, userId);
+
+        return entry != null ? entry.verifiedClaims.toJsonNode() : null;
+    }
+
+    private Entry getEntry(String store, String userId) {
+        Map<String, Entry> userEntries = entries.get(userId);
+
+        return userEntries != null ? userEntries.get(store) : null;
+    }
+
+    /**
+     * Caches the verified claims of a user
+     * 
+     * @param store
+     * @param userId
+     * @param verifiedClaims
+     * @param ttlMillis      How long the entry is considered fresh
+     */
+    public void put(String store, String userId, JsonNode verifiedClaims, long ttlMillis) {
+        if (!entries.containsKey(userId) && entries.size() >= maxUsers) {
+        // If the cache is full, makes room before adding another user
+
+            evict();
+        }
+
+        entries.computeIfAbsent(userId, key -> new ConcurrentHashMap<>())
+            .put(store, new Entry(CompactVerifiedClaims.encode(dictionary, verifiedClaims), ttlMillis));
+    }
+
+    /**
+     * Replaces the verified claims cached for a user from a given store, keeping the entry's time to live. Nothing 
+     * is cached if the user had no entry for the store
+     * 
+     * @param store
+     * @param userId
+     * @param verifiedClaims
+     */
+    public void replace(String store, String userId, JsonNode verifiedClaims) {
+        Map<String, Entry> userEntries = entries.get(userId);
+
+        if (userEntries != null) {
+            userEntries.computeIfPresent(store, 
+                (key, entry) -> new Entry(CompactVerifiedClaims.encode(dictionary, verifiedClaims), entry.ttlMillis));
+        }
+    }
+
+    /**
+     * Discards every entry of a user
+     * 
+     * @param userId
+     */
+    public void invalidate(String userId) {
+        entries.remove(userId);
+    }
+
+    /**
+     * Discards every entry of a user, except the one retrieved from a given store
+     * 
+     * @param userId
+     * @param store  The store whose entry is kept
+     */
+    public void invalidateExcept(String userId, String store) {
+        Map<String, Entry> userEntries = entries.get(userId);
+
+        if (userEntries != null) {
+            userEntries.keySet().removeIf(key -> !key.equals(store));
+        }
+    }
+
+    /**
+     * Discards every entry
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Removes the expired entries and, if the cache is still full, a tenth of the remaining users
+     */
+    private void evict() {
+        entries.values().forEach(userEntries -> userEntries.values().removeIf(Entry::isExpired));
+        entries.values().removeIf(Map::isEmpty);
+
+        int toRemove = entries.size() - maxUsers + Math.max(maxUsers / 10, 1);
+        Iterator<String> userIds = entries.keySet().iterator();
+
+        while (toRemove-- > 0 && userIds.hasNext()) {
+            userIds.next();
+            userIds.remove();
+        }
+    }
+
+    private static class Entry {
+        private final CompactVerifiedClaims verifiedClaims;
+        private final long ttlMillis;
+        private final long expiresAt;
+
+        private Entry(CompactVerifiedClaims verifiedClaims, long ttlMillis) {
+            this.verifiedClaims = verifiedClaims;
+            this.ttlMillis = ttlMillis;
+            this.expiresAt = System.currentTimeMillis() + ttlMillis;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.keycloak.protocol.oidc.ida.mappers.cache;
+
+import org.keycloak.cluster.ClusterEvent;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnector;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Notifies every node of the cluster that a user's verified claims have changed in an external store. The event 
+ * carries the new verified claims as a JSON string when the store sent them, so each node can replace its cached 
+ * entry instead of discarding it.
+ */
+public class VerifiedClaimsChangedEvent implements ClusterEvent {
+    public static final String TASK_KEY = "ida-verified-claims-changed";
+
+    private static final long serialVersionUID = 2L;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String realmId;
+    private final String userId;
+    private final String externalStore;
+    private final String verifiedClaims;
+
+    public VerifiedClaimsChangedEvent(String realmId, String userId, String externalStore, String verifiedClaims) {
+        this.realmId = realmId;
+        this.userId = userId;
+        this.externalStore = externalStore;
+        this.verifiedClaims = verifiedClaims;
+    }
+
+    /**
+     * Applies the change to the caches of every connector available in a session. Only the caches of the realm the 
+     * notification was sent to are changed
+     * 
+     * @param session
+     * @throws JsonProcessingException
+     */
+    public void applyTo(KeycloakSession session) throws JsonProcessingException {
+        RealmModel realm = session.realms().getRealm(realmId);
+
+        if (realm == null) {
+        // If the realm has been removed meanwhile, its caches are already gone
+
+            return;
+        }
+
+        session.getContext().setRealm(realm);
+
+        if (externalStore == null || verifiedClaims == null) {
+        // If the store did not send the user's new verified claims, they will be retrieved again on next use
+
+            session.getAllProviders(IdaConnector.class).forEach(connector -> connector.invalidateVerifiedClaims(userId));
+            return;
+        }
+
+        for (IdaConnector connector : session.getAllProviders(IdaConnector.class)) {
+            connector.replaceVerifiedClaims(externalStore, userId, MAPPER.readTree(verifiedClaims));
+        }
+    }
+
+    public String getRealmId() {
+        return realmId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getExternalStore() {
+        return externalStore;
+    }
+
+    public String getVerifiedClaims() {
+        return verifiedClaims;
+    }
+}
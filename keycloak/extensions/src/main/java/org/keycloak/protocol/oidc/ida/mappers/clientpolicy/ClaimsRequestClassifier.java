@@ -0,0 +1,156 @@
+package org.keycloak.protocol.oidc.ida.mappers.clientpolicy;
+
+import org.keycloak.models.AuthenticatedClientSessionModel;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.USERINFO;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestConstants.CLAIMS_CLASSIFICATION_NOTE;
+import static org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestConstants.ID_TOKEN_FLAG;
+import static org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestConstants.USERINFO_FLAG;
+import static org.keycloak.protocol.oidc.utils.OIDCResponseType.ID_TOKEN;
+
+/**
+ * Tells whether a "claims" parameter requests verified claims for an endpoint, without building a JSON tree. Most 
+ * requests never mention "verified_claims", and are told apart by a plain text search. The others are read with a 
+ * streaming parser, and the decision is kept in the client session, along with the parameter's length and 
+ * fingerprint, so it is only made once per session. The fingerprint is computed by the caller, which needs it again 
+ * to find the validated request.
+ */
+public class ClaimsRequestClassifier {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    /**
+     * Checks whether a "claims" parameter may request verified claims for an endpoint, using a plain text search only
+     * 
+     * @param claims      The session's "claims" parameter
+     * @param endpointKey The endpoint the token is issued for (userinfo or id_token)
+     * @return false if the parameter cannot request verified claims for the endpoint
+     */
+    public static boolean mayRequestVerifiedClaims(String claims, String endpointKey) {
+        if (getEndpointFlag(endpointKey) == 0) {
+        // If the token is not issued for an endpoint that may hold verified claims
+
+            return false;
+        }
+
+        // Verified claims must be mentioned, at least through escaped characters
+        return claims.indexOf(VERIFIED_CLAIMS) >= 0 || claims.indexOf('\\') >= 0;
+    }
+
+    /**
+     * Checks whether a client session's "claims" parameter requests verified claims for an endpoint. Parameters are 
+     * expected to have passed {@link #mayRequestVerifiedClaims(String, String)}
+     * 
+     * @param clientSession
+     * @param claims        The session's "claims" parameter
+     * @param fingerprint   The parameter's fingerprint, which the caller keeps for validating the parameter
+     * @param endpointKey   The endpoint the token is issued for (userinfo or id_token)
+     * @return false if the parameter does not request verified claims for the endpoint. Parameters that cannot be 
+     *         read are left to the caller
+     */
+    public static boolean requestsVerifiedClaims(AuthenticatedClientSessionModel clientSession, String claims, 
+            String fingerprint, String endpointKey) {
+        int flags = getClassification(clientSession.getNote(CLAIMS_CLASSIFICATION_NOTE), claims, fingerprint);
+
+        if (flags < 0) {
+        // If the parameter has not been classified yet, or has changed since
+
+            flags = classify(claims);
+            clientSession.setNote(CLAIMS_CLASSIFICATION_NOTE, claims.length() + ":" + fingerprint + ":" + flags);
+        }
+
+        return (flags & getEndpointFlag(endpointKey)) != 0;
+    }
+
+    /**
+     * Finds the endpoints for which a "claims" parameter requests verified claims
+     * 
+     * @param claims
+     * @return the flags of the endpoints requesting verified claims. Every flag is set if the parameter cannot be 
+     *         read, so the caller reports the error
+     */
+    public static int classify(String claims) {
+        try (JsonParser parser = FACTORY.createParser(claims)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return USERINFO_FLAG | ID_TOKEN_FLAG;
+            }
+
+            int flags = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                int endpointFlag = getEndpointFlag(parser.getCurrentName());
+
+                if (parser.nextToken() != JsonToken.START_OBJECT || endpointFlag == 0) {
+                // Only the members of the endpoints' objects are inspected
+
+                    parser.skipChildren();
+                    continue;
+                }
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    if (VERIFIED_CLAIMS.equals(parser.getCurrentName())) {
+                        flags |= endpointFlag;
+                    }
+
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+            }
+
+            return flags;
+        } catch (IOException e) {
+        // The parameter is not in a valid JSON format
+
+            return USERINFO_FLAG | ID_TOKEN_FLAG;
+        }
+    }
+
+    /**
+     * Reads the classification kept in a client session note, if it was made for the same parameter
+     * 
+     * @param note        The note, as "length:fingerprint:flags"
+     * @param claims
+     * @param fingerprint The parameter's fingerprint
+     * @return the flags of the endpoints requesting verified claims or -1, if the note does not apply
+     */
+    static int getClassification(String note, String claims, String fingerprint) {
+        if (note == null) {
+            return -1;
+        }
+
+        int lengthEnd = note.indexOf(':');
+        int fingerprintEnd = note.lastIndexOf(':');
+
+        try {
+            if (lengthEnd < 0 || Integer.parseInt(note, 0, lengthEnd, 10) != claims.length()) {
+            // If the note was made for a parameter of another length, the fingerprints are not compared
+
+                return -1;
+            }
+
+            if (fingerprintEnd - lengthEnd - 1 != fingerprint.length() 
+                    || !note.regionMatches(lengthEnd + 1, fingerprint, 0, fingerprint.length())) {
+            // If the note was made for another parameter of the same length
+
+                return -1;
+            }
+
+            return Integer.parseInt(note, fingerprintEnd + 1, note.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int getEndpointFlag(String endpointKey) {
+        if (USERINFO.equals(endpointKey)) {
+            return USERINFO_FLAG;
+        }
+
+        return ID_TOKEN.equals(endpointKey) ? ID_TOKEN_FLAG : 0;
+    }
+}
@@ -0,0 +1,19 @@
+package org.keycloak.protocol.oidc.ida.mappers.clientpolicy;
+
+public class ClaimsRequestConstants {
+    // Configs and properties
+    public static final String PROVIDER_ID = "ida-claims-request-validator";
+    public static final String PROVIDER_HELP_TEXT = "Validates the verified claims requested through the \"claims\" parameter at the authorization endpoint, rejecting invalid requests before the user logs in";
+
+    public static final int VALIDATED_REQUESTS_MAX_SIZE = 10000;
+    public static final int VALIDATED_REQUEST_MAX_PARSED_LENGTH = 1024;
+    public static final String FINGERPRINT_ALGORITHM = "SHA-256";
+
+    // Client session notes
+    public static final String CLAIMS_VALIDATED_NOTE = "ida.claims.validated";
+    public static final String CLAIMS_CLASSIFICATION_NOTE = "ida.claims.classification";
+
+    // Endpoints requesting verified claims
+    public static final int USERINFO_FLAG = 1;
+    public static final int ID_TOKEN_FLAG = 2;
+}
@@ -0,0 +1,104 @@
+package org.keycloak.protocol.oidc.ida.mappers.clientpolicy;
+
+import org.jboss.logging.Logger;
+import org.keycloak.OAuthErrorException;
+import org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidator;
+import org.keycloak.protocol.oidc.par.clientpolicy.context.PushedAuthorizationRequestContext;
+import org.keycloak.representations.idm.ClientPolicyExecutorConfigurationRepresentation;
+import org.keycloak.services.clientpolicy.ClientPolicyContext;
+import org.keycloak.services.clientpolicy.ClientPolicyException;
+import org.keycloak.services.clientpolicy.context.AuthorizationRequestContext;
+import org.keycloak.services.clientpolicy.executor.ClientPolicyExecutorProvider;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import net.jimblackler.jsonschemafriend.GenerationException;
+import net.jimblackler.jsonschemafriend.ValidationException;
+
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_REQUESTED_CLAIMS_INVALID_JSON;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_REQUESTED_VERIFIED_CLAIMS_CLAIMS_EMPTY;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.ERROR_MESSAGE_REQUESTED_VERIFIED_CLAIMS_INVALID_SCHEMA;
+import static org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestConstants.PROVIDER_ID;
+
+/**
+ * Client policy executor that validates the verified claims requested through the "claims" parameter when the 
+ * authorization request is received, so invalid requests are rejected before the user logs in. Validated requests 
+ * are recorded, so the protocol mapper can trust them when issuing tokens.
+ */
+public class ClaimsRequestValidationExecutor implements ClientPolicyExecutorProvider<ClientPolicyExecutorConfigurationRepresentation> {
+    private static final Logger LOG = Logger.getLogger(ClaimsRequestValidationExecutor.class);
+
+    @Override
+    public String getProviderId() {
+        return PROVIDER_ID;
+    }
+
+    @Override
+    public void executeOnEvent(ClientPolicyContext context) throws ClientPolicyException {
+        switch (context.getEvent()) {
+            case AUTHORIZATION_REQUEST:
+                validate(((AuthorizationRequestContext) context).getAuthorizationEndpointRequest().getClaims());
+                return;
+            case PUSHED_AUTHORIZATION_REQUEST:
+                validate(((PushedAuthorizationRequestContext) context).getRequest().getClaims());
+                return;
+            default:
+                return;
+        }
+    }
+
+    /**
+     * Validates a "claims" parameter, recording it as validated if it requests verified claims
+     * 
+     * @param claims
+     * @throws ClientPolicyException if the parameter is invalid
+     */
+    private void validate(String claims) throws ClientPolicyException {
+        if (claims == null) {
+        // If no claims were requested, then there is nothing to validate
+
+            return;
+        }
+
+        String fingerprint = ValidatedClaimsRequests.fingerprint(claims);
+
+        if (ValidatedClaimsRequests.getInstance().get(fingerprint) != null) {
+        // If the same request has already been validated on this node
+
+            return;
+        }
+
+        JsonNode requestedClaims;
+        try {
+            requestedClaims = ValidatedClaimsRequests.parse(claims);
+        } catch (JsonProcessingException e) {
+            LOG.debug(ERROR_MESSAGE_REQUESTED_CLAIMS_INVALID_JSON);
+
+            throw new ClientPolicyException(OAuthErrorException.INVALID_REQUEST, ERROR_MESSAGE_REQUESTED_CLAIMS_INVALID_JSON);
+        }
+
+        if (!ValidatedClaimsRequests.requestsVerifiedClaims(requestedClaims)) {
+        // If no verified claims were requested, the request is left to Keycloak
+
+            return;
+        }
+
+        if (ValidatedClaimsRequests.hasEmptyClaims(requestedClaims)) {
+            LOG.debug(ERROR_MESSAGE_REQUESTED_VERIFIED_CLAIMS_CLAIMS_EMPTY);
+
+            throw new ClientPolicyException(OAuthErrorException.INVALID_REQUEST, ERROR_MESSAGE_REQUESTED_VERIFIED_CLAIMS_CLAIMS_EMPTY);
+        }
+
+        try {
+            VerifiedClaimsValidator.validateVerifiedClaimsRequest(requestedClaims);
+        } catch (GenerationException | ValidationException e) {
+            LOG.debug(ERROR_MESSAGE_REQUESTED_VERIFIED_CLAIMS_INVALID_SCHEMA);
+            LOG.debug(e.getMessage());
+
+            throw new ClientPolicyException(OAuthErrorException.INVALID_REQUEST, ERROR_MESSAGE_REQUESTED_VERIFIED_CLAIMS_INVALID_SCHEMA);
+        }
+
+        ValidatedClaimsRequests.getInstance().put(fingerprint, claims, requestedClaims);
+    }
+}
@@ -0,0 +1,51 @@
+package org.keycloak.protocol.oidc.ida.mappers.clientpolicy;
+
+import org.keycloak.Config;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.provider.ProviderConfigProperty;
+import org.keycloak.services.clientpolicy.executor.ClientPolicyExecutorProvider;
+import org.keycloak.services.clientpolicy.executor.ClientPolicyExecutorProviderFactory;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestConstants.PROVIDER_HELP_TEXT;
+import static org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestConstants.PROVIDER_ID;
+
+public class ClaimsRequestValidationExecutorFactory implements ClientPolicyExecutorProviderFactory {
+    // The executor holds no state, so a single instance is shared by every session
+    private static final ClaimsRequestValidationExecutor EXECUTOR = new ClaimsRequestValidationExecutor();
+
+    @Override
+    public ClientPolicyExecutorProvider<?> create(KeycloakSession session) {
+        return EXECUTOR;
+    }
+
+    @Override
+    public void init(Config.Scope config) {
+    }
+
+    @Override
+    public void postInit(KeycloakSessionFactory factory) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String getId() {
+        return PROVIDER_ID;
+    }
+
+    @Override
+    public String getHelpText() {
+        return PROVIDER_HELP_TEXT;
+    }
+
+    @Override
+    public List<ProviderConfigProperty> getConfigProperties() {
+        return Collections.emptyList();
+    }
+}
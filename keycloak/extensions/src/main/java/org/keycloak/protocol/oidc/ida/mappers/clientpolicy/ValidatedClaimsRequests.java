@@ -0,0 +1,143 @@
+package org.keycloak.protocol.oidc.ida.mappers.clientpolicy;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.USERINFO;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestConstants.FINGERPRINT_ALGORITHM;
+import static org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestConstants.VALIDATED_REQUESTS_MAX_SIZE;
+import static org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestConstants.VALIDATED_REQUEST_MAX_PARSED_LENGTH;
+import static org.keycloak.protocol.oidc.utils.OIDCResponseType.ID_TOKEN;
+
+/**
+ * Claims requests that have already been validated on this node, indexed by the fingerprint of their "claims" 
+ * parameter. Small requests are parsed once and shared by every token issued for them, so the cached JSON objects 
+ * must never be modified. Larger requests are only marked as validated, and parsed again when used, so each entry's 
+ * size is bounded. The least recently used requests are forgotten first.
+ */
+public class ValidatedClaimsRequests {
+    private static final ValidatedClaimsRequests INSTANCE = new ValidatedClaimsRequests(VALIDATED_REQUESTS_MAX_SIZE);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
+        .enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
+
+    private final Map<String, JsonNode> requests;
+
+    ValidatedClaimsRequests(int maxSize) {
+        // Ordered by access, so reading a request keeps it in the cache
+        this.requests = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JsonNode> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    public static ValidatedClaimsRequests getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets a validated claims request
+     * 
+     * @param fingerprint The fingerprint of the "claims" parameter
+     * @return the parsed claims request, a missing node if the request has been validated but is too large to be 
+     *         kept parsed, or null if it has not been validated on this node
+     */
+    public JsonNode get(String fingerprint) {
+        return requests.get(fingerprint);
+    }
+
+    /**
+     * Records a claims request as validated
+     * 
+     * @param fingerprint
+     * @param claims          The "claims" parameter
+     * @param requestedClaims The parsed claims request, only kept if the parameter is small enough
+     */
+    public void put(String fingerprint, String claims, JsonNode requestedClaims) {
+        requests.put(fingerprint, claims.length() <= VALIDATED_REQUEST_MAX_PARSED_LENGTH 
+            ? requestedClaims 
+            : MissingNode.getInstance());
+    }
+
+    /**
+     * Parses a "claims" parameter, rejecting trailing tokens and duplicated keys
+     * 
+     * @param claims
+     * @return
+     * @throws JsonProcessingException
+     */
+    public static JsonNode parse(String claims) throws JsonProcessingException {
+        return MAPPER.readTree(claims);
+    }
+
+    /**
+     * Computes the fingerprint of a "claims" parameter
+     * 
+     * @param claims
+     * @return the Base64URL encoded SHA-256 digest of the parameter
+     */
+    public static String fingerprint(String claims) {
+        try {
+            byte[] digest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM).digest(claims.getBytes(StandardCharsets.UTF_8));
+
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+        // This shouldn't happen, every Java platform supports SHA-256
+
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Checks whether a claims request asks for verified claims in any of its endpoints
+     * 
+     * @param requestedClaims
+     * @return
+     */
+    public static boolean requestsVerifiedClaims(JsonNode requestedClaims) {
+        return List.of(USERINFO, ID_TOKEN).stream()
+            .anyMatch(endpointKey -> requestedClaims.path(endpointKey).has(VERIFIED_CLAIMS));
+    }
+
+    /**
+     * Checks whether any "verified_claims" request, of any endpoint, has an empty "claims" sub-element
+     * 
+     * @param requestedClaims
+     * @return
+     */
+    public static boolean hasEmptyClaims(JsonNode requestedClaims) {
+        for (String endpointKey : List.of(USERINFO, ID_TOKEN)) {
+            JsonNode requestedVerifiedClaims = requestedClaims.path(endpointKey).path(VERIFIED_CLAIMS);
+            Iterable<JsonNode> entries = requestedVerifiedClaims.isArray() 
+                ? requestedVerifiedClaims 
+                : List.of(requestedVerifiedClaims);
+
+            for (JsonNode entry : entries) {
+                JsonNode claims = entry.path(CLAIMS);
+
+                if (claims.isObject() && claims.isEmpty()) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,150 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.jboss.logging.Logger;
+import org.keycloak.protocol.ProtocolMapperConfigException;
+import org.keycloak.protocol.oidc.ida.mappers.connector.index.ReloadingVerifiedClaimsIndex;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnector;
+import org.keycloak.provider.ProviderConfigProperty;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_DIRECTORY_NOT_CONFIGURED;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_NOT_READABLE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_NOT_SPECIFIED;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_UNAVAILABLE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_IVALID_JSON_;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.IDA_EXTERNAL_STORE_FILE_HELP_TEXT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.IDA_EXTERNAL_STORE_FILE_LABEL;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.IDA_EXTERNAL_STORE_FILE_NAME;
+import static org.keycloak.validate.validators.NotBlankValidator.MESSAGE_BLANK;
+import static org.keycloak.validate.validators.ValidatorConfigValidator.MESSAGE_CONFIG_INVALID_VALUE;
+
+/**
+ * Connector that serves verified claims from a local NDJSON dataset, for air-gapped deployments and load tests. The 
+ * dataset is compiled into a memory-mapped index, validated once when indexed, and reindexed when it changes. Only 
+ * datasets of the server's dataset directory are served
+ */
+public class IdaFileConnector implements IdaConnector {
+    private static final Logger LOG = Logger.getLogger(IdaFileConnector.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path datasetDirectory;
+    private final Function<String, ReloadingVerifiedClaimsIndex> indexes;
+
+    /**
+     * @param datasetDirectory
+     * @param indexes gets the index of a dataset, or null if the dataset is not a readable file of the dataset 
+     *                directory
+     */
+    public IdaFileConnector(Path datasetDirectory, Function<String, ReloadingVerifiedClaimsIndex> indexes) {
+        this.datasetDirectory = datasetDirectory;
+        this.indexes = indexes;
+    }
+
+    @Override
+    public void addIdaExternalStore(List<ProviderConfigProperty> configProperties) {
+        ProviderConfigProperty fileProperty = new ProviderConfigProperty();
+        fileProperty.setName(IDA_EXTERNAL_STORE_FILE_NAME);
+        fileProperty.setLabel(IDA_EXTERNAL_STORE_FILE_LABEL);
+        fileProperty.setType(ProviderConfigProperty.STRING_TYPE);
+        fileProperty.setHelpText(IDA_EXTERNAL_STORE_FILE_HELP_TEXT);
+        configProperties.add(fileProperty);
+    }
+
+    @Override
+    public void validateIdaExternalStore(Map<String, String> protocolMapperConfig)
+            throws ProtocolMapperConfigException {
+        String file = protocolMapperConfig.get(IDA_EXTERNAL_STORE_FILE_NAME);
+        if (file == null || file.isBlank()) {
+        // If no file was provided
+
+            throw new ProtocolMapperConfigException(ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_NOT_SPECIFIED, MESSAGE_BLANK);
+        }
+
+        if (datasetDirectory == null) {
+        // If the server serves no dataset
+
+            throw new ProtocolMapperConfigException(ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_DIRECTORY_NOT_CONFIGURED, 
+                MESSAGE_CONFIG_INVALID_VALUE);
+        }
+
+        if (indexes.apply(file) == null) {
+            throw new ProtocolMapperConfigException(ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_NOT_READABLE, 
+                MESSAGE_CONFIG_INVALID_VALUE);
+        }
+    }
+
+    @Override
+    public JsonNode getVerifiedClaims(Map<String, String> protocolMapperConfig, String userId) {
+        ReloadingVerifiedClaimsIndex index = getIndex(protocolMapperConfig);
+        if (index == null) {
+        // If the dataset is not served
+
+            LOG.errorf(ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_NOT_READABLE + " IDA External Store = '%s'", 
+                protocolMapperConfig.get(IDA_EXTERNAL_STORE_FILE_NAME));
+            return null;
+        }
+
+        byte[] verifiedClaims = index.get(userId);
+        if (verifiedClaims == null) {
+        // If the dataset has no verified claims for the user, or it has not been indexed yet
+
+            return null;
+        }
+
+        try {
+            // The verified claims have been validated when indexed
+            return MAPPER.readTree(verifiedClaims);
+        } catch (IOException e) {
+        // This shouldn't happen, as the index only holds valid JSON
+
+            LOG.error(ERROR_MESSAGE_IDA_EXTERNAL_STORE_IVALID_JSON_);
+            return null;
+        }
+    }
+
+    @Override
+    public JsonNode getCachedVerifiedClaims(Map<String, String> protocolMapperConfig, String userId, 
+            boolean allowStale) {
+        // The dataset is local, so lookups are served as if cached and never count against the admission limits
+        return getVerifiedClaims(protocolMapperConfig, userId);
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(Map<String, String> protocolMapperConfig) {
+        ReloadingVerifiedClaimsIndex index = getIndex(protocolMapperConfig);
+        if (index == null) {
+            LOG.warnf(ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_NOT_READABLE + " IDA External Store = '%s'", 
+                protocolMapperConfig.get(IDA_EXTERNAL_STORE_FILE_NAME));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return index.load().handle((result, e) -> {
+            if (e != null) {
+                LOG.warnf(ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_UNAVAILABLE + " IDA External Store = '%s'", 
+                    protocolMapperConfig.get(IDA_EXTERNAL_STORE_FILE_NAME));
+            }
+
+            return null;
+        });
+    }
+
+    private ReloadingVerifiedClaimsIndex getIndex(Map<String, String> protocolMapperConfig) {
+        String file = protocolMapperConfig.get(IDA_EXTERNAL_STORE_FILE_NAME);
+
+        return file != null && !file.isBlank() ? indexes.apply(file) : null;
+    }
+
+    @Override
+    public void close() {
+        // NOOP
+    }
+}
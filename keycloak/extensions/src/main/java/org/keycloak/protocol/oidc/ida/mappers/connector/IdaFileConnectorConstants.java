@@ -0,0 +1,22 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector;
+
+public class IdaFileConnectorConstants {
+    // Configs and properties
+    public static final String IDA_EXTERNAL_STORE_FILE_NAME = "ida.external.store.file";
+    public static final String IDA_EXTERNAL_STORE_FILE_LABEL = "IDA external source's file";
+    public static final String IDA_EXTERNAL_STORE_FILE_HELP_TEXT = "Path of the NDJSON dataset served by the file connector, relative to the server's dataset directory, with one {\"userId\" or \"username\", \"verified_claims\"} object per line. The dataset is indexed in the background when first used and whenever it changes, and no claims are served until its first index is ready";
+    public static final String DATASET_DIRECTORY_CONFIG = "datasetDirectory";
+    public static final String INDEX_DIRECTORY_CONFIG = "indexDirectory";
+    public static final String INDEX_DIRECTORY_DEFAULT = "ida-file-connector";
+    public static final String RELOAD_INTERVAL_CONFIG = "reloadInterval";
+    public static final int RELOAD_INTERVAL_DEFAULT = 5000;
+    public static final String THREAD_NAME_PREFIX = "ida-file-connector-";
+
+    // Error messages
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_NOT_SPECIFIED = "The IDA's external source's file has not been specified.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_NOT_READABLE = "The IDA's external source's file does not exist, cannot be read or is outside the server's dataset directory.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_DIRECTORY_NOT_CONFIGURED = "The server's dataset directory of the file connector has not been configured.";
+    public static final String ERROR_MESSAGE_DATASET_DIRECTORY_UNAVAILABLE = "The dataset directory '%s' of the file connector does not exist, no dataset will be served.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_FILE_UNAVAILABLE = "The IDA's external source's file could not be indexed.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_IVALID_JSON_ = "The user's \"verified_claims\" retrieved from the IDA's external source's file are not in a valid JSON structure.";
+}
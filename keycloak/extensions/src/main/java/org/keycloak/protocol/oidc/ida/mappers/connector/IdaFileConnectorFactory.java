@@ -0,0 +1,115 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector;
+
+import org.jboss.logging.Logger;
+import org.keycloak.Config;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.protocol.oidc.ida.mappers.connector.index.ReloadingVerifiedClaimsIndex;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnector;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnectorFactory;
+import org.keycloak.protocol.oidc.ida.mappers.util.DaemonThreadFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.DATASET_DIRECTORY_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.ERROR_MESSAGE_DATASET_DIRECTORY_UNAVAILABLE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.INDEX_DIRECTORY_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.INDEX_DIRECTORY_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.RELOAD_INTERVAL_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.RELOAD_INTERVAL_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaFileConnectorConstants.THREAD_NAME_PREFIX;
+
+public class IdaFileConnectorFactory implements IdaConnectorFactory {
+    public static final String PROVIDER_ID = "ida-file-connector";
+    private static final Logger LOG = Logger.getLogger(IdaFileConnectorFactory.class);
+
+    // Shared by every connector, so each dataset is indexed and mapped once, indexed by the dataset's real path
+    private final Map<Path, ReloadingVerifiedClaimsIndex> indexes = new ConcurrentHashMap<>();
+    // Real paths of the datasets, indexed by the path set in the mappers, so lookups don't resolve them again
+    private final Map<String, Path> datasets = new ConcurrentHashMap<>();
+
+    private Path datasetDirectory;
+    private Path indexDirectory;
+    private long reloadIntervalMillis;
+    private ExecutorService reloader;
+
+    @Override
+    public IdaConnector create(KeycloakSession session) {
+        return new IdaFileConnector(datasetDirectory, this::getIndex);
+    }
+
+    private ReloadingVerifiedClaimsIndex getIndex(String file) {
+        Path dataset = datasets.computeIfAbsent(file.trim(), this::resolveDataset);
+        if (dataset == null) {
+        // If the dataset is not served, which is not remembered so that it is served once it is created
+
+            return null;
+        }
+
+        return indexes.computeIfAbsent(dataset, 
+            path -> new ReloadingVerifiedClaimsIndex(path, indexDirectory, reloadIntervalMillis, reloader));
+    }
+
+    /**
+     * Resolves a dataset against the dataset directory, following links, so that realm admins can't read other files
+     * 
+     * @param file
+     * @return the dataset's real path or null, if there is no dataset directory, or if the dataset is not a readable 
+     *         file of the dataset directory
+     */
+    private Path resolveDataset(String file) {
+        if (datasetDirectory == null) {
+            return null;
+        }
+
+        try {
+            Path dataset = datasetDirectory.resolve(file).toRealPath();
+            return dataset.startsWith(datasetDirectory) && Files.isRegularFile(dataset) && Files.isReadable(dataset) 
+                ? dataset : null;
+        } catch (IOException | InvalidPathException e) {
+        // If the dataset does not exist or its path is invalid
+
+            return null;
+        }
+    }
+
+    @Override
+    public void init(Config.Scope config) {
+        String directory = config.get(DATASET_DIRECTORY_CONFIG);
+        if (directory != null && !directory.isBlank()) {
+            try {
+                datasetDirectory = Paths.get(directory.trim()).toRealPath();
+            } catch (IOException | InvalidPathException e) {
+                LOG.errorf(e, ERROR_MESSAGE_DATASET_DIRECTORY_UNAVAILABLE, directory);
+            }
+        }
+        indexDirectory = Paths.get(config.get(INDEX_DIRECTORY_CONFIG, 
+            Paths.get(System.getProperty("java.io.tmpdir"), INDEX_DIRECTORY_DEFAULT).toString()));
+        reloadIntervalMillis = config.getInt(RELOAD_INTERVAL_CONFIG, RELOAD_INTERVAL_DEFAULT);
+        reloader = Executors.newSingleThreadExecutor(new DaemonThreadFactory(THREAD_NAME_PREFIX));
+    }
+
+    @Override
+    public void postInit(KeycloakSessionFactory factory) {
+    }
+
+    @Override
+    public void close() {
+        indexes.clear();
+        datasets.clear();
+        reloader.shutdownNow();
+    }
+
+    @Override
+    public String getId() {
+        return PROVIDER_ID;
+    }
+}
@@ -1,41 +1,104 @@
 package org.keycloak.protocol.oidc.ida.mappers.connector;
 
-import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import net.jimblackler.jsonschemafriend.GenerationException;
 import net.jimblackler.jsonschemafriend.ValidationException;
 
-import org.apache.http.conn.HttpHostConnectException;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.jboss.logging.Logger;
-import org.keycloak.broker.provider.util.SimpleHttp;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
 import org.keycloak.protocol.ProtocolMapperConfigException;
+import org.keycloak.protocol.oidc.ida.mappers.IdaMapperConfig;
+import org.keycloak.protocol.oidc.ida.mappers.cache.VerifiedClaimsCache;
+import org.keycloak.protocol.oidc.ida.mappers.connector.latency.LatencyPolicy;
 import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnector;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.VerifiedClaimsChanges;
+import org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetrics;
 import org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidator;
 import org.keycloak.provider.ProviderConfigProperty;
 
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.UnknownHostException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.CHANGES;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.CHANGES_LIMIT_PARAM;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.CHANGES_PATH;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.CHANGES_SINCE_PARAM;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_BUSY;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_CHANGES_FAILED;
 import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_CONNECTION_EXCEPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_INVALID_CACHE_TTL;
 import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_INVALID_SCHEMA;
 import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_INVALID_URL;
 import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_IVALID_JSON_;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_TIMEOUT;
 import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_URL_NOT_SPECIFIED;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_WARM_UP_FAILED;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.HAS_MORE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.HEAD_METHOD;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.IDA_EXTERNAL_STORE_CACHE_TTL_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.IDA_EXTERNAL_STORE_CACHE_TTL_HELP_TEXT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.IDA_EXTERNAL_STORE_CACHE_TTL_LABEL;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.IDA_EXTERNAL_STORE_CACHE_TTL_NAME;
 import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.IDA_EXTERNAL_STORE_HELP_TEXT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.IDA_EXTERNAL_STORE_PROJECTION_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.IDA_EXTERNAL_STORE_PROJECTION_HELP_TEXT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.IDA_EXTERNAL_STORE_PROJECTION_LABEL;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.IDA_EXTERNAL_STORE_PROJECTION_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.USER_ID_PARAM;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.WATERMARK;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.STORE_HEDGED;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.STORE_HEDGE_SKIPPED;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.STORE_HEDGE_WON;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.STORE_REQUESTS;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.STORE_TIMEOUTS;
+import static org.keycloak.validate.validators.AbstractNumberValidator.MESSAGE_INVALID_NUMBER;
 import static org.keycloak.validate.validators.NotBlankValidator.MESSAGE_BLANK;
 import static org.keycloak.validate.validators.UriValidator.MESSAGE_INVALID_URI;
 
 /**
- * Connector that uses HTTP to retrieve validated claims from an external store
+ * Connector that uses HTTP to retrieve validated claims from an external store. Each realm's stores have their own 
+ * connections, cache and cap on requests in flight, see {@link IdaHttpStoreRegistry}. Timeouts and hedging follow 
+ * each store's observed latency, see {@link LatencyPolicy}
  */
 public class IdaHttpConnector implements IdaConnector {
     private static final Logger LOG = Logger.getLogger(IdaHttpConnector.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final KeycloakSession session;
+    private final IdaHttpStoreRegistry stores;
+    private final LatencyPolicy latencyPolicy;
+
+    public IdaHttpConnector(KeycloakSession session, IdaHttpStoreRegistry stores, LatencyPolicy latencyPolicy) {
+        this.session = session;
+        this.stores = stores;
+        this.latencyPolicy = latencyPolicy;
+    }
 
     @Override
     public void addIdaExternalStore(List<ProviderConfigProperty> configProperties) {
@@ -45,6 +108,22 @@ public class IdaHttpConnector implements IdaConnector {
         nameProperty.setType(ProviderConfigProperty.STRING_TYPE);
         nameProperty.setHelpText(IDA_EXTERNAL_STORE_HELP_TEXT);
         configProperties.add(nameProperty);
+
+        ProviderConfigProperty cacheTtlProperty = new ProviderConfigProperty();
+        cacheTtlProperty.setName(IDA_EXTERNAL_STORE_CACHE_TTL_NAME);
+        cacheTtlProperty.setLabel(IDA_EXTERNAL_STORE_CACHE_TTL_LABEL);
+        cacheTtlProperty.setType(ProviderConfigProperty.STRING_TYPE);
+        cacheTtlProperty.setHelpText(IDA_EXTERNAL_STORE_CACHE_TTL_HELP_TEXT);
+        cacheTtlProperty.setDefaultValue(IDA_EXTERNAL_STORE_CACHE_TTL_DEFAULT);
+        configProperties.add(cacheTtlProperty);
+
+        ProviderConfigProperty projectionProperty = new ProviderConfigProperty();
+        projectionProperty.setName(IDA_EXTERNAL_STORE_PROJECTION_NAME);
+        projectionProperty.setLabel(IDA_EXTERNAL_STORE_PROJECTION_LABEL);
+        projectionProperty.setType(ProviderConfigProperty.BOOLEAN_TYPE);
+        projectionProperty.setHelpText(IDA_EXTERNAL_STORE_PROJECTION_HELP_TEXT);
+        projectionProperty.setDefaultValue(IDA_EXTERNAL_STORE_PROJECTION_DEFAULT);
+        configProperties.add(projectionProperty);
     }
 
     @Override
@@ -64,52 +143,567 @@ public class IdaHttpConnector implements IdaConnector {
 
             throw new ProtocolMapperConfigException(ERROR_MESSAGE_IDA_EXTERNAL_STORE_INVALID_URL, MESSAGE_INVALID_URI, e);
         }
+
+        if (IdaMapperConfig.parseExternalStoreCacheTtl(protocolMapperConfig) < 0) {
+        // The cache TTL provided is invalid
+
+            throw new ProtocolMapperConfigException(ERROR_MESSAGE_IDA_EXTERNAL_STORE_INVALID_CACHE_TTL, MESSAGE_INVALID_NUMBER);
+        }
     }
 
     @Override
     public JsonNode getVerifiedClaims(Map<String, String> protocolMapperConfig, String userId) {
-        String externalStoreUrl = protocolMapperConfig.get(IDA_EXTERNAL_STORE_NAME);
-        try (CloseableHttpClient client = HttpClientBuilder.create().build()) {
-            // Retrieving user's verified_claims object from the external store
-            SimpleHttp request = SimpleHttp.doGet(externalStoreUrl + "?userId=" + userId, client);
-            
-            LOG.debugf("Retrieved verified claims from HTTP source: %s", request.asString());
-            
-            // Convert the verified_claims object to a JSON representation
-            JsonNode verifiedClaims = request.asJson();
-            // Validates the verified_claims object using a JSON schema
-            VerifiedClaimsValidator.validateVerifiedClaims(verifiedClaims);
+        return getVerifiedClaimsAsync(protocolMapperConfig, userId).join();
+    }
+
+    @Override
+    public CompletableFuture<JsonNode> getVerifiedClaimsAsync(Map<String, String> protocolMapperConfig, String userId) {
+        // Without a request, the user's complete verified claims are retrieved
+        return getVerifiedClaimsAsync(protocolMapperConfig.get(IDA_EXTERNAL_STORE_NAME), 
+            getTimeoutMillis(protocolMapperConfig), IdaMapperConfig.parseExternalStoreCacheTtl(protocolMapperConfig), 
+            false, userId, null);
+    }
+
+    @Override
+    public CompletableFuture<JsonNode> getVerifiedClaimsAsync(IdaMapperConfig config, String userId, 
+            JsonNode requestedVerifiedClaims) {
+        return getVerifiedClaimsAsync(config.getExternalStoreUrl(), config.getExternalStoreTimeout(), 
+            config.getExternalStoreCacheTtl(), config.isExternalStoreProjection(), userId, requestedVerifiedClaims);
+    }
+
+    /**
+     * Gets a user's verified claims from the cache or the external store, using settings that have already been parsed
+     * 
+     * @param externalStoreUrl
+     * @param timeoutMillis
+     * @param cacheTtlMillis          A non-positive TTL disables the cache
+     * @param pushProjection          Whether the requested claims are sent to the store
+     * @param userId
+     * @param requestedVerifiedClaims
+     * @return
+     */
+    private CompletableFuture<JsonNode> getVerifiedClaimsAsync(String externalStoreUrl, long timeoutMillis, 
+            long cacheTtlMillis, boolean pushProjection, String userId, JsonNode requestedVerifiedClaims) {
+        IdaHttpStore store = stores.get(getRealmId(), externalStoreUrl);
+        VerifiedClaimsProjection projection = pushProjection 
+            ? VerifiedClaimsProjection.of(requestedVerifiedClaims) 
+            : null;
+
+        if (cacheTtlMillis > 0) {
+            JsonNode cachedVerifiedClaims = getCachedVerifiedClaims(store, userId, projection, false);
+
+            if (cachedVerifiedClaims != null) {
+            // If the user's verified claims have been retrieved recently
+
+                LOG.debugf("Verified claims of user '%s' served from cache", userId);
+                return CompletableFuture.completedFuture(cachedVerifiedClaims);
+            }
+        }
+
+        if (!store.tryAcquire()) {
+        // If the store already has too many requests in flight, it is not called
+
+            LOG.warnf(ERROR_MESSAGE_IDA_EXTERNAL_STORE_BUSY + " IDA External Store = '%s'", externalStoreUrl);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<JsonNode> verifiedClaims;
+        try {
+            verifiedClaims = fetchVerifiedClaims(store, userId, projection, 
+                latencyPolicy.getTimeoutMillis(store.getLatency(), timeoutMillis));
+        } catch (RuntimeException e) {
+            store.release();
+            throw e;
+        }
+
+        return verifiedClaims
+            .whenComplete((result, e) -> store.release())
+            .thenApply(result -> {
+                if (result != null && cacheTtlMillis > 0) {
+                    store.getCache().put(projection != null ? projection.getCacheKey(externalStoreUrl) : externalStoreUrl, 
+                        userId, result, cacheTtlMillis);
+                }
+
+                return result;
+            });
+    }
+
+    @Override
+    public JsonNode getCachedVerifiedClaims(Map<String, String> protocolMapperConfig, String userId, 
+            boolean allowStale) {
+        return getCachedVerifiedClaims(protocolMapperConfig.get(IDA_EXTERNAL_STORE_NAME), 
+            IdaMapperConfig.parseExternalStoreCacheTtl(protocolMapperConfig), false, userId, null, allowStale);
+    }
+
+    @Override
+    public JsonNode getCachedVerifiedClaims(IdaMapperConfig config, String userId, JsonNode requestedVerifiedClaims, 
+            boolean allowStale) {
+        return getCachedVerifiedClaims(config.getExternalStoreUrl(), config.getExternalStoreCacheTtl(), 
+            config.isExternalStoreProjection(), userId, requestedVerifiedClaims, allowStale);
+    }
+
+    private JsonNode getCachedVerifiedClaims(String externalStoreUrl, long cacheTtlMillis, boolean pushProjection, 
+            String userId, JsonNode requestedVerifiedClaims, boolean allowStale) {
+        if (cacheTtlMillis <= 0) {
+        // If the cache is disabled for the protocol mapper
+
+            return null;
+        }
+
+        IdaHttpStore store = stores.peek(getRealmId(), externalStoreUrl);
 
+        if (store == null) {
+        // If the store has not been called yet, nothing has been cached
+
+            return null;
+        }
+
+        return getCachedVerifiedClaims(store, userId, 
+            pushProjection ? VerifiedClaimsProjection.of(requestedVerifiedClaims) : null, allowStale);
+    }
+
+    /**
+     * Gets the verified claims of a user cached for a store. The user's complete verified claims are preferred, as 
+     * they answer any request
+     * 
+     * @param store
+     * @param userId
+     * @param projection The projection sent to the store, or null if the complete verified claims are retrieved
+     * @param allowStale
+     * @return the verified claims or null, if there is no entry
+     */
+    private JsonNode getCachedVerifiedClaims(IdaHttpStore store, String userId, VerifiedClaimsProjection projection, 
+            boolean allowStale) {
+        VerifiedClaimsCache cache = store.getCache();
+        JsonNode verifiedClaims = allowStale ? cache.getStale(store.getUrl(), userId) : cache.get(store.getUrl(), userId);
+
+        if (verifiedClaims != null || projection == null) {
             return verifiedClaims;
+        }
+
+        String cacheKey = projection.getCacheKey(store.getUrl());
+
+        return allowStale ? cache.getStale(cacheKey, userId) : cache.get(cacheKey, userId);
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(Map<String, String> protocolMapperConfig) {
+        String externalStoreUrl = protocolMapperConfig.get(IDA_EXTERNAL_STORE_NAME);
+
+        try {
+            // A HEAD request opens a pooled connection to the store, without asking for any user's claims
+            HttpRequest request = HttpRequest.newBuilder(URI.create(externalStoreUrl))
+                .timeout(Duration.ofMillis(getTimeoutMillis(protocolMapperConfig)))
+                .method(HEAD_METHOD, HttpRequest.BodyPublishers.noBody())
+                .build();
+
+            return stores.get(getRealmId(), externalStoreUrl).getHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, e) -> {
+                    if (e != null) {
+                        LOG.warnf(ERROR_MESSAGE_IDA_EXTERNAL_STORE_WARM_UP_FAILED + " IDA External Store = '%s'", externalStoreUrl);
+                    }
+
+                    return null;
+                });
+        } catch (IllegalArgumentException | NullPointerException e) {
+        // If the store's URL is missing or invalid, there is nothing to connect to
+
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    @Override
+    public void invalidateVerifiedClaims(String userId) {
+        stores.getStores(getRealmId()).forEach(store -> store.getCache().invalidate(userId));
+    }
+
+    @Override
+    public void replaceVerifiedClaims(String externalStore, String userId, JsonNode verifiedClaims) {
+        IdaHttpStore store = stores.peek(getRealmId(), externalStore);
+
+        if (store != null) {
+            store.getCache().replace(externalStore, userId, verifiedClaims);
+
+            // Projections cannot be derived from the new verified claims, they are retrieved again on next use
+            store.getCache().invalidateExcept(userId, externalStore);
+        }
+    }
+
+    @Override
+    public VerifiedClaimsChanges getVerifiedClaimsChanges(Map<String, String> protocolMapperConfig, String since, 
+            int limit) {
+        String externalStoreUrl = protocolMapperConfig.get(IDA_EXTERNAL_STORE_NAME);
+        IdaHttpStore store = stores.get(getRealmId(), externalStoreUrl);
+        HttpRequest request = HttpRequest.newBuilder(buildChangesUri(externalStoreUrl, since, limit))
+            .timeout(Duration.ofMillis(getTimeoutMillis(protocolMapperConfig)))
+            .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON)
+            .GET()
+            .build();
+
+        HttpResponse<byte[]> response;
+        try {
+            // Replication runs in the background, so the calling thread can wait for the store
+            response = store.getHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
         } catch (IOException e) {
-        // If something went wrong during the verified_claims retrieving process
-        // These errors should not concern client applications
-        // However, they will be logged into Keycloak's terminal, so admin could be aware that something is wrong
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException());
+        }
 
-            if (e instanceof UnknownHostException || e instanceof HttpHostConnectException) {
-            // If the external store couldn't be found
+        if (response.statusCode() == Response.Status.NOT_FOUND.getStatusCode()) {
+        // If the store does not list its changes
 
-                LOG.errorf(ERROR_MESSAGE_IDA_EXTERNAL_STORE_CONNECTION_EXCEPTION + " IDA External Store = '%s'", externalStoreUrl);
-            } else if (e instanceof MismatchedInputException || e instanceof JsonParseException) {
-            // If the user's verified_claims is not in a valid JSON structure
+            return null;
+        }
+
+        if (response.statusCode() != Response.Status.OK.getStatusCode()) {
+            throw new UncheckedIOException(new IOException(
+                String.format(ERROR_MESSAGE_IDA_EXTERNAL_STORE_CHANGES_FAILED, response.statusCode())));
+        }
 
-                LOG.errorf(ERROR_MESSAGE_IDA_EXTERNAL_STORE_IVALID_JSON_);
+        try {
+            JsonNode page = MAPPER.readTree(response.body());
+            Map<String, JsonNode> changes = new LinkedHashMap<>();
+
+            for (JsonNode change : page.path(CHANGES)) {
+                String userId = change.path(USER_ID_PARAM).textValue();
+                JsonNode verifiedClaims = change.get(VERIFIED_CLAIMS);
+
+                if (userId == null) {
+                    continue;
+                }
+
+                // Only the last change of each user matters, and it is applied in the order it was made
+                changes.remove(userId);
+                changes.put(userId, verifiedClaims == null || verifiedClaims.isNull() 
+                    ? null 
+                    : MAPPER.createObjectNode().set(VERIFIED_CLAIMS, verifiedClaims));
             }
 
-            e.printStackTrace();
+            String watermark = page.path(WATERMARK).textValue();
+
+            return new VerifiedClaimsChanges(changes, watermark != null ? watermark : since, 
+                page.path(HAS_MORE).asBoolean(false));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the ID of the realm being served, whose stores are used
+     * 
+     * @return the realm's ID or null, if the session is not bound to a realm
+     */
+    private String getRealmId() {
+        RealmModel realm = session.getContext().getRealm();
+
+        return realm != null ? realm.getId() : null;
+    }
+
+    /**
+     * Retrieves and validates a user's verified claims from the external store, without blocking the calling thread. 
+     * Requests to the same store are multiplexed over shared HTTP/2 connections whenever the store supports it. If 
+     * hedging is enabled and the store has not answered by its usual p95 latency, a second request is sent, and 
+     * whichever answers first is used
+     * 
+     * @param store
+     * @param userId
+     * @param projection    The projection sent to the store, or null
+     * @param timeoutMillis
+     * @return the verified claims, or null if they could not be retrieved. The future never completes exceptionally
+     */
+    private CompletableFuture<JsonNode> fetchVerifiedClaims(IdaHttpStore store, String userId, 
+            VerifiedClaimsProjection projection, long timeoutMillis) {
+        String externalStoreUrl = store.getUrl();
+        URI requestUri;
+        try {
+            requestUri = buildRequestUri(externalStoreUrl, userId, projection);
+        } catch (IllegalArgumentException e) {
+        // The mapper's URL has been validated, so this shouldn't happen
+
+            LOG.errorf(ERROR_MESSAGE_IDA_EXTERNAL_STORE_INVALID_URL + " IDA External Store = '%s'", externalStoreUrl);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        count(store, STORE_REQUESTS);
+        store.getHedgeBudget().onRequest();
+
+        CompletableFuture<HttpResponse<byte[]>> primary = send(store, requestUri, timeoutMillis, true);
+        long hedgeDelayMillis = latencyPolicy.getHedgeDelayMillis(store.getLatency());
+
+        CompletableFuture<HttpResponse<byte[]>> response = hedgeDelayMillis < 0 || hedgeDelayMillis >= timeoutMillis 
+            ? primary 
+            : hedge(store, requestUri, primary, hedgeDelayMillis, timeoutMillis);
+
+        return response
+            .thenApply(answer -> parseVerifiedClaims(externalStoreUrl, userId, answer))
+            .exceptionally(e -> {
+            // If something went wrong during the verified_claims retrieving process
+            // These errors should not concern client applications
+            // However, they will be logged into Keycloak's terminal, so admin could be aware that something is wrong
+
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+
+                if (cause instanceof ConnectException || cause instanceof UnknownHostException) {
+                // If the external store couldn't be found
+
+                    LOG.errorf(ERROR_MESSAGE_IDA_EXTERNAL_STORE_CONNECTION_EXCEPTION + " IDA External Store = '%s'", externalStoreUrl);
+                } else if (cause instanceof HttpTimeoutException) {
+                // If the external store took too long to answer
+
+                    count(store, STORE_TIMEOUTS);
+                    LOG.errorf(ERROR_MESSAGE_IDA_EXTERNAL_STORE_TIMEOUT + " IDA External Store = '%s'", externalStoreUrl);
+                } else {
+                    LOG.error(cause.getMessage(), cause);
+                }
+
+                return null;
+            });
+    }
+
+    /**
+     * Sends a request to the store, recording its latency
+     * 
+     * @param store
+     * @param requestUri
+     * @param timeoutMillis
+     * @param primary       false for the second request of a hedged request
+     * @return the future returned by the HTTP client, so it can be cancelled
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(IdaHttpStore store, URI requestUri, long timeoutMillis, 
+            boolean primary) {
+        HttpRequest request = HttpRequest.newBuilder(requestUri)
+            .timeout(Duration.ofMillis(timeoutMillis))
+            .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON)
+            .GET()
+            .build();
+        long start = System.nanoTime();
+
+        CompletableFuture<HttpResponse<byte[]>> response = store.getHttpClient()
+            .sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        response.whenComplete((answer, e) -> {
+            if (answer != null) {
+                store.getLatency().record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } else if (e instanceof CancellationException) {
+            // A first request cancelled because its hedge answered would have taken at least that long, so it is only
+            // recorded as a lower bound. A cancelled hedge is not recorded, since it was sent late and only lost
+
+                if (primary) {
+                    store.getLatency().record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            } else if (e instanceof HttpTimeoutException || e != null && e.getCause() instanceof HttpTimeoutException) {
+            // Requests that timed out took at least that long, so the store's latency is not underestimated
+
+                store.getLatency().record(timeoutMillis);
+            }
+        });
+
+        return response;
+    }
+
+    /**
+     * Sends a second request if the first has not been answered after a delay, as long as the store's hedge budget 
+     * and concurrency allow it. The first answer is used and the other request is cancelled. Errors are only 
+     * reported once both requests have failed. Both requests together never take longer than the timeout
+     * 
+     * @param store
+     * @param requestUri
+     * @param primary          The first request
+     * @param hedgeDelayMillis
+     * @param timeoutMillis
+     * @return
+     */
+    private CompletableFuture<HttpResponse<byte[]>> hedge(IdaHttpStore store, URI requestUri, 
+            CompletableFuture<HttpResponse<byte[]>> primary, long hedgeDelayMillis, long timeoutMillis) {
+        CompletableFuture<HttpResponse<byte[]>> winner = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<HttpResponse<byte[]>>> secondary = new AtomicReference<>();
+        AtomicReference<Throwable> lastError = new AtomicReference<>();
+        AtomicInteger pending = new AtomicInteger(1);
+
+        primary.whenComplete((answer, e) -> settle(winner, pending, lastError, answer, e));
+
+        CompletableFuture.delayedExecutor(hedgeDelayMillis, TimeUnit.MILLISECONDS, store.getExecutor()).execute(() -> {
+            // Counted before checking, so the first request cannot fail the winner while the second one is sent
+            pending.incrementAndGet();
+
+            if (winner.isDone() || !store.tryAcquire()) {
+                withdraw(winner, pending, lastError);
+                return;
+            }
+
+            if (!store.getHedgeBudget().tryHedge()) {
+            // If too many requests have been hedged recently
+
+                store.release();
+                count(store, STORE_HEDGE_SKIPPED);
+                withdraw(winner, pending, lastError);
+                return;
+            }
+
+            count(store, STORE_HEDGED);
+            CompletableFuture<HttpResponse<byte[]>> response = 
+                send(store, requestUri, timeoutMillis - hedgeDelayMillis, false);
+            secondary.set(response);
+
+            response.whenComplete((answer, e) -> {
+                store.release();
+
+                if (settle(winner, pending, lastError, answer, e)) {
+                    count(store, STORE_HEDGE_WON);
+                }
+            });
+        });
+
+        return winner.whenComplete((answer, e) -> {
+            // The request that lost is no longer needed
+            primary.cancel(true);
+
+            if (secondary.get() != null) {
+                secondary.get().cancel(true);
+            }
+        });
+    }
+
+    /**
+     * Completes a hedged request with one of its answers
+     * 
+     * @param winner
+     * @param pending   Number of requests that have not completed
+     * @param lastError
+     * @param answer
+     * @param e
+     * @return true if the answer was the first one
+     */
+    private static boolean settle(CompletableFuture<HttpResponse<byte[]>> winner, AtomicInteger pending, 
+            AtomicReference<Throwable> lastError, HttpResponse<byte[]> answer, Throwable e) {
+        if (e == null) {
+            return winner.complete(answer);
+        }
+
+        lastError.set(e);
+        withdraw(winner, pending, lastError);
+
+        return false;
+    }
+
+    /**
+     * Stops waiting for one of the requests of a hedged request, failing it if no other request is pending
+     * 
+     * @param winner
+     * @param pending
+     * @param lastError
+     */
+    private static void withdraw(CompletableFuture<HttpResponse<byte[]>> winner, AtomicInteger pending, 
+            AtomicReference<Throwable> lastError) {
+        if (pending.decrementAndGet() == 0) {
+            winner.completeExceptionally(lastError.get());
+        }
+    }
+
+    /**
+     * Increments a counter of the store's realm
+     * 
+     * @param store
+     * @param counter
+     */
+    private static void count(IdaHttpStore store, String counter) {
+        if (store.getRealmId() != null) {
+            IdaMetrics.getInstance().increment(store.getRealmId(), counter);
+        }
+    }
+
+    /**
+     * Parses and validates the external store's response
+     * 
+     * @param externalStoreUrl
+     * @param userId
+     * @param response
+     * @return the verified claims or null, if the response does not hold valid verified claims
+     */
+    private JsonNode parseVerifiedClaims(String externalStoreUrl, String userId, HttpResponse<byte[]> response) {
+        if (response.statusCode() != Response.Status.OK.getStatusCode()) {
+        // If the store has no verified claims for the user, or could not process the request
+
+            LOG.debugf("The IDA external store '%s' answered with status %d for user '%s'", externalStoreUrl, 
+                response.statusCode(), userId);
+            return null;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debugf("Retrieved verified claims from HTTP source: %s", new String(response.body(), StandardCharsets.UTF_8));
+        }
+
+        try {
+            // Convert the verified_claims object to a JSON representation
+            JsonNode verifiedClaims = MAPPER.readTree(response.body());
+            // Validates the verified_claims object using a JSON schema
+            VerifiedClaimsValidator.validateVerifiedClaims(verifiedClaims);
+
+            return verifiedClaims;
+        } catch (IOException e) {
+        // If the user's verified_claims is not in a valid JSON structure
+
+            LOG.errorf(ERROR_MESSAGE_IDA_EXTERNAL_STORE_IVALID_JSON_);
             return null;
         } catch (ValidationException | GenerationException e) {
         // If something went wrong during the verified_claims validation process
-        // These errors should not concern client applications
-        // However, they will be logged into Keycloak's terminal, so admin could be aware that something is wrong
 
             LOG.error(ERROR_MESSAGE_IDA_EXTERNAL_STORE_INVALID_SCHEMA);
-
-            e.printStackTrace();
+            LOG.debug(e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Builds the URI used to request a user's verified claims
+     * 
+     * @param externalStoreUrl
+     * @param userId
+     * @param projection       The projection sent to the store, or null
+     * @return
+     */
+    private URI buildRequestUri(String externalStoreUrl, String userId, VerifiedClaimsProjection projection) {
+        String separator = externalStoreUrl.contains("?") ? "&" : "?";
+
+        return URI.create(externalStoreUrl + separator + USER_ID_PARAM + "=" + URLEncoder.encode(userId, StandardCharsets.UTF_8) 
+            + (projection != null ? projection.getQuery() : ""));
+    }
+
+    /**
+     * Builds the URI used to request the store's changes. The changes are listed under the store's URL
+     * 
+     * @param externalStoreUrl
+     * @param since            The watermark of the last page replicated, or null
+     * @param limit
+     * @return
+     */
+    private URI buildChangesUri(String externalStoreUrl, String since, int limit) {
+        int queryStart = externalStoreUrl.indexOf('?');
+        String path = queryStart < 0 ? externalStoreUrl : externalStoreUrl.substring(0, queryStart);
+        String query = queryStart < 0 ? "" : externalStoreUrl.substring(queryStart + 1) + "&";
+
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        return URI.create(path + CHANGES_PATH + "?" + query + CHANGES_LIMIT_PARAM + "=" + limit 
+            + (since != null ? "&" + CHANGES_SINCE_PARAM + "=" + URLEncoder.encode(since, StandardCharsets.UTF_8) : ""));
+    }
+
+    /**
+     * Gets the timeout set for the protocol mapper, in milliseconds
+     * 
+     * @param protocolMapperConfig
+     * @return the timeout, or the default one if the configured value is not a positive number
+     */
+    private long getTimeoutMillis(Map<String, String> protocolMapperConfig) {
+        long timeout = IdaMapperConfig.parseExternalStoreTimeout(protocolMapperConfig);
+
+        return timeout > 0 ? timeout : Long.parseLong(IDA_EXTERNAL_STORE_TIMEOUT_DEFAULT);
+    }
+
     @Override
     public void close() {
         // NOOP
@@ -3,11 +3,65 @@ package org.keycloak.protocol.oidc.ida.mappers.connector;
 public class IdaHttpConnectorConstants {
     // Configs and properties
     public static final String IDA_EXTERNAL_STORE_HELP_TEXT = "The URL of external store used by IDA (only if local source is disabled)";
+    public static final String IDA_EXTERNAL_STORE_CACHE_TTL_NAME = "ida.external.store.cache.ttl";
+    public static final String IDA_EXTERNAL_STORE_CACHE_TTL_LABEL = "IDA external source's cache TTL";
+    public static final String IDA_EXTERNAL_STORE_CACHE_TTL_HELP_TEXT = "How long, in seconds, verified claims retrieved from the external store are cached (0 disables the cache). The store can push changes to Keycloak, so long TTLs do not serve stale claims";
+    public static final String IDA_EXTERNAL_STORE_CACHE_TTL_DEFAULT = "0";
+    public static final String IDA_EXTERNAL_STORE_PROJECTION_NAME = "ida.external.store.projection";
+    public static final String IDA_EXTERNAL_STORE_PROJECTION_LABEL = "IDA external source's projection";
+    public static final String IDA_EXTERNAL_STORE_PROJECTION_HELP_TEXT = "Send the requested claims, trust frameworks and evidence types to the external store, so it only returns what may be released. The store must support the \"claims\", \"trust_frameworks\" and \"evidence_types\" query parameters";
+    public static final String IDA_EXTERNAL_STORE_PROJECTION_DEFAULT = "false";
+    public static final String CONNECT_TIMEOUT_CONFIG = "connectTimeout";
+    public static final int CONNECT_TIMEOUT_DEFAULT = 10;
+    public static final String THREAD_NAME_PREFIX = "ida-http-connector-";
+    public static final String THREADS_CONFIG = "threads";
+    public static final int THREADS_DEFAULT = 16;
+    public static final String CACHE_MAX_USERS_CONFIG = "cacheMaxUsers";
+    public static final int CACHE_MAX_USERS_DEFAULT = 100000;
+    public static final String HEAD_METHOD = "HEAD";
+    public static final String STORE_MAX_CONCURRENCY_CONFIG = "storeMaxConcurrency";
+    public static final int STORE_MAX_CONCURRENCY_DEFAULT = 64;
+    public static final String STORE_IDLE_TIMEOUT_CONFIG = "storeIdleTimeout";
+    public static final int STORE_IDLE_TIMEOUT_DEFAULT = 1800;
+    public static final int STORE_EVICTION_INTERVAL = 60;
+    public static final String ADAPTIVE_TIMEOUT_CONFIG = "adaptiveTimeout";
+    public static final String ADAPTIVE_TIMEOUT_MULTIPLIER_CONFIG = "adaptiveTimeoutMultiplier";
+    public static final double ADAPTIVE_TIMEOUT_MULTIPLIER_DEFAULT = 3;
+    public static final String ADAPTIVE_TIMEOUT_MIN_CONFIG = "adaptiveTimeoutMin";
+    public static final int ADAPTIVE_TIMEOUT_MIN_DEFAULT = 250;
+    public static final String HEDGING_CONFIG = "hedging";
+    public static final String HEDGE_MAX_RATE_CONFIG = "hedgeMaxRate";
+    public static final int HEDGE_MAX_RATE_DEFAULT = 5;
+
+    // Query parameters
+    public static final String USER_ID_PARAM = "userId";
+    public static final String PROJECTION_CLAIMS_PARAM = "claims";
+    public static final String PROJECTION_TRUST_FRAMEWORKS_PARAM = "trust_frameworks";
+    public static final String PROJECTION_EVIDENCE_TYPES_PARAM = "evidence_types";
+    public static final String CHANGES_PATH = "/changes";
+    public static final String CHANGES_SINCE_PARAM = "since";
+    public static final String CHANGES_LIMIT_PARAM = "limit";
+
+    // JSON keys
+    public static final String VERIFICATION = "verification";
+    public static final String TRUST_FRAMEWORK = "trust_framework";
+    public static final String EVIDENCE = "evidence";
+    public static final String TYPE = "type";
+    public static final String VALUE = "value";
+    public static final String VALUES = "values";
+    public static final String CHANGES = "changes";
+    public static final String WATERMARK = "watermark";
+    public static final String HAS_MORE = "hasMore";
 
     // Error messages
     public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_INVALID_URL = "The external IDA's source has an invalid URL.";
     public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_CONNECTION_EXCEPTION = "Could not connect to the IDA's external source.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_TIMEOUT = "The IDA's external source did not answer in time.";
     public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_IVALID_JSON_ = "The user's \"verified_claims\" retrieved from the IDA's external source are not in a valid JSON structure.";
     public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_URL_NOT_SPECIFIED = "The IDA's external source's URL has not been specified.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_INVALID_CACHE_TTL = "The IDA's external source's cache TTL must be a non-negative number of seconds.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_BUSY = "The IDA's external source has too many requests in flight, it was not called.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_WARM_UP_FAILED = "Could not open a connection to the IDA's external source during warm-up.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_CHANGES_FAILED = "The IDA's external source answered with status %d when asked for its changes.";
     public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_INVALID_SCHEMA = "The user's \"verified_claims\" retrieved from the IDA's external source could not be validated using the JSON schema.";
 }
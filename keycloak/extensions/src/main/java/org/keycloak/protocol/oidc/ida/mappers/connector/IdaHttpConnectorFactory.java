@@ -3,31 +3,99 @@ package org.keycloak.protocol.oidc.ida.mappers.connector;
 import org.keycloak.Config;
 import org.keycloak.models.KeycloakSession;
 import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.RealmModel;
+import org.keycloak.protocol.oidc.ida.mappers.connector.latency.LatencyPolicy;
 import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnector;
 import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnectorFactory;
+import org.keycloak.protocol.oidc.ida.mappers.util.DaemonThreadFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ADAPTIVE_TIMEOUT_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ADAPTIVE_TIMEOUT_MIN_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ADAPTIVE_TIMEOUT_MIN_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ADAPTIVE_TIMEOUT_MULTIPLIER_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.ADAPTIVE_TIMEOUT_MULTIPLIER_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.CACHE_MAX_USERS_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.CACHE_MAX_USERS_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.CONNECT_TIMEOUT_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.CONNECT_TIMEOUT_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.HEDGE_MAX_RATE_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.HEDGE_MAX_RATE_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.HEDGING_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.STORE_EVICTION_INTERVAL;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.STORE_IDLE_TIMEOUT_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.STORE_IDLE_TIMEOUT_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.STORE_MAX_CONCURRENCY_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.STORE_MAX_CONCURRENCY_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.THREADS_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.THREADS_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.THREAD_NAME_PREFIX;
 
 public class IdaHttpConnectorFactory implements IdaConnectorFactory {
-    private static final String PROVIDER_ID = "ida-http-connector";
+    public static final String PROVIDER_ID = "ida-http-connector";
+
+    // Shared by every connector, so each realm's stores keep their connections and cache across requests
+    private IdaHttpStoreRegistry stores;
+    private LatencyPolicy latencyPolicy;
+    private ScheduledExecutorService evictor;
 
     @Override
     public IdaConnector create(KeycloakSession session) {
-        return new IdaHttpConnector();
+        return new IdaHttpConnector(session, stores, latencyPolicy);
     }
 
     @Override
     public void init(Config.Scope config) {
+        stores = new IdaHttpStoreRegistry(
+            config.getInt(CONNECT_TIMEOUT_CONFIG, CONNECT_TIMEOUT_DEFAULT),
+            config.getInt(CACHE_MAX_USERS_CONFIG, CACHE_MAX_USERS_DEFAULT),
+            config.getInt(STORE_MAX_CONCURRENCY_CONFIG, STORE_MAX_CONCURRENCY_DEFAULT),
+            config.getInt(HEDGE_MAX_RATE_CONFIG, HEDGE_MAX_RATE_DEFAULT),
+            config.getInt(THREADS_CONFIG, THREADS_DEFAULT));
+
+        // Timeouts follow each store's latency by default, hedging is opt-in as it adds load to the stores
+        String timeoutMultiplier = config.get(ADAPTIVE_TIMEOUT_MULTIPLIER_CONFIG);
+        latencyPolicy = new LatencyPolicy(
+            config.getBoolean(ADAPTIVE_TIMEOUT_CONFIG, true),
+            timeoutMultiplier != null ? Double.parseDouble(timeoutMultiplier) : ADAPTIVE_TIMEOUT_MULTIPLIER_DEFAULT,
+            config.getInt(ADAPTIVE_TIMEOUT_MIN_CONFIG, ADAPTIVE_TIMEOUT_MIN_DEFAULT),
+            config.getBoolean(HEDGING_CONFIG, false));
+
+        // Stores no mapper has used for a while are closed, e.g. once their mapper has been removed
+        long idleTimeoutMillis = TimeUnit.SECONDS.toMillis(config.getInt(STORE_IDLE_TIMEOUT_CONFIG, STORE_IDLE_TIMEOUT_DEFAULT));
+        evictor = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory(THREAD_NAME_PREFIX + "evictor-"));
+        evictor.scheduleWithFixedDelay(() -> stores.evictIdle(idleTimeoutMillis), STORE_EVICTION_INTERVAL, 
+            STORE_EVICTION_INTERVAL, TimeUnit.SECONDS);
     }
 
     @Override
     public void postInit(KeycloakSessionFactory factory) {
+        factory.register(event -> {
+            if (event instanceof RealmModel.RealmRemovedEvent) {
+            // The stores of a removed realm are closed right away
+
+                stores.removeRealm(((RealmModel.RealmRemovedEvent) event).getRealm().getId());
+            }
+        });
     }
 
     @Override
     public void close() {
+        evictor.shutdownNow();
+        stores.close();
+    }
+
+    @Override
+    public int order() {
+        // Remains the default connector, used by mappers created before connectors could be selected
+        return 1;
     }
 
     @Override
     public String getId() {
         return PROVIDER_ID;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,118 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector;
+
+import org.keycloak.protocol.oidc.ida.mappers.cache.VerifiedClaimsCache;
+import org.keycloak.protocol.oidc.ida.mappers.connector.latency.HedgeBudget;
+import org.keycloak.protocol.oidc.ida.mappers.connector.latency.LatencyHistogram;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+import static org.keycloak.protocol.oidc.ida.mappers.connector.latency.LatencyConstants.WINDOW_MILLIS;
+
+/**
+ * Resources dedicated to one external store of one realm: its own HTTP client, and so its own connections, its own 
+ * cache, its own cap on requests in flight and its own latency statistics. A slow or overloaded store can only exhaust 
+ * its own resources, never another realm's. The threads completing the requests are shared by every store, as they 
+ * never block.
+ */
+public class IdaHttpStore implements AutoCloseable {
+    private final String realmId;
+    private final String url;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private final VerifiedClaimsCache cache;
+    private final Semaphore inFlight;
+    private final LatencyHistogram latency = new LatencyHistogram(WINDOW_MILLIS);
+    private final HedgeBudget hedgeBudget;
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    /**
+     * @param realmId
+     * @param url
+     * @param connectTimeoutSeconds
+     * @param cacheMaxUsers
+     * @param maxConcurrency        Maximum number of requests in flight to the store
+     * @param hedgeMaxRate          Maximum share of requests that may be hedged, in percent
+     * @param executor              Executor shared by every store, completing the requests
+     */
+    public IdaHttpStore(String realmId, String url, int connectTimeoutSeconds, int cacheMaxUsers, int maxConcurrency, 
+            int hedgeMaxRate, ExecutorService executor) {
+        this.realmId = realmId;
+        this.url = url;
+        this.executor = executor;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .executor(executor)
+            .build();
+        this.cache = new VerifiedClaimsCache(cacheMaxUsers);
+        this.inFlight = new Semaphore(maxConcurrency);
+        this.hedgeBudget = new HedgeBudget(hedgeMaxRate);
+    }
+
+    /**
+     * Tries to reserve a slot for a request to the store
+     * 
+     * @return true if the store has not reached its maximum number of requests in flight
+     */
+    public boolean tryAcquire() {
+        lastUsed = System.currentTimeMillis();
+
+        return inFlight.tryAcquire();
+    }
+
+    /**
+     * Frees a slot reserved for a request that has completed
+     */
+    public void release() {
+        inFlight.release();
+    }
+
+    /**
+     * Marks the store as used
+     */
+    public void touch() {
+        lastUsed = System.currentTimeMillis();
+    }
+
+    public boolean isIdle(long now, long idleTimeoutMillis) {
+        return now - lastUsed >= idleTimeoutMillis;
+    }
+
+    public String getRealmId() {
+        return realmId;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public VerifiedClaimsCache getCache() {
+        return cache;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public HedgeBudget getHedgeBudget() {
+        return hedgeBudget;
+    }
+
+    @Override
+    public void close() {
+        // The executor is shared, so it is shut down along with the registry
+        cache.clear();
+    }
+}
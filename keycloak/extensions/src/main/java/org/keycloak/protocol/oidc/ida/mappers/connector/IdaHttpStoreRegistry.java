@@ -0,0 +1,163 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector;
+
+import org.jboss.logging.Logger;
+import org.keycloak.protocol.oidc.ida.mappers.util.DaemonThreadFactory;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.THREAD_NAME_PREFIX;
+
+/**
+ * Registry of the external stores used by each realm. Stores are created on first use, and closed when their realm 
+ * is removed or when no mapper has used them for a while, e.g. because their mapper was removed or now points to 
+ * another store. Every store completes its requests on the registry's threads, so their number does not grow with 
+ * the number of stores.
+ */
+public class IdaHttpStoreRegistry implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(IdaHttpStoreRegistry.class);
+
+    private final Map<Key, IdaHttpStore> stores = new ConcurrentHashMap<>();
+    private final int connectTimeoutSeconds;
+    private final int cacheMaxUsers;
+    private final int maxConcurrency;
+    private final int hedgeMaxRate;
+    private final ExecutorService executor;
+
+    /**
+     * @param connectTimeoutSeconds
+     * @param cacheMaxUsers
+     * @param maxConcurrency        Maximum number of requests in flight to each store
+     * @param hedgeMaxRate          Maximum share of requests that may be hedged, in percent
+     * @param threads               Number of threads completing the requests of every store
+     */
+    public IdaHttpStoreRegistry(int connectTimeoutSeconds, int cacheMaxUsers, int maxConcurrency, int hedgeMaxRate, 
+            int threads) {
+        this.connectTimeoutSeconds = connectTimeoutSeconds;
+        this.cacheMaxUsers = cacheMaxUsers;
+        this.maxConcurrency = maxConcurrency;
+        this.hedgeMaxRate = hedgeMaxRate;
+        this.executor = Executors.newFixedThreadPool(Math.max(threads, 1), new DaemonThreadFactory(THREAD_NAME_PREFIX));
+    }
+
+    /**
+     * Gets a realm's store, creating it on first use
+     * 
+     * @param realmId
+     * @param url
+     * @return
+     */
+    public IdaHttpStore get(String realmId, String url) {
+        // The store is marked as used under the map's lock, so it can't be evicted as idle once returned
+        return stores.compute(new Key(realmId, url), (key, store) -> {
+            if (store == null) {
+                LOG.debugf("Creating resources of IDA external store '%s' for realm '%s'", url, realmId);
+                store = new IdaHttpStore(realmId, url, connectTimeoutSeconds, cacheMaxUsers, maxConcurrency, 
+                    hedgeMaxRate, executor);
+            }
+            store.touch();
+
+            return store;
+        });
+    }
+
+    /**
+     * Gets a realm's store, if it has already been created
+     * 
+     * @param realmId
+     * @param url
+     * @return the store or null, if it has not been used yet
+     */
+    public IdaHttpStore peek(String realmId, String url) {
+        return stores.get(new Key(realmId, url));
+    }
+
+    /**
+     * Gets every store of a realm
+     * 
+     * @param realmId The realm's ID, or null for every realm
+     * @return
+     */
+    public Stream<IdaHttpStore> getStores(String realmId) {
+        return stores.values().stream()
+            .filter(store -> realmId == null || realmId.equals(store.getRealmId()));
+    }
+
+    /**
+     * Closes every store of a realm
+     * 
+     * @param realmId
+     */
+    public void removeRealm(String realmId) {
+        remove(store -> realmId.equals(store.getRealmId()));
+    }
+
+    /**
+     * Closes the stores that have not been used for a while
+     * 
+     * @param idleTimeoutMillis
+     */
+    public void evictIdle(long idleTimeoutMillis) {
+        long now = System.currentTimeMillis();
+        remove(store -> store.isIdle(now, idleTimeoutMillis));
+    }
+
+    private void remove(Predicate<IdaHttpStore> condition) {
+        for (Key key : stores.keySet()) {
+            IdaHttpStore[] removed = new IdaHttpStore[1];
+
+            // The condition is checked again under the map's lock, so a store that has just been used is kept
+            stores.computeIfPresent(key, (k, store) -> {
+                if (!condition.test(store)) {
+                    return store;
+                }
+
+                removed[0] = store;
+                return null;
+            });
+
+            if (removed[0] != null) {
+                removed[0].close();
+                LOG.debugf("Closed resources of IDA external store '%s' for realm '%s'", removed[0].getUrl(), 
+                    removed[0].getRealmId());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        remove(store -> true);
+        executor.shutdownNow();
+    }
+
+    private static final class Key {
+        private final String realmId;
+        private final String url;
+
+        private Key(String realmId, String url) {
+            this.realmId = realmId;
+            this.url = url;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) o;
+
+            return Objects.equals(realmId, other.realmId) && Objects.equals(url, other.url);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(realmId, url);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import net.jimblackler.jsonschemafriend.GenerationException;
+import net.jimblackler.jsonschemafriend.ValidationException;
+
+import org.jboss.logging.Logger;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.protocol.ProtocolMapperConfigException;
+import org.keycloak.protocol.oidc.ida.mappers.connector.jdbc.JdbcConnectionPool;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnector;
+import org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidator;
+import org.keycloak.provider.ProviderConfigProperty;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_INVALID_SCHEMA;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_IVALID_JSON_;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_NOT_CONFIGURED;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_NOT_SCOPED;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_QUERY_FAILED;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_REALM_NOT_ALLOWED;
+import static org.keycloak.validate.validators.ValidatorConfigValidator.MESSAGE_CONFIG_INVALID_VALUE;
+
+/**
+ * Connector that retrieves verified claims from a relational database, configured on the server. Each row of the 
+ * table holds a user's "verified_claims" element, or a {"verified_claims": ...} object, as JSON text. A user with 
+ * several rows gets all of them, as an array, and rows that are not valid are left out. Users are only looked up in 
+ * the rows of the realm being served, or only for the realms allowed to use the database.
+ */
+public class IdaJdbcConnector implements IdaConnector {
+    private static final Logger LOG = Logger.getLogger(IdaJdbcConnector.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final KeycloakSession session;
+    private final JdbcConnectionPool pool;
+    private final String query;
+    private final String batchQuery;
+    private final boolean realmScoped;
+    private final Set<String> realms;
+    private final int batchSize;
+    private final int queryTimeoutSeconds;
+    private final Executor executor;
+
+    /**
+     * @param session
+     * @param pool                Pool of connections to the database, or null if the database is not configured
+     * @param query               Query retrieving a single user's rows
+     * @param batchQuery          Query retrieving many users' rows, with a "%s" placeholder for the IN list
+     * @param realmScoped         Whether the queries end with a realm condition, bound to the realm's name
+     * @param realms              Names of the realms allowed to use the database, or null if any realm may use it
+     * @param batchSize           Maximum number of users per batch query
+     * @param queryTimeoutSeconds
+     * @param executor            Executor running the blocking queries of asynchronous retrievals
+     */
+    public IdaJdbcConnector(KeycloakSession session, JdbcConnectionPool pool, String query, String batchQuery, 
+            boolean realmScoped, Set<String> realms, int batchSize, int queryTimeoutSeconds, Executor executor) {
+        this.session = session;
+        this.pool = pool;
+        this.query = query;
+        this.batchQuery = batchQuery;
+        this.realmScoped = realmScoped;
+        this.realms = realms;
+        this.batchSize = batchSize;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+        this.executor = executor;
+    }
+
+    @Override
+    public void addIdaExternalStore(List<ProviderConfigProperty> configProperties) {
+        // The database is configured on the server, so its credentials are not exposed to realm admins
+    }
+
+    @Override
+    public void validateIdaExternalStore(Map<String, String> protocolMapperConfig)
+            throws ProtocolMapperConfigException {
+        if (pool == null) {
+            throw new ProtocolMapperConfigException(ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_NOT_CONFIGURED, 
+                MESSAGE_CONFIG_INVALID_VALUE);
+        }
+
+        if (!realmScoped && realms == null) {
+            throw new ProtocolMapperConfigException(ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_NOT_SCOPED, 
+                MESSAGE_CONFIG_INVALID_VALUE);
+        }
+
+        if (!isAllowed(getRealmName())) {
+            throw new ProtocolMapperConfigException(ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_REALM_NOT_ALLOWED, 
+                MESSAGE_CONFIG_INVALID_VALUE);
+        }
+    }
+
+    @Override
+    public JsonNode getVerifiedClaims(Map<String, String> protocolMapperConfig, String userId) {
+        return getVerifiedClaimsBatch(getRealmName(), Collections.singletonList(userId)).get(userId);
+    }
+
+    @Override
+    public CompletableFuture<JsonNode> getVerifiedClaimsAsync(Map<String, String> protocolMapperConfig, String userId) {
+        String realm = getRealmName();
+
+        if (pool == null) {
+            return CompletableFuture.completedFuture(
+                getVerifiedClaimsBatch(realm, Collections.singletonList(userId)).get(userId));
+        }
+
+        // Queries block, so they run on the connector's threads, bounded by the pool's size
+        // The realm is read beforehand, as the session is not used outside of the request's thread
+        return CompletableFuture.supplyAsync(
+            () -> getVerifiedClaimsBatch(realm, Collections.singletonList(userId)).get(userId), executor);
+    }
+
+    @Override
+    public Map<String, JsonNode> getVerifiedClaimsBatch(Map<String, String> protocolMapperConfig, 
+            Collection<String> userIds) {
+        return getVerifiedClaimsBatch(getRealmName(), userIds);
+    }
+
+    /**
+     * Gets the verified claims of many users of a realm
+     * 
+     * @param realm   Name of the realm being served
+     * @param userIds
+     * @return the {"verified_claims": ...} objects of the users found, indexed by their IDs
+     */
+    private Map<String, JsonNode> getVerifiedClaimsBatch(String realm, Collection<String> userIds) {
+        if (pool == null) {
+        // If the database is not configured
+
+            LOG.error(ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_NOT_CONFIGURED);
+            return Collections.emptyMap();
+        }
+
+        if (!realmScoped && realms == null) {
+        // If the rows could belong to any realm
+
+            LOG.error(ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_NOT_SCOPED);
+            return Collections.emptyMap();
+        }
+
+        if (!isAllowed(realm)) {
+            LOG.errorf(ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_REALM_NOT_ALLOWED + " Realm = '%s'", realm);
+            return Collections.emptyMap();
+        }
+
+        Map<String, List<JsonNode>> rows = new HashMap<>();
+        List<String> distinctUserIds = new ArrayList<>(new LinkedHashSet<>(userIds));
+
+        try {
+            for (int start = 0; start < distinctUserIds.size(); start += batchSize) {
+                query(realm, distinctUserIds.subList(start, Math.min(start + batchSize, distinctUserIds.size())), 
+                    rows);
+            }
+        } catch (SQLException e) {
+        // If the database could not be reached or the query failed
+        // These errors should not concern client applications, but they are logged so admins are aware of them
+
+            LOG.error(ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_QUERY_FAILED, e);
+            return Collections.emptyMap();
+        }
+
+        Map<String, JsonNode> verifiedClaims = new HashMap<>();
+        rows.forEach((userId, elements) -> {
+            JsonNode userVerifiedClaims = toVerifiedClaims(elements);
+
+            if (userVerifiedClaims != null) {
+                verifiedClaims.put(userId, userVerifiedClaims);
+            }
+        });
+
+        return verifiedClaims;
+    }
+
+    @Override
+    public CompletableFuture<Void> warmUp(Map<String, String> protocolMapperConfig) {
+        if (pool == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Opens a connection and prepares the single user's query
+        return CompletableFuture.runAsync(() -> {
+            try {
+                JdbcConnectionPool.PooledConnection connection = pool.acquire();
+                boolean broken = false;
+
+                try {
+                    connection.prepare(query);
+                } catch (SQLException e) {
+                    broken = true;
+                    LOG.warn(ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_QUERY_FAILED, e);
+                } finally {
+                    pool.release(connection, broken);
+                }
+            } catch (SQLException e) {
+                LOG.warn(ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_QUERY_FAILED, e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Checks whether a realm may use the database
+     * 
+     * @param realm
+     * @return
+     */
+    private boolean isAllowed(String realm) {
+        return realm != null && (realms == null || realms.contains(realm));
+    }
+
+    /**
+     * Gets the name of the realm being served
+     * 
+     * @return the realm's name or null, if the session is not bound to a realm
+     */
+    private String getRealmName() {
+        RealmModel realm = session.getContext().getRealm();
+
+        return realm != null ? realm.getName() : null;
+    }
+
+    /**
+     * Queries the rows of a batch of users
+     * 
+     * @param realm
+     * @param userIds
+     * @param rows    Receives each user's "verified_claims" elements
+     * @throws SQLException
+     */
+    private void query(String realm, List<String> userIds, Map<String, List<JsonNode>> rows) throws SQLException {
+        // The IN list is padded to a power of two, so only a few distinct statements are prepared and cached
+        int parameters = userIds.size() == 1 ? 1 : Integer.highestOneBit(userIds.size() - 1) << 1;
+        String sql = parameters == 1 ? query : String.format(batchQuery, String.join(", ", Collections.nCopies(parameters, "?")));
+
+        JdbcConnectionPool.PooledConnection connection = pool.acquire();
+        boolean broken = true;
+
+        try {
+            PreparedStatement statement = connection.prepare(sql);
+            statement.setQueryTimeout(queryTimeoutSeconds);
+
+            for (int i = 0; i < parameters; i++) {
+                statement.setString(i + 1, userIds.get(Math.min(i, userIds.size() - 1)));
+            }
+            if (realmScoped) {
+                statement.setString(parameters + 1, realm);
+            }
+
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    addRow(result.getString(1), result.getString(2), rows);
+                }
+            }
+
+            broken = false;
+        } finally {
+            pool.release(connection, broken);
+        }
+    }
+
+    private void addRow(String userId, String json, Map<String, List<JsonNode>> rows) {
+        if (userId == null || json == null) {
+            return;
+        }
+
+        try {
+            JsonNode element = MAPPER.readTree(json);
+            if (element.has(VERIFIED_CLAIMS)) {
+            // If the row holds a {"verified_claims": ...} object
+
+                element = element.get(VERIFIED_CLAIMS);
+            }
+
+            List<JsonNode> elements = rows.computeIfAbsent(userId, key -> new ArrayList<>());
+            if (element.isArray()) {
+                element.forEach(elements::add);
+            } else {
+                elements.add(element);
+            }
+        } catch (IOException e) {
+        // If the row is not in a valid JSON structure, the user's other rows are still served
+
+            LOG.errorf(ERROR_MESSAGE_IDA_EXTERNAL_STORE_IVALID_JSON_ + " User = '%s'", userId);
+        }
+    }
+
+    /**
+     * Validates and wraps a user's "verified_claims" elements, leaving out the elements that are not valid
+     * 
+     * @param elements
+     * @return the {"verified_claims": ...} object or null, if none of the elements is valid
+     */
+    private JsonNode toVerifiedClaims(List<JsonNode> elements) {
+        List<JsonNode> validElements = new ArrayList<>(elements.size());
+
+        for (JsonNode element : elements) {
+            try {
+                VerifiedClaimsValidator.validateVerifiedClaims(MAPPER.createObjectNode().set(VERIFIED_CLAIMS, element));
+                validElements.add(element);
+            } catch (ValidationException | GenerationException e) {
+            // If the element is not valid, the user's other elements are still served
+
+                LOG.error(ERROR_MESSAGE_IDA_EXTERNAL_STORE_INVALID_SCHEMA);
+                LOG.debug(e.getMessage());
+            }
+        }
+
+        if (validElements.isEmpty()) {
+            return null;
+        }
+
+        JsonNode element;
+        if (validElements.size() == 1) {
+            element = validElements.get(0);
+        } else {
+            ArrayNode array = MAPPER.createArrayNode();
+            validElements.forEach(array::add);
+            element = array;
+        }
+
+        return MAPPER.createObjectNode().set(VERIFIED_CLAIMS, element);
+    }
+
+    @Override
+    public void close() {
+        // NOOP, the pool is shared by every connector
+    }
+}
@@ -0,0 +1,46 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector;
+
+import java.util.regex.Pattern;
+
+public class IdaJdbcConnectorConstants {
+    // Configs and properties
+    public static final String URL_CONFIG = "url";
+    public static final String USER_CONFIG = "user";
+    public static final String PASSWORD_CONFIG = "password";
+    public static final String TABLE_CONFIG = "table";
+    public static final String TABLE_DEFAULT = "verified_claims";
+    public static final String USER_ID_COLUMN_CONFIG = "userIdColumn";
+    public static final String USER_ID_COLUMN_DEFAULT = "user_id";
+    public static final String CLAIMS_COLUMN_CONFIG = "claimsColumn";
+    public static final String CLAIMS_COLUMN_DEFAULT = "verified_claims";
+    public static final String REALM_COLUMN_CONFIG = "realmColumn";
+    public static final String REALMS_CONFIG = "realms";
+    public static final String POOL_SIZE_CONFIG = "poolSize";
+    public static final int POOL_SIZE_DEFAULT = 8;
+    public static final String ACQUIRE_TIMEOUT_CONFIG = "acquireTimeout";
+    public static final int ACQUIRE_TIMEOUT_DEFAULT = 2000;
+    public static final String VALIDATION_IDLE_CONFIG = "validationIdle";
+    public static final int VALIDATION_IDLE_DEFAULT = 30000;
+    public static final String QUERY_TIMEOUT_CONFIG = "queryTimeout";
+    public static final int QUERY_TIMEOUT_DEFAULT = 5;
+    public static final String BATCH_SIZE_CONFIG = "batchSize";
+    public static final int BATCH_SIZE_DEFAULT = 500;
+    public static final String THREAD_NAME_PREFIX = "ida-jdbc-connector-";
+
+    // Table and column names are written into the queries, so only plain identifiers are accepted
+    public static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    // Queries
+    public static final String QUERY_VERIFIED_CLAIMS = "SELECT %2$s, %3$s FROM %1$s WHERE %2$s = ?";
+    public static final String QUERY_VERIFIED_CLAIMS_BATCH = "SELECT %2$s, %3$s FROM %1$s WHERE %2$s IN (%4$s)";
+    public static final String QUERY_REALM_CONDITION = " AND %s = ?";
+
+    // Error messages
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_NOT_CONFIGURED = "The IDA's external database has not been configured on the server.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_NOT_SCOPED = "The IDA's external database is shared by every realm, so a realm column or the realms allowed to use it must be configured on the server.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_REALM_NOT_ALLOWED = "The IDA's external database may not be used by this realm.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_INVALID_IDENTIFIER = "The IDA's external database's table and column names must be plain SQL identifiers: '%s'.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_QUERY_FAILED = "Could not query the IDA's external database.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_IVALID_JSON_ = "The user's \"verified_claims\" retrieved from the IDA's external database are not in a valid JSON structure.";
+    public static final String ERROR_MESSAGE_IDA_EXTERNAL_STORE_INVALID_SCHEMA = "The user's \"verified_claims\" retrieved from the IDA's external database could not be validated using the JSON schema.";
+}
@@ -0,0 +1,150 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector;
+
+import org.jboss.logging.Logger;
+import org.keycloak.Config;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.protocol.oidc.ida.mappers.connector.jdbc.JdbcConnectionPool;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnector;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnectorFactory;
+import org.keycloak.protocol.oidc.ida.mappers.util.DaemonThreadFactory;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.ACQUIRE_TIMEOUT_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.ACQUIRE_TIMEOUT_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.BATCH_SIZE_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.BATCH_SIZE_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.CLAIMS_COLUMN_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.CLAIMS_COLUMN_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_INVALID_IDENTIFIER;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.IDENTIFIER_PATTERN;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.PASSWORD_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.POOL_SIZE_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.POOL_SIZE_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.QUERY_REALM_CONDITION;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.QUERY_TIMEOUT_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.QUERY_TIMEOUT_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.QUERY_VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.QUERY_VERIFIED_CLAIMS_BATCH;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.REALMS_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.REALM_COLUMN_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.TABLE_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.TABLE_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.THREAD_NAME_PREFIX;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.URL_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.USER_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.USER_ID_COLUMN_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.USER_ID_COLUMN_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.VALIDATION_IDLE_CONFIG;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.VALIDATION_IDLE_DEFAULT;
+
+/**
+ * Factory of connectors to a relational database, configured through the server's options, e.g. 
+ * {@code --spi-ida-connector-ida-jdbc-connector-url=jdbc:postgresql://kyc-db/kyc}. The database's JDBC driver must be 
+ * deployed along with the extension. The database is shared by every realm, so it must either have a realm column, 
+ * holding the name of each row's realm, or be restricted to the realms listed in {@code realms}.
+ */
+public class IdaJdbcConnectorFactory implements IdaConnectorFactory {
+    private static final Logger LOG = Logger.getLogger(IdaJdbcConnectorFactory.class);
+    public static final String PROVIDER_ID = "ida-jdbc-connector";
+
+    // Shared by every connector, so connections and prepared statements are reused across requests
+    private JdbcConnectionPool pool;
+    private ExecutorService queryExecutor;
+
+    private String query;
+    private String batchQuery;
+    private boolean realmScoped;
+    private Set<String> realms;
+    private int batchSize;
+    private int queryTimeoutSeconds;
+
+    @Override
+    public IdaConnector create(KeycloakSession session) {
+        return new IdaJdbcConnector(session, pool, query, batchQuery, realmScoped, realms, batchSize, 
+            queryTimeoutSeconds, queryExecutor);
+    }
+
+    @Override
+    public void init(Config.Scope config) {
+        String table = getIdentifier(config, TABLE_CONFIG, TABLE_DEFAULT);
+        String userIdColumn = getIdentifier(config, USER_ID_COLUMN_CONFIG, USER_ID_COLUMN_DEFAULT);
+        String claimsColumn = getIdentifier(config, CLAIMS_COLUMN_CONFIG, CLAIMS_COLUMN_DEFAULT);
+
+        query = String.format(QUERY_VERIFIED_CLAIMS, table, userIdColumn, claimsColumn);
+        batchQuery = String.format(QUERY_VERIFIED_CLAIMS_BATCH, table, userIdColumn, claimsColumn, "%s");
+
+        String realmColumn = config.get(REALM_COLUMN_CONFIG);
+        if (realmColumn != null && !realmColumn.isBlank()) {
+        // If each row holds its realm's name, which is bound after the users' IDs
+
+            String realmCondition = String.format(QUERY_REALM_CONDITION, getIdentifier(config, REALM_COLUMN_CONFIG, null));
+            query += realmCondition;
+            batchQuery += realmCondition;
+            realmScoped = true;
+        }
+
+        String[] allowedRealms = config.getArray(REALMS_CONFIG);
+        if (allowedRealms != null) {
+            realms = Arrays.stream(allowedRealms).map(String::trim).filter(realm -> !realm.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        }
+        batchSize = Math.max(config.getInt(BATCH_SIZE_CONFIG, BATCH_SIZE_DEFAULT), 1);
+        queryTimeoutSeconds = config.getInt(QUERY_TIMEOUT_CONFIG, QUERY_TIMEOUT_DEFAULT);
+
+        String url = config.get(URL_CONFIG);
+        if (url == null || url.isBlank()) {
+        // If no database was configured, the connector is deployed but cannot be used
+
+            LOG.debugf("The '%s' connector has no database configured", PROVIDER_ID);
+            return;
+        }
+
+        Properties properties = new Properties();
+        if (config.get(USER_CONFIG) != null) {
+            properties.setProperty("user", config.get(USER_CONFIG));
+        }
+        if (config.get(PASSWORD_CONFIG) != null) {
+            properties.setProperty("password", config.get(PASSWORD_CONFIG));
+        }
+
+        int poolSize = Math.max(config.getInt(POOL_SIZE_CONFIG, POOL_SIZE_DEFAULT), 1);
+        pool = new JdbcConnectionPool(url, properties, poolSize, 
+            config.getInt(ACQUIRE_TIMEOUT_CONFIG, ACQUIRE_TIMEOUT_DEFAULT), 
+            Math.max(config.getInt(VALIDATION_IDLE_CONFIG, VALIDATION_IDLE_DEFAULT), 0));
+        queryExecutor = Executors.newFixedThreadPool(poolSize, new DaemonThreadFactory(THREAD_NAME_PREFIX));
+    }
+
+    private String getIdentifier(Config.Scope config, String key, String defaultValue) {
+        String identifier = config.get(key, defaultValue).trim();
+
+        if (!IDENTIFIER_PATTERN.matcher(identifier).matches()) {
+            throw new IllegalArgumentException(String.format(ERROR_MESSAGE_IDA_EXTERNAL_STORE_JDBC_INVALID_IDENTIFIER, identifier));
+        }
+
+        return identifier;
+    }
+
+    @Override
+    public void postInit(KeycloakSessionFactory factory) {
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.close();
+            queryExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public String getId() {
+        return PROVIDER_ID;
+    }
+}
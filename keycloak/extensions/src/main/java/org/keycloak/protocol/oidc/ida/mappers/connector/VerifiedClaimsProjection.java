@@ -0,0 +1,181 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.EVIDENCE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.PROJECTION_CLAIMS_PARAM;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.PROJECTION_EVIDENCE_TYPES_PARAM;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.PROJECTION_TRUST_FRAMEWORKS_PARAM;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.TRUST_FRAMEWORK;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.TYPE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.VALUE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.VALUES;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.VERIFICATION;
+
+/**
+ * Compact summary of a "verified_claims" request, sent to the external store so it only returns what may be 
+ * released: the requested claims, the records of the requested trust frameworks, and the evidence of the requested 
+ * types. A dimension is left unrestricted whenever one of the requested elements does not restrict it. The store may 
+ * ignore the projection, since the requested claims are still extracted from its answer. The same summary is used 
+ * to skip what cannot be released when reading verified claims stored in Keycloak's database
+ */
+public class VerifiedClaimsProjection {
+    private final Set<String> claims;
+    private final Set<String> trustFrameworks;
+    private final Set<String> evidenceTypes;
+    private final String query;
+
+    private VerifiedClaimsProjection(Set<String> claims, Set<String> trustFrameworks, Set<String> evidenceTypes) {
+        this.claims = claims;
+        this.trustFrameworks = trustFrameworks;
+        this.evidenceTypes = evidenceTypes;
+        this.query = buildQuery();
+    }
+
+    /**
+     * Summarizes a "verified_claims" request
+     * 
+     * @param requestedVerifiedClaims A single requested element, or an array of them
+     * @return the projection or null, if the request does not restrict what the store returns
+     */
+    public static VerifiedClaimsProjection of(JsonNode requestedVerifiedClaims) {
+        if (requestedVerifiedClaims == null) {
+            return null;
+        }
+
+        Set<String> claims = new TreeSet<>();
+        Set<String> trustFrameworks = new TreeSet<>();
+        Set<String> evidenceTypes = new TreeSet<>();
+
+        for (JsonNode element : requestedVerifiedClaims.isArray() 
+                ? requestedVerifiedClaims 
+                : List.of(requestedVerifiedClaims)) {
+            JsonNode elementClaims = element.get(CLAIMS);
+            if (claims != null && elementClaims != null && elementClaims.isObject()) {
+                elementClaims.fieldNames().forEachRemaining(claims::add);
+            } else {
+            // Without a "claims" object, any claim may be released
+
+                claims = null;
+            }
+
+            JsonNode verification = element.path(VERIFICATION);
+            trustFrameworks = addValues(trustFrameworks, verification.get(TRUST_FRAMEWORK));
+
+            JsonNode evidence = verification.get(EVIDENCE);
+            if (evidence != null && evidence.isArray()) {
+                for (JsonNode evidenceElement : evidence) {
+                    evidenceTypes = addValues(evidenceTypes, evidenceElement.get(TYPE));
+                }
+            } else if (evidence != null) {
+            // If evidence is requested without constraints
+
+                evidenceTypes = null;
+            }
+        }
+
+        if (claims == null && trustFrameworks == null && evidenceTypes == null) {
+            return null;
+        }
+
+        return new VerifiedClaimsProjection(claims, trustFrameworks, evidenceTypes);
+    }
+
+    /**
+     * Adds the values a constrainable element is restricted to
+     * 
+     * @param values     The values collected so far, or null if unrestricted
+     * @param constraint An element such as {"value": "uk_diatf"} or {"values": [...]}
+     * @return the values, or null if the element is unrestricted
+     */
+    private static Set<String> addValues(Set<String> values, JsonNode constraint) {
+        if (values == null || constraint == null) {
+            return null;
+        }
+
+        if (constraint.path(VALUE).isTextual()) {
+            values.add(constraint.get(VALUE).textValue());
+            return values;
+        }
+
+        if (constraint.path(VALUES).isArray()) {
+            constraint.get(VALUES).forEach(value -> values.add(value.asText()));
+            return values;
+        }
+
+        return null;
+    }
+
+    private String buildQuery() {
+        StringBuilder builder = new StringBuilder();
+        appendParameter(builder, PROJECTION_CLAIMS_PARAM, claims);
+        appendParameter(builder, PROJECTION_TRUST_FRAMEWORKS_PARAM, trustFrameworks);
+        appendParameter(builder, PROJECTION_EVIDENCE_TYPES_PARAM, evidenceTypes);
+
+        return builder.toString();
+    }
+
+    private static void appendParameter(StringBuilder builder, String name, Set<String> values) {
+        if (values == null) {
+            return;
+        }
+
+        builder.append('&').append(name).append('=').append(values.stream()
+            .map(value -> URLEncoder.encode(value, StandardCharsets.UTF_8))
+            .collect(Collectors.joining(",")));
+    }
+
+    /**
+     * Gets the names of the requested claims
+     * 
+     * @return the names or null, if any claim may be released
+     */
+    public Set<String> getClaims() {
+        return claims;
+    }
+
+    /**
+     * Gets the trust frameworks the released records must follow
+     * 
+     * @return the trust frameworks or null, if records of any trust framework may be released
+     */
+    public Set<String> getTrustFrameworks() {
+        return trustFrameworks;
+    }
+
+    /**
+     * Gets the types of the evidence that may be released
+     * 
+     * @return the types, empty if no evidence was requested, or null if evidence of any type may be released
+     */
+    public Set<String> getEvidenceTypes() {
+        return evidenceTypes;
+    }
+
+    /**
+     * Gets the projection as query parameters, sorted so equal projections give the same query
+     * 
+     * @return the parameters, each one preceded by "&"
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Gets the key under which the store's answers to this projection are cached
+     * 
+     * @param externalStoreUrl
+     * @return
+     */
+    public String getCacheKey(String externalStoreUrl) {
+        return externalStoreUrl + "#" + query;
+    }
+}
@@ -0,0 +1,174 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector.index;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.ERROR_MESSAGE_LOAD_FAILED;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.ERROR_MESSAGE_RELOAD_FAILED;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.INDEX_FILE_EXTENSION;
+
+/**
+ * Index of a dataset that is rebuilt whenever the dataset changes. Changes are detected through the dataset's 
+ * modification time and size, checked at most once per interval, and the new index is built in the background 
+ * while lookups keep being served by the previous one. The first index is built in the background as well, and the 
+ * dataset is unavailable until it is ready, so token requests never wait for a dataset to be indexed. Indexes are 
+ * named after the dataset's version, so an index built before a restart is reused.
+ */
+public class ReloadingVerifiedClaimsIndex {
+    private static final Logger LOG = Logger.getLogger(ReloadingVerifiedClaimsIndex.class);
+
+    private final Path source;
+    private final Path indexDirectory;
+    private final long reloadIntervalMillis;
+    private final Executor reloader;
+    private final String indexPrefix;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private final AtomicReference<CompletableFuture<Void>> loading = new AtomicReference<>();
+
+    private volatile VerifiedClaimsIndex index;
+    private volatile String version;
+    private volatile long nextCheck;
+
+    public ReloadingVerifiedClaimsIndex(Path source, Path indexDirectory, long reloadIntervalMillis, Executor reloader) {
+        this.source = source.toAbsolutePath();
+        this.indexDirectory = indexDirectory;
+        this.reloadIntervalMillis = reloadIntervalMillis;
+        this.reloader = reloader;
+        this.indexPrefix = UUID.nameUUIDFromBytes(this.source.toString().getBytes(StandardCharsets.UTF_8)) + "-";
+    }
+
+    /**
+     * Gets the verified claims of a user, starting to load the index on first use
+     * 
+     * @param userId
+     * @return the UTF-8 JSON "{"verified_claims": ...}" object or null, if the user is not in the dataset or the 
+     *         index is not ready yet
+     */
+    public byte[] get(String userId) {
+        VerifiedClaimsIndex current = getIndex();
+
+        return current != null ? current.get(userId) : null;
+    }
+
+    /**
+     * Gets the current index, starting to load it on first use and starting a reload if the dataset has changed
+     * 
+     * @return the index or null, if it is not ready yet
+     */
+    public VerifiedClaimsIndex getIndex() {
+        VerifiedClaimsIndex current = index;
+
+        if (current == null) {
+            load();
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now >= nextCheck && reloading.compareAndSet(false, true)) {
+        // Only one thread checks the dataset and rebuilds the index at a time
+
+            nextCheck = now + reloadIntervalMillis;
+            reloader.execute(() -> {
+                try {
+                    if (!getSourceVersion().equals(version)) {
+                        reload();
+                    }
+                } catch (IOException e) {
+                    LOG.errorf(e, ERROR_MESSAGE_RELOAD_FAILED, source);
+                } finally {
+                    reloading.set(false);
+                }
+            });
+        }
+
+        return current;
+    }
+
+    /**
+     * Starts loading the index in the background, unless it is already loading or loaded. A failed load is retried 
+     * once the reload interval has passed
+     * 
+     * @return a future completed once the index is ready, or completed exceptionally if it could not be loaded
+     */
+    public CompletableFuture<Void> load() {
+        CompletableFuture<Void> current = loading.get();
+
+        if (current != null && !(current.isCompletedExceptionally() && System.currentTimeMillis() >= nextCheck)) {
+            return current;
+        }
+
+        CompletableFuture<Void> next = new CompletableFuture<>();
+        if (!loading.compareAndSet(current, next)) {
+        // If another thread has just started loading the index
+
+            return loading.get();
+        }
+
+        reloader.execute(() -> {
+            try {
+                reload();
+                next.complete(null);
+            } catch (IOException | RuntimeException e) {
+                nextCheck = System.currentTimeMillis() + reloadIntervalMillis;
+                LOG.errorf(e, ERROR_MESSAGE_LOAD_FAILED, source);
+                next.completeExceptionally(e);
+            }
+        });
+
+        return next;
+    }
+
+    private synchronized void reload() throws IOException {
+        String sourceVersion = getSourceVersion();
+        Path target = indexDirectory.resolve(indexPrefix + sourceVersion + INDEX_FILE_EXTENSION);
+
+        if (!Files.exists(target)) {
+        // If the dataset's version has not been indexed yet
+
+            Files.createDirectories(indexDirectory);
+            long start = System.currentTimeMillis();
+            int skipped = new VerifiedClaimsIndexBuilder().build(source, target);
+            LOG.infof("Indexed '%s' in %d ms (%d invalid lines skipped)", source, System.currentTimeMillis() - start, 
+                skipped);
+        }
+
+        index = VerifiedClaimsIndex.open(target);
+        version = sourceVersion;
+        nextCheck = System.currentTimeMillis() + reloadIntervalMillis;
+        deleteStaleIndexes(target);
+    }
+
+    private String getSourceVersion() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+
+        return attributes.lastModifiedTime().toMillis() + "-" + attributes.size();
+    }
+
+    /**
+     * Deletes the indexes of the dataset's previous versions. Their mappings stay readable until collected
+     * 
+     * @param current
+     */
+    private void deleteStaleIndexes(Path current) {
+        try (DirectoryStream<Path> indexes = Files.newDirectoryStream(indexDirectory, indexPrefix + "*" + INDEX_FILE_EXTENSION)) {
+            for (Path stale : indexes) {
+                if (!stale.equals(current)) {
+                    Files.deleteIfExists(stale);
+                }
+            }
+        } catch (IOException e) {
+            LOG.debug(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.ENTRY_SIZE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.ERROR_MESSAGE_INVALID_INDEX;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.HEADER_SIZE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.MAGIC;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.SEGMENT_SIZE;
+
+/**
+ * Read-only, memory-mapped index of users' verified claims, as written by {@link VerifiedClaimsIndexBuilder}. The 
+ * file starts with a header and a table of entries sorted by the hash of the user ID, followed by the records:
+ * 
+ * <pre>
+ * header:  int magic, int reserved, long entry count, long records offset
+ * entry:   long user ID hash, long record offset, int record length
+ * record:  int user ID length, user ID (UTF-8), "{"verified_claims": ...}" (UTF-8 JSON)
+ * </pre>
+ * 
+ * A lookup binary searches the table and reads a single record, so no unrelated record is parsed. Files larger than 
+ * a mapped buffer's 2 GB limit are mapped in segments. Instances are thread-safe.
+ */
+public class VerifiedClaimsIndex {
+    private final Path file;
+    private final ByteBuffer[] segments;
+    private final long entryCount;
+
+    private VerifiedClaimsIndex(Path file, ByteBuffer[] segments, long entryCount) {
+        this.file = file;
+        this.segments = segments;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Maps an index file into memory
+     * 
+     * @param file
+     * @return
+     * @throws IOException If the file could not be read or is not an index
+     */
+    public static VerifiedClaimsIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        // The mapping stays valid after the channel is closed
+
+            long size = channel.size();
+            ByteBuffer[] segments = new ByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+
+            for (int i = 0; i < segments.length; i++) {
+                long position = i * SEGMENT_SIZE;
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, 
+                    Math.min(SEGMENT_SIZE, size - position));
+                segments[i] = segment;
+            }
+
+            VerifiedClaimsIndex index = new VerifiedClaimsIndex(file, segments, 0);
+            if (size < HEADER_SIZE || index.getInt(0) != MAGIC) {
+                throw new IOException(String.format(ERROR_MESSAGE_INVALID_INDEX, file));
+            }
+
+            return new VerifiedClaimsIndex(file, segments, index.getLong(8));
+        }
+    }
+
+    /**
+     * Gets the verified claims of a user
+     * 
+     * @param userId
+     * @return the UTF-8 JSON "{"verified_claims": ...}" object or null, if the user is not in the index
+     */
+    public byte[] get(String userId) {
+        byte[] key = userId.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(key);
+
+        // Finds the first entry with the user ID's hash
+        long low = 0;
+        long high = entryCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+
+            if (getEntryHash(middle) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        // Entries with the same hash are sorted by their position in the source, so the last match wins
+        byte[] found = null;
+        for (long entry = low; entry < entryCount && getEntryHash(entry) == hash; entry++) {
+            long entryPosition = HEADER_SIZE + entry * ENTRY_SIZE;
+            byte[] record = getBytes(getLong(entryPosition + 8), getInt(entryPosition + 16));
+            int keyLength = ByteBuffer.wrap(record).getInt();
+
+            if (keyLength == key.length && Arrays.equals(record, 4, 4 + keyLength, key, 0, key.length)) {
+                found = Arrays.copyOfRange(record, 4 + keyLength, record.length);
+            }
+        }
+
+        return found;
+    }
+
+    public long size() {
+        return entryCount;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Hashes a user ID, using 64-bit FNV-1a
+     * 
+     * @param key
+     * @return
+     */
+    static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (byte b : key) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+
+        return hash;
+    }
+
+    private long getEntryHash(long entry) {
+        return getLong(HEADER_SIZE + entry * ENTRY_SIZE);
+    }
+
+    private int getInt(long position) {
+        ByteBuffer segment = segments[(int) (position / SEGMENT_SIZE)];
+        int offset = (int) (position % SEGMENT_SIZE);
+
+        return offset + Integer.BYTES <= segment.limit() 
+            ? segment.getInt(offset) 
+            : ByteBuffer.wrap(getBytes(position, Integer.BYTES)).getInt();
+    }
+
+    private long getLong(long position) {
+        ByteBuffer segment = segments[(int) (position / SEGMENT_SIZE)];
+        int offset = (int) (position % SEGMENT_SIZE);
+
+        return offset + Long.BYTES <= segment.limit() 
+            ? segment.getLong(offset) 
+            : ByteBuffer.wrap(getBytes(position, Long.BYTES)).getLong();
+    }
+
+    private byte[] getBytes(long position, int length) {
+        byte[] bytes = new byte[length];
+        int copied = 0;
+
+        while (copied < length) {
+        // Values may span two segments
+
+            ByteBuffer segment = segments[(int) ((position + copied) / SEGMENT_SIZE)].duplicate();
+            int offset = (int) ((position + copied) % SEGMENT_SIZE);
+            int chunk = Math.min(length - copied, segment.limit() - offset);
+
+            segment.position(offset);
+            segment.get(bytes, copied, chunk);
+            copied += chunk;
+        }
+
+        return bytes;
+    }
+}
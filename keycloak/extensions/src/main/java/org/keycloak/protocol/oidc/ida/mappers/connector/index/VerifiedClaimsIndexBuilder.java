@@ -0,0 +1,184 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector.index;
+
+import org.jboss.logging.Logger;
+import org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import net.jimblackler.jsonschemafriend.GenerationException;
+import net.jimblackler.jsonschemafriend.ValidationException;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.ENTRY_SIZE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.ERROR_MESSAGE_INVALID_JSON;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.ERROR_MESSAGE_INVALID_RECORD;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.ERROR_MESSAGE_INVALID_SCHEMA;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.ERROR_MESSAGE_MISSING_USER;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.ERROR_MESSAGE_MISSING_USERNAME;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.ERROR_MESSAGE_MISSING_VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.HEADER_SIZE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.MAGIC;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.USERNAME;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.index.VerifiedClaimsIndexConstants.USER_ID;
+
+/**
+ * Compiles an NDJSON dataset into a {@link VerifiedClaimsIndex}. Each line holds a "verified_claims" element and 
+ * identifies its user through a "username", as in the bulk import format. Records are keyed by username only, since 
+ * the mapper looks users up by their usernames, so lines carrying only a "userId" are skipped:
+ * 
+ * <pre>
+ * {"username": "ida_user", "verified_claims": {"verification": {...}, "claims": {...}}}
+ * </pre>
+ * 
+ * Every line is validated against the verified claims' schema while building, and invalid lines are skipped, so 
+ * lookups never need to validate again. If a user appears more than once, the last line wins.
+ */
+public class VerifiedClaimsIndexBuilder {
+    private static final Logger LOG = Logger.getLogger(VerifiedClaimsIndexBuilder.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
+        .enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
+
+    private long[] hashes = new long[1024];
+    private long[] offsets = new long[1024];
+    private int[] lengths = new int[1024];
+    private int count;
+    private int skipped;
+
+    /**
+     * Builds the index of a dataset. The index is written to a temporary file first and then moved to its target, 
+     * so readers never see a partial index
+     * 
+     * @param source
+     * @param target
+     * @return the number of lines skipped because they were invalid
+     * @throws IOException If the dataset could not be read or the index could not be written
+     */
+    public int build(Path source, Path target) throws IOException {
+        Path records = Files.createTempFile(target.getParent(), "records", ".tmp");
+        Path index = Files.createTempFile(target.getParent(), "index", ".tmp");
+
+        try {
+            writeRecords(source, records);
+            writeIndex(records, index);
+            Files.move(index, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            return skipped;
+        } finally {
+            Files.deleteIfExists(records);
+            Files.deleteIfExists(index);
+        }
+    }
+
+    private void writeRecords(Path source, Path records) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8); 
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(records)))) {
+            String line;
+            int lineNumber = 0;
+            long offset = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                String error = null;
+                byte[] key = null;
+                byte[] verifiedClaims = null;
+
+                try {
+                    JsonNode record = MAPPER.readTree(line);
+                    JsonNode username = record.get(USERNAME);
+
+                    if (username == null || !username.isTextual()) {
+                    // Users identified by their IDs could never be looked up
+
+                        error = record.hasNonNull(USER_ID) ? ERROR_MESSAGE_MISSING_USERNAME : ERROR_MESSAGE_MISSING_USER;
+                    } else if (!record.hasNonNull(VERIFIED_CLAIMS)) {
+                        error = ERROR_MESSAGE_MISSING_VERIFIED_CLAIMS;
+                    } else {
+                        ObjectNode wrapped = MAPPER.createObjectNode().set(VERIFIED_CLAIMS, record.get(VERIFIED_CLAIMS));
+                        VerifiedClaimsValidator.validateVerifiedClaims(wrapped);
+
+                        key = username.textValue().getBytes(StandardCharsets.UTF_8);
+                        verifiedClaims = MAPPER.writeValueAsBytes(wrapped);
+                    }
+                } catch (JsonProcessingException e) {
+                    error = ERROR_MESSAGE_INVALID_JSON;
+                } catch (ValidationException | GenerationException e) {
+                    error = ERROR_MESSAGE_INVALID_SCHEMA;
+                }
+
+                if (error != null) {
+                    LOG.warnf(ERROR_MESSAGE_INVALID_RECORD, lineNumber, source, error);
+                    skipped++;
+                    continue;
+                }
+
+                int length = Integer.BYTES + key.length + verifiedClaims.length;
+                out.writeInt(key.length);
+                out.write(key);
+                out.write(verifiedClaims);
+
+                addEntry(VerifiedClaimsIndex.hash(key), offset, length);
+                offset += length;
+            }
+        }
+    }
+
+    private void writeIndex(Path records, Path index) throws IOException {
+        // Sorts the entries by hash, keeping the source's order for equal hashes
+        Integer[] order = new Integer[count];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> hashes[i]).thenComparingLong(i -> offsets[i]));
+
+        long recordsOffset = HEADER_SIZE + (long) count * ENTRY_SIZE;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(index)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(0);
+            out.writeLong(count);
+            out.writeLong(recordsOffset);
+
+            for (int i : order) {
+                out.writeLong(hashes[i]);
+                out.writeLong(recordsOffset + offsets[i]);
+                out.writeInt(lengths[i]);
+            }
+
+            try (InputStream in = Files.newInputStream(records)) {
+                in.transferTo(out);
+            }
+        }
+    }
+
+    private void addEntry(long hash, long offset, int length) {
+        if (count == hashes.length) {
+            hashes = Arrays.copyOf(hashes, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+            lengths = Arrays.copyOf(lengths, count * 2);
+        }
+
+        hashes[count] = hash;
+        offsets[count] = offset;
+        lengths[count] = length;
+        count++;
+    }
+}
@@ -0,0 +1,25 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector.index;
+
+public class VerifiedClaimsIndexConstants {
+    // File layout
+    public static final int MAGIC = 0x49444131; // "IDA1"
+    public static final int HEADER_SIZE = 24;
+    public static final int ENTRY_SIZE = 20;
+    public static final long SEGMENT_SIZE = 1L << 30;
+    public static final String INDEX_FILE_EXTENSION = ".idx";
+
+    // JSON keys
+    public static final String USER_ID = "userId";
+    public static final String USERNAME = "username";
+
+    // Error messages
+    public static final String ERROR_MESSAGE_INVALID_INDEX = "The file '%s' is not a verified claims index.";
+    public static final String ERROR_MESSAGE_INVALID_RECORD = "Line %d of '%s' was skipped: %s";
+    public static final String ERROR_MESSAGE_MISSING_USER = "it has no \"username\".";
+    public static final String ERROR_MESSAGE_MISSING_USERNAME = "it identifies its user through a \"userId\", but datasets are looked up by \"username\".";
+    public static final String ERROR_MESSAGE_MISSING_VERIFIED_CLAIMS = "it has no \"verified_claims\".";
+    public static final String ERROR_MESSAGE_INVALID_JSON = "it is not a valid JSON object.";
+    public static final String ERROR_MESSAGE_INVALID_SCHEMA = "its \"verified_claims\" could not be validated using the JSON schema.";
+    public static final String ERROR_MESSAGE_LOAD_FAILED = "Could not build the verified claims index of '%s', it is unavailable until the next attempt.";
+    public static final String ERROR_MESSAGE_RELOAD_FAILED = "Could not build the verified claims index of '%s', the previous one is kept.";
+}
@@ -0,0 +1,164 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector.jdbc;
+
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.keycloak.protocol.oidc.ida.mappers.connector.jdbc.JdbcConstants.ERROR_MESSAGE_POOL_EXHAUSTED;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.jdbc.JdbcConstants.VALIDATION_TIMEOUT_SECONDS;
+
+/**
+ * Small, bounded pool of JDBC connections. Connections are opened on demand, up to the pool's size, and kept open 
+ * along with the statements prepared on them, so repeated queries are neither reconnected nor reparsed. Connections 
+ * are only validated when borrowed after being idle for a while, since those are the ones the database or the 
+ * network may have dropped. Connections that failed while borrowed are closed instead of being validated
+ */
+public class JdbcConnectionPool implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(JdbcConnectionPool.class);
+
+    private final String url;
+    private final Properties properties;
+    private final long acquireTimeoutMillis;
+    private final long validationIdleNanos;
+    private final Semaphore permits;
+    private final BlockingQueue<PooledConnection> idle = new LinkedBlockingQueue<>();
+    private volatile boolean closed;
+
+    /**
+     * @param url                  JDBC URL of the database
+     * @param properties           Driver properties, such as the user and password
+     * @param size                 Maximum number of open connections
+     * @param acquireTimeoutMillis How long to wait for a free connection
+     * @param validationIdleMillis How long a connection may stay idle before it is validated when borrowed
+     */
+    public JdbcConnectionPool(String url, Properties properties, int size, long acquireTimeoutMillis, 
+            long validationIdleMillis) {
+        this.url = url;
+        this.properties = properties;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.validationIdleNanos = TimeUnit.MILLISECONDS.toNanos(validationIdleMillis);
+        this.permits = new Semaphore(size, true);
+    }
+
+    /**
+     * Borrows a connection, which must be released once used
+     * 
+     * @return
+     * @throws SQLException If no connection could be opened or none was freed in time
+     */
+    public PooledConnection acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException(ERROR_MESSAGE_POOL_EXHAUSTED);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTimeoutException(ERROR_MESSAGE_POOL_EXHAUSTED, e);
+        }
+
+        try {
+            PooledConnection connection;
+            while ((connection = idle.poll()) != null) {
+                if (System.nanoTime() - connection.releasedAt < validationIdleNanos || connection.isValid()) {
+                // Connections used recently are not validated again
+
+                    return connection;
+                }
+
+                // Connections dropped by the database are discarded
+                connection.closeQuietly();
+            }
+
+            return new PooledConnection(DriverManager.getConnection(url, properties));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives a borrowed connection back to the pool
+     * 
+     * @param connection
+     * @param broken     Whether the connection failed while borrowed, so it is closed instead of reused
+     */
+    public void release(PooledConnection connection, boolean broken) {
+        if (broken || closed) {
+            connection.closeQuietly();
+        } else {
+            connection.releasedAt = System.nanoTime();
+            idle.offer(connection);
+        }
+
+        permits.release();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+
+        PooledConnection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.closeQuietly();
+        }
+    }
+
+    /**
+     * Connection borrowed from the pool, caching the statements prepared on it
+     */
+    public static class PooledConnection {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+        private long releasedAt;
+
+        private PooledConnection(Connection connection) throws SQLException {
+            this.connection = connection;
+            this.connection.setReadOnly(true);
+        }
+
+        /**
+         * Gets a prepared statement, preparing it on first use
+         * 
+         * @param sql
+         * @return
+         * @throws SQLException
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+
+            if (statement == null || statement.isClosed()) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+
+            return statement;
+        }
+
+        private boolean isValid() {
+            try {
+                return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOG.debug(e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector.jdbc;
+
+public class JdbcConstants {
+    // Configs and properties
+    public static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    // Error messages
+    public static final String ERROR_MESSAGE_POOL_EXHAUSTED = "No connection to the IDA's external database was freed in time.";
+}
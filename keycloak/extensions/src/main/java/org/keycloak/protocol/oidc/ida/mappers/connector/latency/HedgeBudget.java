@@ -0,0 +1,41 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector.latency;
+
+import static org.keycloak.protocol.oidc.ida.mappers.connector.latency.LatencyConstants.HEDGE_BUDGET_MAX_TOKENS;
+
+/**
+ * Caps the share of requests to an external store that may be hedged. Each request earns a fraction of a token, 
+ * and each hedge spends a whole one, so a slow store can never receive more than its share of extra requests.
+ */
+public class HedgeBudget {
+    private final double tokensPerRequest;
+    private double tokens;
+
+    /**
+     * @param maxRatePercent Maximum share of requests that may be hedged, in percent
+     */
+    public HedgeBudget(int maxRatePercent) {
+        this.tokensPerRequest = maxRatePercent / 100d;
+    }
+
+    /**
+     * Earns the share of a hedge granted to each request
+     */
+    public synchronized void onRequest() {
+        tokens = Math.min(HEDGE_BUDGET_MAX_TOKENS, tokens + tokensPerRequest);
+    }
+
+    /**
+     * Spends a token to hedge a request
+     * 
+     * @return true if the request may be hedged
+     */
+    public synchronized boolean tryHedge() {
+        if (tokens < 1) {
+            return false;
+        }
+
+        tokens--;
+
+        return true;
+    }
+}
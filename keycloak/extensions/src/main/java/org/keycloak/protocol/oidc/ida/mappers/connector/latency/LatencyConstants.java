@@ -0,0 +1,14 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector.latency;
+
+public class LatencyConstants {
+    // Histogram
+    public static final long MAX_LATENCY_MILLIS = 600000;
+    public static final double BUCKET_GROWTH = 1.1;
+    public static final long WINDOW_MILLIS = 60000;
+    public static final long MIN_SAMPLES = 100;
+
+    // Adaptive timeouts and hedging
+    public static final double TIMEOUT_PERCENTILE = 0.99;
+    public static final double HEDGE_PERCENTILE = 0.95;
+    public static final int HEDGE_BUDGET_MAX_TOKENS = 10;
+}
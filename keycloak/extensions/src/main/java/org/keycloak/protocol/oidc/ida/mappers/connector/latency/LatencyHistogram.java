@@ -0,0 +1,125 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector.latency;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.keycloak.protocol.oidc.ida.mappers.connector.latency.LatencyConstants.BUCKET_GROWTH;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.latency.LatencyConstants.MAX_LATENCY_MILLIS;
+
+/**
+ * Histogram of the latencies observed for an external store, over a sliding window. Buckets grow exponentially, so 
+ * percentiles are known within 10% whatever the latency, and recording never allocates. Samples are kept for the 
+ * current and the previous window, so percentiles follow the store when its latency changes.
+ */
+public class LatencyHistogram {
+    // Upper bound of each bucket, in milliseconds
+    private static final long[] BOUNDS = computeBounds();
+
+    private final long windowMillis;
+    private volatile Window current;
+    private volatile Window previous;
+
+    /**
+     * @param windowMillis How long samples are kept, at least
+     */
+    public LatencyHistogram(long windowMillis) {
+        this.windowMillis = windowMillis;
+        this.current = new Window(System.currentTimeMillis());
+        this.previous = new Window(current.startedAt - windowMillis);
+    }
+
+    /**
+     * Records a latency
+     * 
+     * @param millis
+     */
+    public void record(long millis) {
+        int bucket = Arrays.binarySearch(BOUNDS, Math.max(millis, 0));
+        if (bucket < 0) {
+            bucket = Math.min(-bucket - 1, BOUNDS.length - 1);
+        }
+
+        getCurrentWindow().record(bucket);
+    }
+
+    /**
+     * Gets a percentile of the recorded latencies
+     * 
+     * @param percentile Between 0 and 1
+     * @param minSamples Number of samples needed for the percentile to be meaningful
+     * @return the latency in milliseconds, rounded up to its bucket's bound, or -1 if there are not enough samples
+     */
+    public long getPercentile(double percentile, long minSamples) {
+        Window current = getCurrentWindow();
+        Window previous = this.previous;
+        long total = current.total.get() + previous.total.get();
+
+        if (total == 0 || total < minSamples) {
+            return -1;
+        }
+
+        long target = (long) Math.ceil(percentile * total);
+        long count = 0;
+
+        for (int bucket = 0; bucket < BOUNDS.length; bucket++) {
+            count += current.counts.get(bucket) + previous.counts.get(bucket);
+
+            if (count >= target) {
+                return BOUNDS[bucket];
+            }
+        }
+
+        return BOUNDS[BOUNDS.length - 1];
+    }
+
+    private Window getCurrentWindow() {
+        Window window = current;
+        long now = System.currentTimeMillis();
+
+        if (now - window.startedAt < windowMillis) {
+            return window;
+        }
+
+        synchronized (this) {
+            if (now - current.startedAt >= windowMillis) {
+            // Samples older than two windows are dropped
+
+                previous = now - current.startedAt < 2 * windowMillis ? current : new Window(now - windowMillis);
+                current = new Window(now);
+            }
+
+            return current;
+        }
+    }
+
+    private static long[] computeBounds() {
+        List<Long> bounds = new ArrayList<>();
+        long bound = 1;
+
+        while (bound < MAX_LATENCY_MILLIS) {
+            bounds.add(bound);
+            bound = Math.max(bound + 1, (long) Math.ceil(bound * BUCKET_GROWTH));
+        }
+        bounds.add(MAX_LATENCY_MILLIS);
+
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static class Window {
+        private final long startedAt;
+        private final AtomicLongArray counts = new AtomicLongArray(BOUNDS.length);
+        private final AtomicLong total = new AtomicLong();
+
+        private Window(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        private void record(int bucket) {
+            counts.incrementAndGet(bucket);
+            total.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector.latency;
+
+import static org.keycloak.protocol.oidc.ida.mappers.connector.latency.LatencyConstants.HEDGE_PERCENTILE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.latency.LatencyConstants.MIN_SAMPLES;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.latency.LatencyConstants.TIMEOUT_PERCENTILE;
+
+/**
+ * Derives the timeout and the hedging delay of requests to an external store from the latencies it has shown. The 
+ * mapper's timeout is always the upper bound, and is used as is until enough latencies have been observed.
+ */
+public class LatencyPolicy {
+    private final boolean adaptiveTimeout;
+    private final double timeoutMultiplier;
+    private final long minTimeoutMillis;
+    private final boolean hedging;
+
+    /**
+     * @param adaptiveTimeout   Whether timeouts follow the store's latency
+     * @param timeoutMultiplier Timeouts are set to the store's p99 latency, times this multiplier
+     * @param minTimeoutMillis  Timeouts are never shorter than this
+     * @param hedging           Whether a second request is sent when the first is slower than the store's p95
+     */
+    public LatencyPolicy(boolean adaptiveTimeout, double timeoutMultiplier, long minTimeoutMillis, boolean hedging) {
+        this.adaptiveTimeout = adaptiveTimeout;
+        this.timeoutMultiplier = timeoutMultiplier;
+        this.minTimeoutMillis = minTimeoutMillis;
+        this.hedging = hedging;
+    }
+
+    /**
+     * Gets the timeout of a request to the store
+     * 
+     * @param latency                 The store's latencies
+     * @param configuredTimeoutMillis The mapper's timeout
+     * @return
+     */
+    public long getTimeoutMillis(LatencyHistogram latency, long configuredTimeoutMillis) {
+        if (!adaptiveTimeout) {
+            return configuredTimeoutMillis;
+        }
+
+        long p99 = latency.getPercentile(TIMEOUT_PERCENTILE, MIN_SAMPLES);
+        if (p99 < 0) {
+        // If the store has not been called enough yet
+
+            return configuredTimeoutMillis;
+        }
+
+        return Math.min(configuredTimeoutMillis, Math.max(minTimeoutMillis, (long) (p99 * timeoutMultiplier)));
+    }
+
+    /**
+     * Gets how long to wait for a request before hedging it
+     * 
+     * @param latency The store's latencies
+     * @return the delay in milliseconds, or -1 if the request must not be hedged
+     */
+    public long getHedgeDelayMillis(LatencyHistogram latency) {
+        return hedging ? latency.getPercentile(HEDGE_PERCENTILE, MIN_SAMPLES) : -1;
+    }
+}
@@ -1,13 +1,17 @@
 package org.keycloak.protocol.oidc.ida.mappers.connector.spi;
 
 import org.keycloak.protocol.ProtocolMapperConfigException;
+import org.keycloak.protocol.oidc.ida.mappers.IdaMapperConfig;
 import org.keycloak.provider.Provider;
 import org.keycloak.provider.ProviderConfigProperty;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Connector that retrieves verified claims for a user from an external source
@@ -15,6 +19,9 @@ import java.util.Map;
 public interface IdaConnector extends Provider {
     String IDA_EXTERNAL_STORE_NAME = "ida.external.store";
     String IDA_EXTERNAL_STORE_LABEL = "IDA external source's URL";
+    String IDA_EXTERNAL_STORE_TIMEOUT_NAME = "ida.external.store.timeout";
+    String IDA_EXTERNAL_STORE_TIMEOUT_LABEL = "IDA external source's timeout";
+    String IDA_EXTERNAL_STORE_TIMEOUT_DEFAULT = "5000";
 
     /**
      * Add external store information to Protocolmapper
@@ -39,4 +46,139 @@ public interface IdaConnector extends Provider {
      * @return verified claims retrieved from an external store or null, if no verified claims could be retrieved
      */
     JsonNode getVerifiedClaims(Map<String, String> protocolMapperConfig, String userId);
+
+    /**
+     * Get the verified claims of many users from an external store at once. Connectors that do not support batch 
+     * retrieval are adapted by retrieving each user's verified claims in turn
+     *
+     * @param protocolMapperConfig Information set for Protocolmapper
+     * @param userIds              Target User IDs
+     * @return the verified claims retrieved from an external store, indexed by user ID. Users without verified 
+     *         claims are left out
+     */
+    default Map<String, JsonNode> getVerifiedClaimsBatch(Map<String, String> protocolMapperConfig, 
+            Collection<String> userIds) {
+        Map<String, JsonNode> verifiedClaims = new HashMap<>();
+
+        for (String userId : userIds) {
+            JsonNode userVerifiedClaims = getVerifiedClaims(protocolMapperConfig, userId);
+
+            if (userVerifiedClaims != null) {
+                verifiedClaims.put(userId, userVerifiedClaims);
+            }
+        }
+
+        return verifiedClaims;
+    }
+
+    /**
+     * Get the verified claims of a specified user from an external store, without blocking the calling thread.
+     * Connectors that do not support asynchronous retrieval are adapted by running the blocking call
+     *
+     * @param protocolMapperConfig Information set for Protocolmapper
+     * @param userId               Target User ID
+     * @return a future holding the verified claims retrieved from an external store or null, if no verified claims 
+     *         could be retrieved
+     */
+    default CompletableFuture<JsonNode> getVerifiedClaimsAsync(Map<String, String> protocolMapperConfig, String userId) {
+        try {
+            return CompletableFuture.completedFuture(getVerifiedClaims(protocolMapperConfig, userId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Get the verified claims of a specified user from an external store for a request, without blocking the calling 
+     * thread, using the mapper's compiled configuration so nothing is parsed on each token. The verified claims 
+     * requested by the client are given, so connectors can ask the store for them only. Connectors that neither read 
+     * the compiled settings nor narrow down the store's answer are given the mapper's configuration, and retrieve the 
+     * user's complete verified claims, since the requested claims are extracted from them anyway
+     *
+     * @param config                  The compiled configuration of the protocol mapper
+     * @param userId                  Target User ID
+     * @param requestedVerifiedClaims The "verified_claims" requested by the client, already validated
+     * @return a future holding the verified claims retrieved from an external store or null, if no verified claims 
+     *         could be retrieved
+     */
+    default CompletableFuture<JsonNode> getVerifiedClaimsAsync(IdaMapperConfig config, String userId, 
+            JsonNode requestedVerifiedClaims) {
+        return getVerifiedClaimsAsync(config.getConnectorConfig(), userId);
+    }
+
+    /**
+     * Get the verified claims of a specified user cached by the connector, without calling the external store
+     *
+     * @param protocolMapperConfig Information set for Protocolmapper
+     * @param userId               Target User ID
+     * @param allowStale           Whether expired verified claims can be returned
+     * @return the cached verified claims or null, if the connector has no cache or no entry for the user
+     */
+    default JsonNode getCachedVerifiedClaims(Map<String, String> protocolMapperConfig, String userId, 
+            boolean allowStale) {
+        return null;
+    }
+
+    /**
+     * Get the verified claims of a specified user cached by the connector for a request, without calling the 
+     * external store, using the mapper's compiled configuration. Connectors that do not read the compiled settings 
+     * are given the mapper's configuration
+     *
+     * @param config                  The compiled configuration of the protocol mapper
+     * @param userId                  Target User ID
+     * @param requestedVerifiedClaims The "verified_claims" requested by the client, already validated
+     * @param allowStale              Whether expired verified claims can be returned
+     * @return the cached verified claims or null, if the connector has no cache or no entry for the user
+     */
+    default JsonNode getCachedVerifiedClaims(IdaMapperConfig config, String userId, JsonNode requestedVerifiedClaims, 
+            boolean allowStale) {
+        return getCachedVerifiedClaims(config.getConnectorConfig(), userId, allowStale);
+    }
+
+    /**
+     * Get the changes made to users' verified claims in an external store since a watermark, so they can be 
+     * replicated into Keycloak's database. Without a watermark, the store's complete data set is returned, page by 
+     * page. Connectors whose store cannot list its changes do not support replication
+     *
+     * @param protocolMapperConfig Information set for Protocolmapper
+     * @param since                The watermark of the last page replicated, or null to start from a full snapshot
+     * @param limit                Maximum number of changes in the page
+     * @return the next page of changes or null, if the connector does not support replication
+     * @throws java.io.UncheckedIOException If the changes could not be retrieved
+     */
+    default VerifiedClaimsChanges getVerifiedClaimsChanges(Map<String, String> protocolMapperConfig, String since, 
+            int limit) {
+        return null;
+    }
+
+    /**
+     * Prepare the connector to serve a protocol mapper, e.g. by opening connections to its external store, so the 
+     * first token requests do not pay for it
+     *
+     * @param protocolMapperConfig Information set for Protocolmapper
+     * @return a future completed once the connector is ready, which never completes exceptionally
+     */
+    default CompletableFuture<Void> warmUp(Map<String, String> protocolMapperConfig) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Discard any verified claims cached for a specified user, so they are retrieved again on next use
+     *
+     * @param userId Target User ID
+     */
+    default void invalidateVerifiedClaims(String userId) {
+        // NOOP, connectors without a cache have nothing to invalidate
+    }
+
+    /**
+     * Replace the verified claims cached for a specified user, as retrieved from a given external store
+     *
+     * @param externalStore  The external store the verified claims belong to
+     * @param userId         Target User ID
+     * @param verifiedClaims The user's new verified claims, already validated
+     */
+    default void replaceVerifiedClaims(String externalStore, String userId, JsonNode verifiedClaims) {
+        invalidateVerifiedClaims(userId);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector.spi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A page of the changes made to users' verified claims in an external store, in the order they were made
+ */
+public class VerifiedClaimsChanges {
+    // Users' new verified claims, indexed by user ID. A null value means the user's verified claims were removed
+    private final Map<String, JsonNode> changes;
+    private final String watermark;
+    private final boolean hasMore;
+
+    /**
+     * @param changes
+     * @param watermark The point the next page starts from, as understood by the store
+     * @param hasMore   Whether the store has more changes to send right away
+     */
+    public VerifiedClaimsChanges(Map<String, JsonNode> changes, String watermark, boolean hasMore) {
+        this.changes = Collections.unmodifiableMap(changes);
+        this.watermark = watermark;
+        this.hasMore = hasMore;
+    }
+
+    public Map<String, JsonNode> getChanges() {
+        return changes;
+    }
+
+    public String getWatermark() {
+        return watermark;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
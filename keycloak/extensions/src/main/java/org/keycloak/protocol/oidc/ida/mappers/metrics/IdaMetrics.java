@@ -0,0 +1,90 @@
+package org.keycloak.protocol.oidc.ida.mappers.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing how the OIDC4IDA extension behaves in each realm, and gauges describing the node. They are shared by every provider of the 
+ * extension and live in memory only, so each cluster node reports its own counts since it started.
+ */
+public class IdaMetrics {
+    private static final IdaMetrics INSTANCE = new IdaMetrics();
+
+    private final Map<String, Map<String, LongAdder>> counters = new ConcurrentHashMap<>();
+    private final Map<String, Long> gauges = new ConcurrentHashMap<>();
+
+    private IdaMetrics() {
+    }
+
+    public static IdaMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Increments a realm's counter
+     * 
+     * @param realmId
+     * @param counter
+     */
+    public void increment(String realmId, String counter) {
+        add(realmId, counter, 1);
+    }
+
+    /**
+     * Adds an amount to a realm's counter
+     * 
+     * @param realmId
+     * @param counter
+     * @param amount
+     */
+    public void add(String realmId, String counter, long amount) {
+        counters.computeIfAbsent(realmId, key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(counter, key -> new LongAdder())
+            .add(amount);
+    }
+
+    /**
+     * Gets the current value of every counter of a realm
+     * 
+     * @param realmId
+     * @return the counters, sorted by name
+     */
+    public Map<String, Long> getCounters(String realmId) {
+        Map<String, LongAdder> realmCounters = counters.getOrDefault(realmId, Collections.emptyMap());
+        Map<String, Long> values = new TreeMap<>();
+        realmCounters.forEach((counter, value) -> values.put(counter, value.sum()));
+
+        return values;
+    }
+
+    /**
+     * Sets a value that describes the whole node, rather than a realm
+     * 
+     * @param gauge
+     * @param value
+     */
+    public void setGauge(String gauge, long value) {
+        gauges.put(gauge, value);
+    }
+
+    /**
+     * Gets the current value of every gauge
+     * 
+     * @return the gauges, sorted by name
+     */
+    public Map<String, Long> getGauges() {
+        return new TreeMap<>(gauges);
+    }
+
+    /**
+     * Discards every counter of a realm
+     * 
+     * @param realmId
+     */
+    public void remove(String realmId) {
+        counters.remove(realmId);
+    }
+}
@@ -0,0 +1,28 @@
+package org.keycloak.protocol.oidc.ida.mappers.metrics;
+
+public class IdaMetricsConstants {
+    // Admission control
+    public static final String ADMISSION_ADMITTED = "admission.admitted";
+    public static final String ADMISSION_REJECTED_CLIENT_RATE = "admission.rejected.client.rate";
+    public static final String ADMISSION_REJECTED_CLIENT_CONCURRENCY = "admission.rejected.client.concurrency";
+    public static final String ADMISSION_REJECTED_REALM_RATE = "admission.rejected.realm.rate";
+    public static final String ADMISSION_REJECTED_REALM_CONCURRENCY = "admission.rejected.realm.concurrency";
+    public static final String ADMISSION_SERVED_STALE = "admission.served.stale";
+
+    // External stores
+    public static final String STORE_REQUESTS = "store.requests";
+    public static final String STORE_TIMEOUTS = "store.timeouts";
+    public static final String STORE_HEDGED = "store.hedged";
+    public static final String STORE_HEDGE_WON = "store.hedge.won";
+    public static final String STORE_HEDGE_SKIPPED = "store.hedge.skipped";
+
+    // Replication
+    public static final String REPLICATION_UPDATED = "replication.updated";
+    public static final String REPLICATION_REMOVED = "replication.removed";
+    public static final String REPLICATION_INVALID = "replication.invalid";
+    public static final String REPLICATION_USER_NOT_FOUND = "replication.user.not.found";
+    public static final String REPLICATION_FAILED = "replication.failed";
+
+    // Warm-up
+    public static final String WARM_UP_DURATION = "warmup.duration.ms";
+}
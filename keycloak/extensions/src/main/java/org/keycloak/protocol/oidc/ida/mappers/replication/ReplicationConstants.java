@@ -0,0 +1,34 @@
+package org.keycloak.protocol.oidc.ida.mappers.replication;
+
+public class ReplicationConstants {
+    // Configs and properties
+    public static final String IDA_REPLICATION_NAME = "ida.replication";
+    public static final String IDA_REPLICATION_LABEL = "IDA external source's replication";
+    public static final String IDA_REPLICATION_HELP_TEXT = "Replicate the external source's verified claims into the users' attributes in the background, and read them from there once a first full copy has been made (only if local source is disabled). The external source remains the system of record, and must list its changes";
+    public static final String IDA_REPLICATION_DEFAULT = "false";
+
+    public static final String REPLICATION_INTERVAL_CONFIG = "replicationInterval";
+    public static final int REPLICATION_INTERVAL_DEFAULT = 300;
+    public static final String REPLICATION_BATCH_SIZE_CONFIG = "replicationBatchSize";
+    public static final int REPLICATION_BATCH_SIZE_DEFAULT = 500;
+    public static final String REPLICATION_TASK_NAME = "ida-replication";
+    public static final String WATERMARK_ATTRIBUTE_PREFIX = "ida.replication.watermark.";
+    public static final String COMPLETED_ATTRIBUTE_SUFFIX = ".completed";
+    public static final String SNAPSHOT_ATTRIBUTE_SUFFIX = ".snapshot";
+    public static final String CLAIMS_ATTRIBUTE_PREFIX = "ida.replication.claims.";
+    public static final String WATERMARK_DIGEST_ALGORITHM = "SHA-256";
+
+    // Queries
+    public static final String QUERY_REALM_ATTRIBUTE = "select attr.value from RealmAttributeEntity attr "
+        + "where attr.realm.id = :realmId and attr.name = :name";
+    public static final String QUERY_USER_IDS_NOT_IN_SNAPSHOT = "select attr.user.id from UserAttributeEntity attr "
+        + "where attr.name = :name and attr.user.realmId = :realmId and not exists (select marker.id from UserAttributeEntity marker "
+        + "where marker.user = attr.user and marker.name = :markerName and marker.value = :snapshot)";
+    public static final String QUERY_DELETE_SNAPSHOT_MARKERS = "delete from UserAttributeEntity attr where attr.name = :markerName "
+        + "and attr.user.id in (select u.id from UserEntity u where u.realmId = :realmId)";
+
+    // Error messages
+    public static final String ERROR_MESSAGE_REPLICATION_NOT_SUPPORTED = "The IDA connector '%s' cannot list the changes of its external source, so verified claims are not replicated from it.";
+    public static final String ERROR_MESSAGE_REPLICATION_FAILED = "The verified claims replication of realm '%s' from '%s' has failed, it will resume from the last replicated batch.";
+    public static final String ERROR_MESSAGE_REPLICATED_CLAIMS_INVALID = "The verified claims of user '%s' listed by '%s' are invalid, and have not been replicated.";
+}
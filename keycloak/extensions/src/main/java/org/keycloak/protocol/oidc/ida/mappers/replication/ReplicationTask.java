@@ -0,0 +1,107 @@
+package org.keycloak.protocol.oidc.ida.mappers.replication;
+
+import org.jboss.logging.Logger;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.ProtocolMapperContainerModel;
+import org.keycloak.models.utils.KeycloakModelUtils;
+import org.keycloak.protocol.oidc.ida.mappers.IdaMapperConfig;
+import org.keycloak.protocol.oidc.ida.mappers.IdaProtocolMapper;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnector;
+import org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetrics;
+import org.keycloak.timer.ScheduledTask;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.REPLICATION_FAILED;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.ERROR_MESSAGE_REPLICATION_FAILED;
+
+/**
+ * Scheduled task that replicates every external store used by a replicated mapper into the realms using it. The 
+ * task runs on Keycloak's timer, within the cluster lock taken by ClusterAwareScheduledTaskRunner, so runs never 
+ * overlap, even across the cluster. The lock expires after the interval, so a run stops pulling batches once half of 
+ * it has passed, and the next run resumes from the last watermark.
+ */
+public class ReplicationTask implements ScheduledTask {
+    private static final Logger LOG = Logger.getLogger(ReplicationTask.class);
+
+    private final KeycloakSessionFactory sessionFactory;
+    private final VerifiedClaimsReplicator replicator;
+    private final long intervalMillis;
+
+    public ReplicationTask(KeycloakSessionFactory sessionFactory, int batchSize, long intervalMillis) {
+        this.sessionFactory = sessionFactory;
+        this.replicator = new VerifiedClaimsReplicator(sessionFactory, batchSize);
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public void run(KeycloakSession session) {
+        // Replicates synchronously, since the cluster lock is released as soon as this method returns
+        replicateAll();
+    }
+
+    /**
+     * Replicates every store used by a replicated mapper, realm by realm
+     */
+    private void replicateAll() {
+        // The last batch pulled must be written before the cluster lock expires
+        long deadline = System.currentTimeMillis() + intervalMillis / 2;
+
+        for (Map.Entry<String, Map<String, IdaMapperConfig>> realmStores : getReplicatedStores().entrySet()) {
+            for (IdaMapperConfig config : realmStores.getValue().values()) {
+                try {
+                    replicator.replicate(realmStores.getKey(), config, deadline);
+                } catch (RuntimeException e) {
+                // The failed batch has been rolled back, along with its watermark
+
+                    LOG.warnf(e, ERROR_MESSAGE_REPLICATION_FAILED, realmStores.getKey(), 
+                        config.getConnectorConfig().get(IdaConnector.IDA_EXTERNAL_STORE_NAME));
+                    IdaMetrics.getInstance().increment(realmStores.getKey(), REPLICATION_FAILED);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the stores used by each realm's replicated mappers. Mappers sharing a store replicate it once
+     * 
+     * @return the configurations of a mapper using each store, indexed by realm ID and by the store's watermark 
+     *         attribute
+     */
+    private Map<String, Map<String, IdaMapperConfig>> getReplicatedStores() {
+        return KeycloakModelUtils.runJobInTransactionWithResult(sessionFactory, session -> {
+            Map<String, Map<String, IdaMapperConfig>> stores = new HashMap<>();
+
+            session.realms().getRealmsStream().forEach(realm -> {
+                Map<String, IdaMapperConfig> realmStores = Stream.concat(
+                        realm.getClientsStream().flatMap(ProtocolMapperContainerModel::getProtocolMappersStream), 
+                        realm.getClientScopesStream().flatMap(ProtocolMapperContainerModel::getProtocolMappersStream))
+                    .filter(mapperModel -> IdaProtocolMapper.PROVIDER_ID.equals(mapperModel.getProtocolMapper()))
+                    .map(IdaMapperConfig::compile)
+                    .filter(config -> !config.isLocalSource() && config.isReplicated())
+                    .collect(Collectors.toMap(
+                        IdaMapperConfig::getReplicationWatermarkAttribute, 
+                        Function.identity(), 
+                        (first, second) -> first));
+
+                if (!realmStores.isEmpty()) {
+                    stores.put(realm.getId(), realmStores);
+                }
+            });
+
+            return stores;
+        });
+    }
+
+    /**
+     * Stops the running replication, if any, once its current batch is done
+     */
+    public void close() {
+        replicator.close();
+    }
+}
@@ -0,0 +1,347 @@
+package org.keycloak.protocol.oidc.ida.mappers.replication;
+
+import org.jboss.logging.Logger;
+import org.keycloak.connections.jpa.JpaConnectionProvider;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.UserModel;
+import org.keycloak.models.jpa.entities.RealmEntity;
+import org.keycloak.models.utils.KeycloakModelUtils;
+import org.keycloak.protocol.oidc.ida.mappers.IdaMapperConfig;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnector;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.VerifiedClaimsChanges;
+import org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetrics;
+import org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import net.jimblackler.jsonschemafriend.GenerationException;
+import net.jimblackler.jsonschemafriend.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.REPLICATION_INVALID;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.REPLICATION_REMOVED;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.REPLICATION_UPDATED;
+import static org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetricsConstants.REPLICATION_USER_NOT_FOUND;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.CLAIMS_ATTRIBUTE_PREFIX;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.COMPLETED_ATTRIBUTE_SUFFIX;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.ERROR_MESSAGE_REPLICATED_CLAIMS_INVALID;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.ERROR_MESSAGE_REPLICATION_NOT_SUPPORTED;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.QUERY_DELETE_SNAPSHOT_MARKERS;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.QUERY_REALM_ATTRIBUTE;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.QUERY_USER_IDS_NOT_IN_SNAPSHOT;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.SNAPSHOT_ATTRIBUTE_SUFFIX;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.WATERMARK_ATTRIBUTE_PREFIX;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.WATERMARK_DIGEST_ALGORITHM;
+
+/**
+ * Replicates the verified claims of an external store into an attribute of a realm's users, named after the store, so 
+ * stores replicated into the same realm never overwrite each other, nor the users' own "verified_claims". The store's 
+ * changes are pulled in batches, starting from a full snapshot, then from the watermark of the last batch 
+ * replicated. Each batch is validated before being written, and is written in a single transaction along with its 
+ * watermark, kept as a realm attribute, so a failed batch is pulled again on the next run. Users written during a 
+ * snapshot are marked with the snapshot's ID, and once the store has sent its whole snapshot, the claims of the users 
+ * it did not list are removed, and the time is recorded in another realm attribute.
+ */
+public class VerifiedClaimsReplicator {
+    private static final Logger LOG = Logger.getLogger(VerifiedClaimsReplicator.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final KeycloakSessionFactory sessionFactory;
+    private final int batchSize;
+    private volatile boolean closed;
+
+    public VerifiedClaimsReplicator(KeycloakSessionFactory sessionFactory, int batchSize) {
+        this.sessionFactory = sessionFactory;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets the realm attribute holding the watermark of a store, which is only set once a first batch of the store 
+     * has been replicated
+     * 
+     * @param connectorId
+     * @param externalStore The store's URL
+     * @return
+     */
+    public static String getWatermarkAttribute(String connectorId, String externalStore) {
+        try {
+            // Store URLs may be longer than the attribute names allowed by the database
+            byte[] digest = MessageDigest.getInstance(WATERMARK_DIGEST_ALGORITHM)
+                .digest((connectorId + " " + externalStore).getBytes(StandardCharsets.UTF_8));
+
+            return WATERMARK_ATTRIBUTE_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+        // This shouldn't happen, every Java platform supports SHA-256
+
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the realm attribute recording when a store's first full snapshot was replicated
+     * 
+     * @param watermarkAttribute The store's watermark attribute
+     * @return
+     */
+    public static String getCompletedAttribute(String watermarkAttribute) {
+        return watermarkAttribute + COMPLETED_ATTRIBUTE_SUFFIX;
+    }
+
+    /**
+     * Gets the user attribute holding the verified claims replicated from a store
+     * 
+     * @param watermarkAttribute The store's watermark attribute
+     * @return
+     */
+    public static String getClaimsAttribute(String watermarkAttribute) {
+        return CLAIMS_ATTRIBUTE_PREFIX + watermarkAttribute.substring(WATERMARK_ATTRIBUTE_PREFIX.length());
+    }
+
+    /**
+     * Replicates a store's changes into a realm until the store has no more changes to send, or a deadline passes
+     * 
+     * @param realmId
+     * @param config   The configuration of a mapper using the store
+     * @param deadline The time after which no other batch is pulled, in milliseconds since the epoch
+     */
+    public void replicate(String realmId, IdaMapperConfig config, long deadline) {
+        while (System.currentTimeMillis() < deadline && !closed) {
+            if (!replicateBatch(realmId, config)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Pulls, validates and writes a single batch of changes
+     * 
+     * @param realmId
+     * @param config
+     * @return whether the store has more changes to send right away
+     */
+    private boolean replicateBatch(String realmId, IdaMapperConfig config) {
+        String watermarkAttribute = config.getReplicationWatermarkAttribute();
+        String claimsAttribute = config.getReplicationClaimsAttribute();
+        String externalStore = config.getConnectorConfig().get(IdaConnector.IDA_EXTERNAL_STORE_NAME);
+
+        VerifiedClaimsChanges changes = KeycloakModelUtils.runJobInTransactionWithResult(sessionFactory, session -> {
+            RealmModel realm = session.realms().getRealm(realmId);
+            IdaConnector connector = session.getProvider(IdaConnector.class, config.getConnectorId());
+
+            if (realm == null || connector == null) {
+            // If the realm has been removed meanwhile, or the connector is no longer deployed
+
+                return null;
+            }
+
+            // Connectors keep separate connections for each realm
+            session.getContext().setRealm(realm);
+
+            return connector.getVerifiedClaimsChanges(config.getConnectorConfig(), 
+                realm.getAttribute(watermarkAttribute), batchSize);
+        });
+
+        if (changes == null) {
+            LOG.warnf(ERROR_MESSAGE_REPLICATION_NOT_SUPPORTED, config.getConnectorId());
+            return false;
+        }
+
+        // Validated before the transaction is opened, so it is held for the writes only. Removals are kept as null
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonNode> change : changes.getChanges().entrySet()) {
+            if (change.getValue() == null) {
+                values.put(change.getKey(), null);
+                continue;
+            }
+
+            try {
+                VerifiedClaimsValidator.validateVerifiedClaims(change.getValue());
+                values.put(change.getKey(), MAPPER.writeValueAsString(change.getValue()));
+            } catch (ValidationException | GenerationException | JsonProcessingException e) {
+            // Invalid claims are left out, so they do not hold back the rest of the store's changes
+
+                LOG.warnf(ERROR_MESSAGE_REPLICATED_CLAIMS_INVALID, change.getKey(), externalStore);
+                LOG.debug(e.getMessage());
+                IdaMetrics.getInstance().increment(realmId, REPLICATION_INVALID);
+            }
+        }
+
+        // Only applied to the metrics once the transaction has been committed
+        AtomicInteger updated = new AtomicInteger();
+        AtomicInteger removed = new AtomicInteger();
+        AtomicInteger notFound = new AtomicInteger();
+
+        KeycloakModelUtils.runJobInTransaction(sessionFactory, session -> {
+            updated.set(0);
+            removed.set(0);
+            notFound.set(0);
+
+            RealmModel realm = session.realms().getRealm(realmId);
+            session.getContext().setRealm(realm);
+
+            String snapshotAttribute = watermarkAttribute + SNAPSHOT_ATTRIBUTE_SUFFIX;
+            String snapshot = realm.getAttribute(snapshotAttribute);
+            if (snapshot == null && realm.getAttribute(watermarkAttribute) == null) {
+            // If this is the first batch of a full snapshot, its users are marked so the others can be removed
+
+                snapshot = startSnapshot(session, realm, watermarkAttribute, snapshotAttribute);
+            }
+
+            String markerAttribute = claimsAttribute + SNAPSHOT_ATTRIBUTE_SUFFIX;
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                // Stores identify users by their usernames, just like when they are called for a token
+                UserModel user = session.users().getUserByUsername(realm, value.getKey());
+
+                if (user == null) {
+                    notFound.incrementAndGet();
+                } else if (value.getValue() == null) {
+                    user.removeAttribute(claimsAttribute);
+                    removed.incrementAndGet();
+                } else {
+                    user.setAttribute(claimsAttribute, Collections.singletonList(value.getValue()));
+                    if (snapshot != null) {
+                        user.setSingleAttribute(markerAttribute, snapshot);
+                    }
+                    updated.incrementAndGet();
+                }
+            }
+
+            if (changes.getWatermark() != null) {
+                realm.setAttribute(watermarkAttribute, changes.getWatermark());
+            }
+
+            if (!changes.hasMore() && snapshot != null) {
+            // If the store has sent its whole snapshot, the users it did not list no longer have verified claims
+
+                removed.addAndGet(removeUnlisted(session, realm, claimsAttribute, markerAttribute, snapshot));
+                realm.removeAttribute(snapshotAttribute);
+            }
+
+            String completedAttribute = getCompletedAttribute(watermarkAttribute);
+            if (!changes.hasMore() && realm.getAttribute(completedAttribute) == null) {
+            // If the first full snapshot has been replicated, mappers can read verified claims locally
+
+                realm.setAttribute(completedAttribute, Long.toString(System.currentTimeMillis()));
+            }
+        });
+
+        IdaMetrics.getInstance().add(realmId, REPLICATION_UPDATED, updated.get());
+        IdaMetrics.getInstance().add(realmId, REPLICATION_REMOVED, removed.get());
+        IdaMetrics.getInstance().add(realmId, REPLICATION_USER_NOT_FOUND, notFound.get());
+
+        LOG.debugf("Replicated %d changes of '%s' into realm '%s'", changes.getChanges().size(), externalStore, realmId);
+
+        // A store that has nothing to send would otherwise be called in a loop
+        return changes.hasMore() && !changes.getChanges().isEmpty();
+    }
+
+    /**
+     * Starts a full snapshot, unless another one has been started, or the snapshot has been replicated meanwhile. The 
+     * realm's row is locked until the transaction ends, and its attributes are read again, so a single snapshot ID is 
+     * ever used, even if another node replicates the same store
+     * 
+     * @param session
+     * @param realm
+     * @param watermarkAttribute
+     * @param snapshotAttribute
+     * @return the ID of the snapshot the users must be marked with, or null if the snapshot has been replicated
+     */
+    private String startSnapshot(KeycloakSession session, RealmModel realm, String watermarkAttribute, 
+            String snapshotAttribute) {
+        EntityManager em = session.getProvider(JpaConnectionProvider.class).getEntityManager();
+        em.find(RealmEntity.class, realm.getId(), LockModeType.PESSIMISTIC_WRITE);
+
+        if (getRealmAttribute(em, realm, watermarkAttribute) != null) {
+            return null;
+        }
+
+        String snapshot = getRealmAttribute(em, realm, snapshotAttribute);
+        if (snapshot == null) {
+            snapshot = UUID.randomUUID().toString();
+            realm.setAttribute(snapshotAttribute, snapshot);
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Reads a realm attribute from the database, bypassing the realm cache
+     * 
+     * @param em
+     * @param realm
+     * @param name
+     * @return the attribute's value or null, if the realm does not have it
+     */
+    private static String getRealmAttribute(EntityManager em, RealmModel realm, String name) {
+        return em.createQuery(QUERY_REALM_ATTRIBUTE, String.class)
+            .setParameter("realmId", realm.getId())
+            .setParameter("name", name)
+            .getResultStream()
+            .findFirst()
+            .orElse(null);
+    }
+
+    /**
+     * Stops pulling batches. The batch being written, if any, is still committed
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Removes the replicated claims of the users a snapshot did not list, along with the snapshot's marks
+     * 
+     * @param session
+     * @param realm
+     * @param claimsAttribute
+     * @param markerAttribute The user attribute marking the users listed by the snapshot
+     * @param snapshot        The snapshot's ID
+     * @return the number of users whose claims have been removed
+     */
+    private int removeUnlisted(KeycloakSession session, RealmModel realm, String claimsAttribute, 
+            String markerAttribute, String snapshot) {
+        EntityManager em = session.getProvider(JpaConnectionProvider.class).getEntityManager();
+
+        List<String> unlistedUserIds = em.createQuery(QUERY_USER_IDS_NOT_IN_SNAPSHOT, String.class)
+            .setParameter("name", claimsAttribute)
+            .setParameter("realmId", realm.getId())
+            .setParameter("markerName", markerAttribute)
+            .setParameter("snapshot", snapshot)
+            .getResultList();
+
+        int removed = 0;
+        for (String userId : unlistedUserIds) {
+            // Removed through the user model, so cached users are invalidated across the cluster
+            UserModel user = session.users().getUserById(realm, userId);
+
+            if (user != null) {
+                user.removeAttribute(claimsAttribute);
+                removed++;
+            }
+        }
+
+        // The marks are never read by the mappers, so they are removed in bulk
+        em.createQuery(QUERY_DELETE_SNAPSHOT_MARKERS)
+            .setParameter("markerName", markerAttribute)
+            .setParameter("realmId", realm.getId())
+            .executeUpdate();
+
+        return removed;
+    }
+}
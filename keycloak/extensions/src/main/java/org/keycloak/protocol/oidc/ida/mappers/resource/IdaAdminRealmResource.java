@@ -0,0 +1,45 @@
+package org.keycloak.protocol.oidc.ida.mappers.resource;
+
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationJobManager;
+import org.keycloak.services.resources.admin.permissions.AdminPermissionEvaluator;
+
+import jakarta.ws.rs.Path;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Root of the OIDC4IDA admin endpoints. Callers are authenticated by Keycloak's admin API before reaching it
+ */
+public class IdaAdminRealmResource {
+    private final KeycloakSession session;
+    private final RealmModel realm;
+    private final AdminPermissionEvaluator auth;
+    private final RevalidationJobManager revalidationJobs;
+    private final ExecutorService importValidators;
+
+    public IdaAdminRealmResource(KeycloakSession session, RealmModel realm, AdminPermissionEvaluator auth,
+            RevalidationJobManager revalidationJobs, ExecutorService importValidators) {
+        this.session = session;
+        this.realm = realm;
+        this.auth = auth;
+        this.revalidationJobs = revalidationJobs;
+        this.importValidators = importValidators;
+    }
+
+    @Path("import")
+    public ImportResource importVerifiedClaims() {
+        return new ImportResource(session, realm, auth, importValidators);
+    }
+
+    @Path("metrics")
+    public MetricsResource metrics() {
+        return new MetricsResource(realm, auth);
+    }
+
+    @Path("revalidation")
+    public RevalidationResource revalidation() {
+        return new RevalidationResource(session, realm, auth, revalidationJobs);
+    }
+}
@@ -0,0 +1,31 @@
+package org.keycloak.protocol.oidc.ida.mappers.resource;
+
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationJobManager;
+import org.keycloak.services.resources.admin.AdminEventBuilder;
+import org.keycloak.services.resources.admin.ext.AdminRealmResourceProvider;
+import org.keycloak.services.resources.admin.permissions.AdminPermissionEvaluator;
+
+import java.util.concurrent.ExecutorService;
+
+public class IdaAdminRealmResourceProvider implements AdminRealmResourceProvider {
+    private final RevalidationJobManager revalidationJobs;
+    private final ExecutorService importValidators;
+
+    public IdaAdminRealmResourceProvider(RevalidationJobManager revalidationJobs, ExecutorService importValidators) {
+        this.revalidationJobs = revalidationJobs;
+        this.importValidators = importValidators;
+    }
+
+    @Override
+    public Object getResource(KeycloakSession session, RealmModel realm, AdminPermissionEvaluator auth,
+            AdminEventBuilder adminEvent) {
+        return new IdaAdminRealmResource(session, realm, auth, revalidationJobs, importValidators);
+    }
+
+    @Override
+    public void close() {
+        // NOOP
+    }
+}
@@ -0,0 +1,53 @@
+package org.keycloak.protocol.oidc.ida.mappers.resource;
+
+import org.keycloak.Config;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationJobManager;
+import org.keycloak.protocol.oidc.ida.mappers.util.DaemonThreadFactory;
+import org.keycloak.services.resources.admin.ext.AdminRealmResourceProvider;
+import org.keycloak.services.resources.admin.ext.AdminRealmResourceProviderFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.THREAD_NAME_PREFIX;
+
+/**
+ * Admin endpoints of the OIDC4IDA extension, available under "/admin/realms/{realm}/ida"
+ */
+public class IdaAdminRealmResourceProviderFactory implements AdminRealmResourceProviderFactory {
+    private static final String PROVIDER_ID = "ida";
+
+    private final RevalidationJobManager revalidationJobs = new RevalidationJobManager();
+
+    // Shared by all imports, so concurrent imports cannot use more than one thread per CPU for validation
+    private final ExecutorService importValidators = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), new DaemonThreadFactory(THREAD_NAME_PREFIX));
+
+    @Override
+    public AdminRealmResourceProvider create(KeycloakSession session) {
+        return new IdaAdminRealmResourceProvider(revalidationJobs, importValidators);
+    }
+
+    @Override
+    public void init(Config.Scope config) {
+        // NOOP
+    }
+
+    @Override
+    public void postInit(KeycloakSessionFactory factory) {
+        // NOOP
+    }
+
+    @Override
+    public void close() {
+        revalidationJobs.close();
+        importValidators.shutdownNow();
+    }
+
+    @Override
+    public String getId() {
+        return PROVIDER_ID;
+    }
+}
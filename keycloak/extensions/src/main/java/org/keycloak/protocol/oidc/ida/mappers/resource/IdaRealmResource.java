@@ -0,0 +1,24 @@
+package org.keycloak.protocol.oidc.ida.mappers.resource;
+
+import org.keycloak.models.KeycloakSession;
+
+import jakarta.ws.rs.Path;
+
+/**
+ * Root of the OIDC4IDA public endpoints. They are not protected by Keycloak, so each endpoint authenticates its 
+ * callers on its own
+ */
+public class IdaRealmResource {
+    private final KeycloakSession session;
+    private final String notificationSecret;
+
+    public IdaRealmResource(KeycloakSession session, String notificationSecret) {
+        this.session = session;
+        this.notificationSecret = notificationSecret;
+    }
+
+    @Path("notifications")
+    public NotificationResource notifications() {
+        return new NotificationResource(session, notificationSecret);
+    }
+}
@@ -0,0 +1,24 @@
+package org.keycloak.protocol.oidc.ida.mappers.resource;
+
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.services.resource.RealmResourceProvider;
+
+public class IdaRealmResourceProvider implements RealmResourceProvider {
+    private final KeycloakSession session;
+    private final String notificationSecret;
+
+    public IdaRealmResourceProvider(KeycloakSession session, String notificationSecret) {
+        this.session = session;
+        this.notificationSecret = notificationSecret;
+    }
+
+    @Override
+    public Object getResource() {
+        return new IdaRealmResource(session, notificationSecret);
+    }
+
+    @Override
+    public void close() {
+        // NOOP
+    }
+}
@@ -0,0 +1,69 @@
+package org.keycloak.protocol.oidc.ida.mappers.resource;
+
+import org.jboss.logging.Logger;
+import org.keycloak.Config;
+import org.keycloak.cluster.ClusterProvider;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.utils.KeycloakModelUtils;
+import org.keycloak.protocol.oidc.ida.mappers.cache.VerifiedClaimsChangedEvent;
+import org.keycloak.services.resource.RealmResourceProvider;
+import org.keycloak.services.resource.RealmResourceProviderFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.NOTIFICATION_SECRET_CONFIG;
+
+/**
+ * Public endpoints of the OIDC4IDA extension, available under "/realms/{realm}/ida"
+ */
+public class IdaRealmResourceProviderFactory implements RealmResourceProviderFactory {
+    private static final String PROVIDER_ID = "ida";
+    private static final Logger LOG = Logger.getLogger(IdaRealmResourceProviderFactory.class);
+
+    // Secret shared with the external stores, used by realms that do not set their own
+    private String notificationSecret;
+
+    @Override
+    public RealmResourceProvider create(KeycloakSession session) {
+        return new IdaRealmResourceProvider(session, notificationSecret);
+    }
+
+    @Override
+    public void init(Config.Scope config) {
+        notificationSecret = config.get(NOTIFICATION_SECRET_CONFIG);
+    }
+
+    @Override
+    public void postInit(KeycloakSessionFactory factory) {
+        // Changes notified to another node are applied to this node's caches too
+        KeycloakModelUtils.runJobInTransaction(factory, session -> {
+            ClusterProvider cluster = session.getProvider(ClusterProvider.class);
+
+            if (cluster == null) {
+                return;
+            }
+
+            cluster.registerListener(VerifiedClaimsChangedEvent.TASK_KEY, event -> 
+                KeycloakModelUtils.runJobInTransaction(factory, eventSession -> {
+                    try {
+                        ((VerifiedClaimsChangedEvent) event).applyTo(eventSession);
+                    } catch (JsonProcessingException e) {
+                    // This shouldn't happen, the claims have been parsed by the node that received them
+
+                        LOG.warn(e.getMessage());
+                    }
+                }));
+        });
+    }
+
+    @Override
+    public void close() {
+        // NOOP
+    }
+
+    @Override
+    public String getId() {
+        return PROVIDER_ID;
+    }
+}
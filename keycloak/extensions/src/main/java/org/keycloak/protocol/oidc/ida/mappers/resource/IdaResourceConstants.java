@@ -0,0 +1,29 @@
+package org.keycloak.protocol.oidc.ida.mappers.resource;
+
+public class IdaResourceConstants {
+    // Configs and properties
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String NOTIFICATION_SECRET_CONFIG = "notificationSecret";
+    public static final String NOTIFICATION_SECRET_REALM_ATTRIBUTE = "ida.notification.secret";
+    public static final String NOTIFICATION_SIGNATURE_HEADER = "X-IDA-Signature";
+    public static final String NOTIFICATION_TIMESTAMP_HEADER = "X-IDA-Timestamp";
+    public static final String NOTIFICATION_SIGNATURE_PREFIX = "sha256=";
+    public static final String NOTIFICATION_SIGNATURE_ALGORITHM = "HmacSHA256";
+    public static final long NOTIFICATION_MAX_CLOCK_SKEW_SECONDS = 300;
+
+    // JSON keys
+    public static final String USER_ID = "userId";
+    public static final String EXTERNAL_STORE = "store";
+
+    // Error messages
+    public static final String ERROR_MESSAGE_INVALID_BATCH_SIZE = "The batch size must be between 1 and %d.";
+    public static final String ERROR_MESSAGE_INVALID_PARALLELISM = "The parallelism must be between 1 and %d.";
+    public static final String ERROR_MESSAGE_REVALIDATION_RUNNING = "A verified claims revalidation is already running for this realm.";
+    public static final String ERROR_MESSAGE_NOTIFICATIONS_DISABLED = "Change notifications have not been enabled for this realm.";
+    public static final String ERROR_MESSAGE_NOTIFICATION_INVALID_SIGNATURE = "The change notification's signature is missing, expired or invalid.";
+    public static final String ERROR_MESSAGE_NOTIFICATION_INVALID_JSON = "The change notification is not in a valid JSON format.";
+    public static final String ERROR_MESSAGE_NOTIFICATION_MISSING_USER = "The change notification does not have a \"userId\".";
+    public static final String ERROR_MESSAGE_NOTIFICATION_INVALID_SCHEMA = "The change notification's \"verified_claims\" could not be validated using the JSON schema.";
+    public static final String ERROR_MESSAGE_IMPORT_FAILED = "The import has been interrupted because the request body could not be read.";
+    public static final String ERROR_MESSAGE_REVALIDATION_NOT_FOUND = "No verified claims revalidation has been started for this realm.";
+}
@@ -0,0 +1,78 @@
+package org.keycloak.protocol.oidc.ida.mappers.resource;
+
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.protocol.oidc.ida.mappers.bulkimport.ImportResult;
+import org.keycloak.protocol.oidc.ida.mappers.bulkimport.VerifiedClaimsImporter;
+import org.keycloak.services.ErrorResponse;
+import org.keycloak.services.resources.admin.permissions.AdminPermissionEvaluator;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.DEFAULT_BATCH_SIZE;
+import static org.keycloak.protocol.oidc.ida.mappers.bulkimport.BulkImportConstants.MAX_BATCH_SIZE;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.ERROR_MESSAGE_IMPORT_FAILED;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.ERROR_MESSAGE_INVALID_BATCH_SIZE;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.NDJSON_MEDIA_TYPE;
+
+/**
+ * Bulk import of verified claims from an NDJSON file into users' attributes
+ */
+public class ImportResource {
+    private final KeycloakSession session;
+    private final RealmModel realm;
+    private final AdminPermissionEvaluator auth;
+    private final ExecutorService importValidators;
+
+    public ImportResource(KeycloakSession session, RealmModel realm, AdminPermissionEvaluator auth,
+            ExecutorService importValidators) {
+        this.session = session;
+        this.realm = realm;
+        this.auth = auth;
+        this.importValidators = importValidators;
+    }
+
+    /**
+     * Imports the verified claims of an NDJSON stream. The request body is read as it arrives, so files of any 
+     * size can be sent
+     * 
+     * @param batchSize Number of records written per transaction
+     * @param input
+     * @return the import summary
+     */
+    @POST
+    @Consumes({ NDJSON_MEDIA_TYPE, MediaType.TEXT_PLAIN, MediaType.APPLICATION_OCTET_STREAM })
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importVerifiedClaims(@QueryParam("batchSize") Integer batchSize, InputStream input) {
+        auth.users().requireManage();
+
+        int importBatchSize = batchSize != null ? batchSize : DEFAULT_BATCH_SIZE;
+
+        if (importBatchSize < 1 || importBatchSize > MAX_BATCH_SIZE) {
+            throw ErrorResponse.error(String.format(ERROR_MESSAGE_INVALID_BATCH_SIZE, MAX_BATCH_SIZE), 
+                Response.Status.BAD_REQUEST);
+        }
+
+        VerifiedClaimsImporter importer = new VerifiedClaimsImporter(session.getKeycloakSessionFactory(), 
+            realm.getId(), importBatchSize, importValidators);
+
+        try {
+            ImportResult result = importer.importVerifiedClaims(input);
+
+            return Response.ok(result).build();
+        } catch (IOException e) {
+        // Batches written before the failure are kept
+
+            throw ErrorResponse.error(ERROR_MESSAGE_IMPORT_FAILED, Response.Status.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.keycloak.protocol.oidc.ida.mappers.resource;
+
+import org.keycloak.models.RealmModel;
+import org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetrics;
+import org.keycloak.services.resources.admin.permissions.AdminPermissionEvaluator;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+import java.util.Map;
+
+/**
+ * Exposes the realm's OIDC4IDA counters and the node's gauges, as seen by the cluster node serving the request
+ */
+public class MetricsResource {
+    private final RealmModel realm;
+    private final AdminPermissionEvaluator auth;
+
+    public MetricsResource(RealmModel realm, AdminPermissionEvaluator auth) {
+        this.realm = realm;
+        this.auth = auth;
+    }
+
+    /**
+     * Gets the realm's counters, along with the node's gauges
+     * 
+     * @return
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Map<String, Long> getMetrics() {
+        auth.realm().requireViewRealm();
+
+        Map<String, Long> metrics = IdaMetrics.getInstance().getCounters(realm.getId());
+        metrics.putAll(IdaMetrics.getInstance().getGauges());
+
+        return metrics;
+    }
+}
@@ -0,0 +1,223 @@
+package org.keycloak.protocol.oidc.ida.mappers.resource;
+
+import org.jboss.logging.Logger;
+import org.keycloak.OAuthErrorException;
+import org.keycloak.cluster.ClusterProvider;
+import org.keycloak.events.Errors;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.protocol.oidc.ida.mappers.cache.VerifiedClaimsChangedEvent;
+import org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidator;
+import org.keycloak.services.ErrorResponseException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import net.jimblackler.jsonschemafriend.GenerationException;
+import net.jimblackler.jsonschemafriend.ValidationException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.ERROR_MESSAGE_NOTIFICATIONS_DISABLED;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.ERROR_MESSAGE_NOTIFICATION_INVALID_JSON;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.ERROR_MESSAGE_NOTIFICATION_INVALID_SCHEMA;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.ERROR_MESSAGE_NOTIFICATION_INVALID_SIGNATURE;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.ERROR_MESSAGE_NOTIFICATION_MISSING_USER;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.EXTERNAL_STORE;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.NOTIFICATION_MAX_CLOCK_SKEW_SECONDS;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.NOTIFICATION_SECRET_REALM_ATTRIBUTE;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.NOTIFICATION_SIGNATURE_ALGORITHM;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.NOTIFICATION_SIGNATURE_HEADER;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.NOTIFICATION_SIGNATURE_PREFIX;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.NOTIFICATION_TIMESTAMP_HEADER;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.USER_ID;
+
+/**
+ * Receives change notifications from external stores. A store calls this endpoint whenever a user's verified claims 
+ * change, so the cached claims of that user are replaced or discarded on every node of the cluster. Notifications 
+ * are signed with a secret shared with the store:
+ * 
+ * <pre>
+ * X-IDA-Timestamp: {unix time in seconds}
+ * X-IDA-Signature: sha256={hex HMAC-SHA256 of "{timestamp}.{request body}"}
+ * 
+ * {"userId": "ida_user", "store": "https://store.example/claims", "verified_claims": {...}}
+ * </pre>
+ * 
+ * "store" and "verified_claims" are optional. When both are sent, the user's entry for that store is replaced, 
+ * otherwise every entry of the user is discarded.
+ */
+public class NotificationResource {
+    private static final Logger LOG = Logger.getLogger(NotificationResource.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final KeycloakSession session;
+    private final String notificationSecret;
+
+    public NotificationResource(KeycloakSession session, String notificationSecret) {
+        this.session = session;
+        this.notificationSecret = notificationSecret;
+    }
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response notifyChange(@HeaderParam(NOTIFICATION_SIGNATURE_HEADER) String signature,
+            @HeaderParam(NOTIFICATION_TIMESTAMP_HEADER) String timestamp, byte[] body) {
+        RealmModel realm = session.getContext().getRealm();
+        String secret = realm.getAttribute(NOTIFICATION_SECRET_REALM_ATTRIBUTE);
+
+        if (secret == null || secret.isEmpty()) {
+            secret = notificationSecret;
+        }
+
+        if (secret == null || secret.isEmpty()) {
+        // If no secret has been set, notifications cannot be authenticated
+
+            throw new NotFoundException(ERROR_MESSAGE_NOTIFICATIONS_DISABLED);
+        }
+
+        if (!isSignatureValid(secret, signature, timestamp, body)) {
+            LOG.warnf("Rejected change notification for realm '%s': %s", realm.getName(), 
+                ERROR_MESSAGE_NOTIFICATION_INVALID_SIGNATURE);
+
+            throw new ErrorResponseException(Errors.INVALID_SIGNATURE, ERROR_MESSAGE_NOTIFICATION_INVALID_SIGNATURE, 
+                Response.Status.UNAUTHORIZED);
+        }
+
+        VerifiedClaimsChangedEvent event = parseNotification(realm, body);
+
+        try {
+            event.applyTo(session);
+        } catch (JsonProcessingException e) {
+        // This shouldn't happen, the claims have just been parsed
+
+            throw new ErrorResponseException(OAuthErrorException.INVALID_REQUEST, 
+                ERROR_MESSAGE_NOTIFICATION_INVALID_JSON, Response.Status.BAD_REQUEST);
+        }
+
+        ClusterProvider cluster = session.getProvider(ClusterProvider.class);
+        if (cluster != null) {
+        // Other nodes may have cached the same user
+
+            cluster.notify(VerifiedClaimsChangedEvent.TASK_KEY, event, true, ClusterProvider.DCNotify.ALL_DCS);
+        }
+
+        LOG.debugf("Applied change notification for user '%s'", event.getUserId());
+
+        return Response.noContent().build();
+    }
+
+    /**
+     * Parses and validates a change notification
+     * 
+     * @param realm The realm the notification was sent to
+     * @param body
+     * @return
+     */
+    private VerifiedClaimsChangedEvent parseNotification(RealmModel realm, byte[] body) {
+        try {
+            JsonNode notification = MAPPER.readTree(body);
+            String userId = notification.path(USER_ID).textValue();
+
+            if (userId == null || userId.isEmpty()) {
+                throw new ErrorResponseException(OAuthErrorException.INVALID_REQUEST, 
+                    ERROR_MESSAGE_NOTIFICATION_MISSING_USER, Response.Status.BAD_REQUEST);
+            }
+
+            String externalStore = notification.path(EXTERNAL_STORE).textValue();
+            String verifiedClaims = null;
+
+            if (notification.hasNonNull(VERIFIED_CLAIMS)) {
+            // The cached entries hold the same object returned by the external store
+
+                ObjectNode verifiedClaimsObject = MAPPER.createObjectNode()
+                    .set(VERIFIED_CLAIMS, notification.get(VERIFIED_CLAIMS));
+                VerifiedClaimsValidator.validateVerifiedClaims(verifiedClaimsObject);
+
+                verifiedClaims = MAPPER.writeValueAsString(verifiedClaimsObject);
+            }
+
+            return new VerifiedClaimsChangedEvent(realm.getId(), userId, externalStore, verifiedClaims);
+        } catch (IOException e) {
+        // The notification is not in a valid JSON format
+
+            throw new ErrorResponseException(OAuthErrorException.INVALID_REQUEST, 
+                ERROR_MESSAGE_NOTIFICATION_INVALID_JSON, Response.Status.BAD_REQUEST);
+        } catch (ValidationException | GenerationException e) {
+        // The verified_claims are not in a valid verified_claims object format
+
+            throw new ErrorResponseException(OAuthErrorException.INVALID_REQUEST, 
+                ERROR_MESSAGE_NOTIFICATION_INVALID_SCHEMA, Response.Status.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Checks the notification's signature, rejecting notifications signed too long ago so they cannot be replayed
+     * 
+     * @param secret
+     * @param signature
+     * @param timestamp
+     * @param body
+     * @return
+     */
+    private boolean isSignatureValid(String secret, String signature, String timestamp, byte[] body) {
+        if (signature == null || timestamp == null || body == null 
+                || !signature.startsWith(NOTIFICATION_SIGNATURE_PREFIX)) {
+            return false;
+        }
+
+        try {
+            long signedAt = Long.parseLong(timestamp);
+            if (Math.abs(System.currentTimeMillis() / 1000 - signedAt) > NOTIFICATION_MAX_CLOCK_SKEW_SECONDS) {
+                return false;
+            }
+
+            Mac mac = Mac.getInstance(NOTIFICATION_SIGNATURE_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), NOTIFICATION_SIGNATURE_ALGORITHM));
+            mac.update((timestamp + ".").getBytes(StandardCharsets.UTF_8));
+            byte[] expected = mac.doFinal(body);
+
+            byte[] received = hexToBytes(signature.substring(NOTIFICATION_SIGNATURE_PREFIX.length()));
+
+            return received != null && MessageDigest.isEqual(expected, received);
+        } catch (NumberFormatException | GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static byte[] hexToBytes(String hex) {
+        if (hex.length() % 2 != 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+
+            if (high < 0 || low < 0) {
+                return null;
+            }
+
+            bytes[i] = (byte) (high << 4 | low);
+        }
+
+        return bytes;
+    }
+}
@@ -0,0 +1,140 @@
+package org.keycloak.protocol.oidc.ida.mappers.resource;
+
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationJob;
+import org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationJobManager;
+import org.keycloak.services.ErrorResponse;
+import org.keycloak.services.resources.admin.permissions.AdminPermissionEvaluator;
+
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.nio.file.Files;
+
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.ERROR_MESSAGE_INVALID_BATCH_SIZE;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.ERROR_MESSAGE_INVALID_PARALLELISM;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.ERROR_MESSAGE_REVALIDATION_NOT_FOUND;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.ERROR_MESSAGE_REVALIDATION_RUNNING;
+import static org.keycloak.protocol.oidc.ida.mappers.resource.IdaResourceConstants.NDJSON_MEDIA_TYPE;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.DEFAULT_BATCH_SIZE;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.MAX_BATCH_SIZE;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.MAX_PARALLELISM;
+
+/**
+ * Starts, follows and cancels the revalidation of the verified claims stored in a realm's user attributes
+ */
+public class RevalidationResource {
+    private final KeycloakSession session;
+    private final RealmModel realm;
+    private final AdminPermissionEvaluator auth;
+    private final RevalidationJobManager revalidationJobs;
+
+    public RevalidationResource(KeycloakSession session, RealmModel realm, AdminPermissionEvaluator auth,
+            RevalidationJobManager revalidationJobs) {
+        this.session = session;
+        this.realm = realm;
+        this.auth = auth;
+        this.revalidationJobs = revalidationJobs;
+    }
+
+    /**
+     * Starts a revalidation job for the realm
+     * 
+     * @param batchSize   Number of users loaded and validated at a time
+     * @param parallelism Number of threads validating each batch
+     * @return the status of the new job
+     */
+    @POST
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response start(@QueryParam("batchSize") Integer batchSize, @QueryParam("parallelism") Integer parallelism) {
+        auth.users().requireManage();
+
+        int jobBatchSize = batchSize != null ? batchSize : DEFAULT_BATCH_SIZE;
+        int jobParallelism = parallelism != null ? parallelism : Runtime.getRuntime().availableProcessors();
+
+        if (jobBatchSize < 1 || jobBatchSize > MAX_BATCH_SIZE) {
+            throw ErrorResponse.error(String.format(ERROR_MESSAGE_INVALID_BATCH_SIZE, MAX_BATCH_SIZE), 
+                Response.Status.BAD_REQUEST);
+        }
+
+        if (jobParallelism < 1 || jobParallelism > MAX_PARALLELISM) {
+            throw ErrorResponse.error(String.format(ERROR_MESSAGE_INVALID_PARALLELISM, MAX_PARALLELISM), 
+                Response.Status.BAD_REQUEST);
+        }
+
+        RevalidationJob job = revalidationJobs.start(session.getKeycloakSessionFactory(), realm, jobBatchSize, 
+            jobParallelism);
+
+        if (job == null) {
+        // If a job is already running for the realm
+
+            throw ErrorResponse.exists(ERROR_MESSAGE_REVALIDATION_RUNNING);
+        }
+
+        return Response.accepted(job.getStatus()).build();
+    }
+
+    /**
+     * Gets the progress and throughput of the realm's current or last job
+     * 
+     * @return
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response status() {
+        auth.users().requireView();
+
+        return Response.ok(getJob().getStatus()).build();
+    }
+
+    /**
+     * Downloads the report of the realm's current or last job. Each line is a JSON object describing one invalid 
+     * "verified_claims" attribute. The report of a running job contains the batches validated so far.
+     * 
+     * @return
+     */
+    @GET
+    @Path("report")
+    @Produces(NDJSON_MEDIA_TYPE)
+    public Response report() {
+        auth.users().requireView();
+
+        RevalidationJob job = getJob();
+        StreamingOutput report = output -> Files.copy(job.getReportFile(), output);
+
+        return Response.ok(report, NDJSON_MEDIA_TYPE).build();
+    }
+
+    /**
+     * Cancels the realm's running job. The job stops after the batch currently being validated
+     * 
+     * @return
+     */
+    @DELETE
+    public Response cancel() {
+        auth.users().requireManage();
+
+        getJob().cancel();
+
+        return Response.noContent().build();
+    }
+
+    private RevalidationJob getJob() {
+        RevalidationJob job = revalidationJobs.get(realm.getId());
+
+        if (job == null) {
+            throw new NotFoundException(ERROR_MESSAGE_REVALIDATION_NOT_FOUND);
+        }
+
+        return job;
+    }
+}
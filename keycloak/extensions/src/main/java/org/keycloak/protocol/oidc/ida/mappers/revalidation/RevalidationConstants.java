@@ -0,0 +1,31 @@
+package org.keycloak.protocol.oidc.ida.mappers.revalidation;
+
+public class RevalidationConstants {
+    // Configs and properties
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int MAX_BATCH_SIZE = 10000;
+    public static final int MAX_PARALLELISM = 64;
+    public static final String THREAD_NAME_PREFIX = "ida-revalidation-";
+    public static final String REPORT_FILE_PREFIX = "ida-revalidation-";
+    public static final String REPORT_FILE_SUFFIX = ".ndjson";
+
+    // Queries
+    public static final String QUERY_USER_IDS_WITH_VERIFIED_CLAIMS = "select distinct attr.user.id from UserAttributeEntity attr "
+        + "where attr.name = :name and attr.user.realmId = :realmId and attr.user.id > :lastUserId order by attr.user.id";
+    public static final String QUERY_VERIFIED_CLAIMS_BY_USER_IDS = "select attr.user.id, attr.user.username, attr.value "
+        + "from UserAttributeEntity attr where attr.name = :name and attr.user.id in :userIds";
+
+    // Report keys and error codes
+    public static final String REPORT_USER_ID = "userId";
+    public static final String REPORT_USERNAME = "username";
+    public static final String REPORT_ATTRIBUTE_INDEX = "attributeIndex";
+    public static final String REPORT_ERROR = "error";
+    public static final String REPORT_MESSAGE = "message";
+    public static final String REPORT_ERROR_INVALID_JSON = "invalid_json";
+    public static final String REPORT_ERROR_INVALID_SCHEMA = "invalid_schema";
+    public static final String REPORT_ERROR_MISSING_VERIFIED_CLAIMS = "missing_verified_claims";
+
+    // Error messages
+    public static final String ERROR_MESSAGE_JOB_FAILED = "The verified claims revalidation job for realm '%s' has failed.";
+    public static final String ERROR_MESSAGE_REPORT_NOT_CREATED = "The verified claims revalidation report could not be created.";
+}
@@ -0,0 +1,327 @@
+package org.keycloak.protocol.oidc.ida.mappers.revalidation;
+
+import org.jboss.logging.Logger;
+import org.keycloak.connections.jpa.JpaConnectionProvider;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.utils.KeycloakModelUtils;
+import org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidator;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.persistence.EntityManager;
+
+import net.jimblackler.jsonschemafriend.GenerationException;
+import net.jimblackler.jsonschemafriend.ValidationException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.ERROR_MESSAGE_JOB_FAILED;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.QUERY_USER_IDS_WITH_VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.QUERY_VERIFIED_CLAIMS_BY_USER_IDS;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.REPORT_ATTRIBUTE_INDEX;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.REPORT_ERROR;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.REPORT_ERROR_INVALID_JSON;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.REPORT_ERROR_INVALID_SCHEMA;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.REPORT_ERROR_MISSING_VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.REPORT_MESSAGE;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.REPORT_USERNAME;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.REPORT_USER_ID;
+
+/**
+ * Background job that revalidates every "verified_claims" attribute stored for the users of a realm. Users are read 
+ * in pages of a bounded size, ordered by their IDs, so the whole user set is never held in memory. Each page is 
+ * validated in parallel and every invalid attribute is appended to an NDJSON report file.
+ */
+public class RevalidationJob implements Runnable {
+    private static final Logger LOG = Logger.getLogger(RevalidationJob.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
+        .enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
+
+    public enum State {
+        RUNNING, COMPLETED, CANCELLED, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final KeycloakSessionFactory sessionFactory;
+    private final String realmId;
+    private final String realmName;
+    private final int batchSize;
+    private final ExecutorService validators;
+    private final Path reportFile;
+
+    // Progress
+    private final long startedAt = System.currentTimeMillis();
+    private volatile long finishedAt;
+    private volatile State state = State.RUNNING;
+    private volatile boolean cancelRequested;
+    private volatile String failure;
+    private final AtomicLong processedUsers = new AtomicLong();
+    private final AtomicLong processedAttributes = new AtomicLong();
+    private final AtomicLong invalidUsers = new AtomicLong();
+    private final AtomicLong invalidAttributes = new AtomicLong();
+
+    public RevalidationJob(KeycloakSessionFactory sessionFactory, String realmId, String realmName, int batchSize,
+            ExecutorService validators, Path reportFile) {
+        this.sessionFactory = sessionFactory;
+        this.realmId = realmId;
+        this.realmName = realmName;
+        this.batchSize = batchSize;
+        this.validators = validators;
+        this.reportFile = reportFile;
+    }
+
+    @Override
+    public void run() {
+        try (BufferedWriter report = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+            String lastUserId = "";
+
+            while (!cancelRequested) {
+                List<StoredVerifiedClaims> batch = loadBatch(lastUserId);
+
+                if (batch.isEmpty()) {
+                // If there are no more users with verified claims
+
+                    break;
+                }
+
+                validateBatch(batch, report);
+                lastUserId = batch.get(batch.size() - 1).userId;
+
+                LOG.debugf("Realm '%s': revalidated %d users (%.1f users/s)", realmName, processedUsers.get(), 
+                    getUsersPerSecond());
+            }
+
+            state = cancelRequested ? State.CANCELLED : State.COMPLETED;
+        } catch (Exception e) {
+        // Any failure aborts the job, the partial report is kept for inspection
+
+            LOG.errorf(e, ERROR_MESSAGE_JOB_FAILED, realmName);
+
+            failure = e.getMessage();
+            state = State.FAILED;
+        } finally {
+            finishedAt = System.currentTimeMillis();
+            validators.shutdownNow();
+        }
+
+        LOG.infof("Verified claims revalidation of realm '%s' finished as %s: %d users, %d invalid users, %.1f users/s", 
+            realmName, state, processedUsers.get(), invalidUsers.get(), getUsersPerSecond());
+    }
+
+    /**
+     * Loads the next page of users holding "verified_claims" attributes, using the last user ID seen as a keyset 
+     * cursor so pages never have to be skipped over by the database
+     * 
+     * @param lastUserId
+     * @return
+     */
+    private List<StoredVerifiedClaims> loadBatch(String lastUserId) {
+        return KeycloakModelUtils.runJobInTransactionWithResult(sessionFactory, session -> {
+            EntityManager em = session.getProvider(JpaConnectionProvider.class).getEntityManager();
+
+            List<String> userIds = em.createQuery(QUERY_USER_IDS_WITH_VERIFIED_CLAIMS, String.class)
+                .setParameter("name", VERIFIED_CLAIMS)
+                .setParameter("realmId", realmId)
+                .setParameter("lastUserId", lastUserId)
+                .setMaxResults(batchSize)
+                .getResultList();
+
+            if (userIds.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            // Keeps the users in the same order as their IDs, so the last one can be used as the next cursor
+            Map<String, StoredVerifiedClaims> batch = new LinkedHashMap<>();
+            userIds.forEach(userId -> batch.put(userId, new StoredVerifiedClaims(userId)));
+
+            em.createQuery(QUERY_VERIFIED_CLAIMS_BY_USER_IDS, Object[].class)
+                .setParameter("name", VERIFIED_CLAIMS)
+                .setParameter("userIds", userIds)
+                .getResultList()
+                .forEach(row -> {
+                    StoredVerifiedClaims stored = batch.get((String) row[0]);
+                    stored.username = (String) row[1];
+                    stored.values.add((String) row[2]);
+                });
+
+            return new ArrayList<>(batch.values());
+        });
+    }
+
+    /**
+     * Validates a page of users in parallel and writes the invalid attributes to the report, in the page's order
+     * 
+     * @param batch
+     * @param report
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    private void validateBatch(List<StoredVerifiedClaims> batch, BufferedWriter report) 
+            throws IOException, InterruptedException, ExecutionException {
+        List<Future<List<String>>> results = new ArrayList<>(batch.size());
+        batch.forEach(stored -> results.add(validators.submit(() -> validate(stored))));
+
+        for (Future<List<String>> result : results) {
+            List<String> reportLines = result.get();
+
+            processedUsers.incrementAndGet();
+            if (!reportLines.isEmpty()) {
+            // If at least one of the user's attributes is invalid
+
+                invalidUsers.incrementAndGet();
+                invalidAttributes.addAndGet(reportLines.size());
+            }
+
+            for (String reportLine : reportLines) {
+                report.write(reportLine);
+                report.newLine();
+            }
+        }
+
+        report.flush();
+    }
+
+    /**
+     * Validates every "verified_claims" attribute of a single user
+     * 
+     * @param stored
+     * @return the report lines for the user's invalid attributes
+     * @throws JsonProcessingException
+     */
+    private List<String> validate(StoredVerifiedClaims stored) throws JsonProcessingException {
+        List<String> reportLines = new ArrayList<>();
+
+        for (int i = 0; i < stored.values.size(); i++) {
+            processedAttributes.incrementAndGet();
+
+            JsonNode verifiedClaims;
+            try {
+                verifiedClaims = MAPPER.readTree(stored.values.get(i));
+                VerifiedClaimsValidator.validateVerifiedClaims(verifiedClaims);
+            } catch (JsonProcessingException e) {
+            // The verified_claims are not in a valid JSON format
+
+                reportLines.add(reportLine(stored, i, REPORT_ERROR_INVALID_JSON, e.getOriginalMessage()));
+                continue;
+            } catch (ValidationException | GenerationException e) {
+            // The verified_claims are not in a valid verified_claims object format
+
+                reportLines.add(reportLine(stored, i, REPORT_ERROR_INVALID_SCHEMA, e.getMessage()));
+                continue;
+            }
+
+            if (verifiedClaims.get(VERIFIED_CLAIMS) == null) {
+            // The attribute is valid, but would never be used by the mapper
+
+                reportLines.add(reportLine(stored, i, REPORT_ERROR_MISSING_VERIFIED_CLAIMS, null));
+            }
+        }
+
+        return reportLines;
+    }
+
+    private String reportLine(StoredVerifiedClaims stored, int attributeIndex, String error, String message) 
+            throws JsonProcessingException {
+        ObjectNode line = MAPPER.createObjectNode()
+            .put(REPORT_USER_ID, stored.userId)
+            .put(REPORT_USERNAME, stored.username)
+            .put(REPORT_ATTRIBUTE_INDEX, attributeIndex)
+            .put(REPORT_ERROR, error);
+
+        if (message != null) {
+            line.put(REPORT_MESSAGE, message);
+        }
+
+        return MAPPER.writeValueAsString(line);
+    }
+
+    /**
+     * Requests the job to stop after the page currently being validated
+     */
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    public boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    public Path getReportFile() {
+        return reportFile;
+    }
+
+    /**
+     * Deletes the report file, if it still exists
+     */
+    public void deleteReport() {
+        try {
+            Files.deleteIfExists(reportFile);
+        } catch (IOException e) {
+            LOG.debugf("Could not delete revalidation report '%s'", reportFile);
+        }
+    }
+
+    private double getUsersPerSecond() {
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        long elapsed = Math.max(end - startedAt, 1);
+
+        return processedUsers.get() * 1000.0 / elapsed;
+    }
+
+    /**
+     * Gets a snapshot of the job's progress and throughput
+     * 
+     * @return
+     */
+    public RevalidationStatus getStatus() {
+        RevalidationStatus status = new RevalidationStatus();
+        status.setId(id);
+        status.setRealm(realmName);
+        status.setState(state.name());
+        status.setStartedAt(startedAt);
+        status.setFinishedAt(finishedAt > 0 ? finishedAt : null);
+        status.setBatchSize(batchSize);
+        status.setProcessedUsers(processedUsers.get());
+        status.setProcessedAttributes(processedAttributes.get());
+        status.setInvalidUsers(invalidUsers.get());
+        status.setInvalidAttributes(invalidAttributes.get());
+        status.setUsersPerSecond(getUsersPerSecond());
+        status.setFailure(failure);
+
+        return status;
+    }
+
+    /**
+     * The "verified_claims" attribute values stored for a single user
+     */
+    private static class StoredVerifiedClaims {
+        private final String userId;
+        private String username;
+        private final List<String> values = new ArrayList<>();
+
+        private StoredVerifiedClaims(String userId) {
+            this.userId = userId;
+        }
+    }
+}
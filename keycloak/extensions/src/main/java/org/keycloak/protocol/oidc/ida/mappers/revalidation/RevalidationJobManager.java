@@ -0,0 +1,94 @@
+package org.keycloak.protocol.oidc.ida.mappers.revalidation;
+
+import org.jboss.logging.Logger;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.RealmModel;
+import org.keycloak.protocol.oidc.ida.mappers.util.DaemonThreadFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.ERROR_MESSAGE_REPORT_NOT_CREATED;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.REPORT_FILE_PREFIX;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.REPORT_FILE_SUFFIX;
+import static org.keycloak.protocol.oidc.ida.mappers.revalidation.RevalidationConstants.THREAD_NAME_PREFIX;
+
+/**
+ * Keeps track of the revalidation jobs of each realm. Only one job may run per realm at a time, and the last job of 
+ * each realm is kept, so its status and report can still be retrieved after it finishes. Jobs are local to the node 
+ * that started them.
+ */
+public class RevalidationJobManager {
+    private static final Logger LOG = Logger.getLogger(RevalidationJobManager.class);
+
+    private final Map<String, RevalidationJob> jobs = new ConcurrentHashMap<>();
+    private final ThreadFactory threadFactory = new DaemonThreadFactory(THREAD_NAME_PREFIX);
+
+    /**
+     * Starts a new revalidation job for a realm
+     * 
+     * @param sessionFactory
+     * @param realm
+     * @param batchSize      Number of users loaded and validated at a time
+     * @param parallelism    Number of threads validating each batch
+     * @return the new job or null, if a job is already running for the realm
+     */
+    public synchronized RevalidationJob start(KeycloakSessionFactory sessionFactory, RealmModel realm, int batchSize, 
+            int parallelism) {
+        RevalidationJob previous = jobs.get(realm.getId());
+
+        if (previous != null && previous.isRunning()) {
+        // If the realm is already being revalidated
+
+            return null;
+        }
+
+        Path reportFile;
+        try {
+            reportFile = Files.createTempFile(REPORT_FILE_PREFIX, REPORT_FILE_SUFFIX);
+        } catch (IOException e) {
+            throw new IllegalStateException(ERROR_MESSAGE_REPORT_NOT_CREATED, e);
+        }
+
+        if (previous != null) {
+        // Only the last job of each realm is kept
+
+            previous.deleteReport();
+        }
+
+        RevalidationJob job = new RevalidationJob(sessionFactory, realm.getId(), realm.getName(), batchSize, 
+            Executors.newFixedThreadPool(parallelism, threadFactory), reportFile);
+        jobs.put(realm.getId(), job);
+        threadFactory.newThread(job).start();
+
+        LOG.infof("Started verified claims revalidation of realm '%s'", realm.getName());
+
+        return job;
+    }
+
+    /**
+     * Gets the running or last finished job of a realm
+     * 
+     * @param realmId
+     * @return the job or null, if no job has been started for the realm
+     */
+    public RevalidationJob get(String realmId) {
+        return jobs.get(realmId);
+    }
+
+    /**
+     * Cancels every running job and deletes all the reports
+     */
+    public void close() {
+        jobs.values().forEach(job -> {
+            job.cancel();
+            job.deleteReport();
+        });
+        jobs.clear();
+    }
+}
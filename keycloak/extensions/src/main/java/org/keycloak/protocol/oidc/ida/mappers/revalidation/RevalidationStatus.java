@@ -0,0 +1,115 @@
+package org.keycloak.protocol.oidc.ida.mappers.revalidation;
+
+/**
+ * Progress and throughput of a verified claims revalidation job, as returned by the admin endpoint
+ */
+public class RevalidationStatus {
+    private String id;
+    private String realm;
+    private String state;
+    private long startedAt;
+    private Long finishedAt;
+    private int batchSize;
+    private long processedUsers;
+    private long processedAttributes;
+    private long invalidUsers;
+    private long invalidAttributes;
+    private double usersPerSecond;
+    private String failure;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getRealm() {
+        return realm;
+    }
+
+    public void setRealm(String realm) {
+        this.realm = realm;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Long finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getProcessedUsers() {
+        return processedUsers;
+    }
+
+    public void setProcessedUsers(long processedUsers) {
+        this.processedUsers = processedUsers;
+    }
+
+    public long getProcessedAttributes() {
+        return processedAttributes;
+    }
+
+    public void setProcessedAttributes(long processedAttributes) {
+        this.processedAttributes = processedAttributes;
+    }
+
+    public long getInvalidUsers() {
+        return invalidUsers;
+    }
+
+    public void setInvalidUsers(long invalidUsers) {
+        this.invalidUsers = invalidUsers;
+    }
+
+    public long getInvalidAttributes() {
+        return invalidAttributes;
+    }
+
+    public void setInvalidAttributes(long invalidAttributes) {
+        this.invalidAttributes = invalidAttributes;
+    }
+
+    public double getUsersPerSecond() {
+        return usersPerSecond;
+    }
+
+    public void setUsersPerSecond(double usersPerSecond) {
+        this.usersPerSecond = usersPerSecond;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public void setFailure(String failure) {
+        this.failure = failure;
+    }
+}
@@ -0,0 +1,267 @@
+package org.keycloak.protocol.oidc.ida.mappers.util;
+
+import org.keycloak.protocol.oidc.ida.mappers.connector.VerifiedClaimsProjection;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.EVIDENCE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.TRUST_FRAMEWORK;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.TYPE;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaHttpConnectorConstants.VERIFICATION;
+import static org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidatorConstants.ERROR_MESSAGE_DUPLICATE_KEY;
+import static org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidatorConstants.ERROR_MESSAGE_NOT_AN_OBJECT;
+import static org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidatorConstants.ERROR_MESSAGE_TRAILING_TOKENS;
+
+/**
+ * Reads the "verified_claims" elements stored in a user's attribute with a streaming parser, guided by the request 
+ * being served. Only the parts that may be released are materialized: elements of other trust frameworks, 
+ * unrequested claims and evidence of unrequested types are skipped without building their trees. The whole value is 
+ * still read, so values that are not valid JSON are rejected just like before, while duplicated keys are only 
+ * detected in the parts that are materialized.
+ */
+public class VerifiedClaimsAttributeReader {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
+
+    /**
+     * Reads the "verified_claims" elements of an attribute that may satisfy a request
+     * 
+     * @param attribute  The attribute's value, such as {"verified_claims": [...]}
+     * @param projection The summary of the request being served, or null to read every element in full
+     * @return the candidate elements, holding only the parts that may be released
+     * @throws IOException If the value is not a valid JSON object
+     */
+    public static List<JsonNode> read(String attribute, VerifiedClaimsProjection projection) throws IOException {
+        List<JsonNode> candidates = new ArrayList<>();
+
+        try (JsonParser parser = MAPPER.getFactory().createParser(attribute)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, ERROR_MESSAGE_NOT_AN_OBJECT);
+            }
+
+            boolean verifiedClaimsRead = false;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean verifiedClaims = VERIFIED_CLAIMS.equals(parser.getCurrentName());
+                JsonToken token = parser.nextToken();
+
+                if (verifiedClaims && verifiedClaimsRead) {
+                    throw new JsonParseException(parser, ERROR_MESSAGE_DUPLICATE_KEY);
+                }
+
+                verifiedClaimsRead |= verifiedClaims;
+                if (!verifiedClaims) {
+                    parser.skipChildren();
+                } else if (token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        addCandidate(candidates, readElement(parser, projection), projection);
+                    }
+                } else {
+                    addCandidate(candidates, readElement(parser, projection), projection);
+                }
+            }
+
+            if (parser.nextToken() != null) {
+                throw new JsonParseException(parser, ERROR_MESSAGE_TRAILING_TOKENS);
+            }
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Reads a single "verified_claims" element
+     * 
+     * @param parser     Positioned at the start of the element
+     * @param projection
+     * @return the element, or null if it follows a trust framework that was not requested. Elements that are not 
+     *         objects are returned as they are, so the schema rejects them
+     * @throws IOException
+     */
+    private static JsonNode readElement(JsonParser parser, VerifiedClaimsProjection projection) throws IOException {
+        if (projection == null || parser.currentToken() != JsonToken.START_OBJECT) {
+            return parser.readValueAsTree();
+        }
+
+        ObjectNode element = MAPPER.createObjectNode();
+        boolean rejected = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+
+            if (rejected) {
+            // The rest of a rejected element is only read through
+
+                parser.skipChildren();
+            } else if (VERIFICATION.equals(name) && token == JsonToken.START_OBJECT) {
+                ObjectNode verification = readVerification(parser, projection);
+                set(parser, element, name, verification);
+                rejected = verification == null;
+            } else if (CLAIMS.equals(name) && token == JsonToken.START_OBJECT) {
+                set(parser, element, name, readClaims(parser, projection));
+            } else {
+                set(parser, element, name, parser.readValueAsTree());
+            }
+        }
+
+        return rejected ? null : element;
+    }
+
+    /**
+     * Reads the "verification" element of a "verified_claims" element
+     * 
+     * @param parser     Positioned at the start of the element
+     * @param projection
+     * @return the element, or null if it follows a trust framework that was not requested
+     * @throws IOException
+     */
+    private static ObjectNode readVerification(JsonParser parser, VerifiedClaimsProjection projection) 
+            throws IOException {
+        ObjectNode verification = MAPPER.createObjectNode();
+        boolean rejected = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+
+            if (rejected) {
+                parser.skipChildren();
+            } else if (TRUST_FRAMEWORK.equals(name)) {
+                rejected = !isRequested(projection.getTrustFrameworks(), parser);
+                set(parser, verification, name, parser.readValueAsTree());
+            } else if (!EVIDENCE.equals(name) || token != JsonToken.START_ARRAY 
+                    || projection.getEvidenceTypes() == null) {
+                set(parser, verification, name, parser.readValueAsTree());
+            } else if (projection.getEvidenceTypes().isEmpty()) {
+            // If no evidence was requested, the whole evidence history is skipped
+
+                parser.skipChildren();
+            } else {
+                ArrayNode evidence = readEvidence(parser, projection);
+
+                // Evidence arrays are not allowed to be empty
+                if (!evidence.isEmpty()) {
+                    set(parser, verification, name, evidence);
+                }
+            }
+        }
+
+        return rejected ? null : verification;
+    }
+
+    private static ArrayNode readEvidence(JsonParser parser, VerifiedClaimsProjection projection) throws IOException {
+        ArrayNode evidence = MAPPER.createArrayNode();
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                evidence.add((JsonNode) parser.readValueAsTree());
+                continue;
+            }
+
+            ObjectNode evidenceElement = MAPPER.createObjectNode();
+            boolean rejected = false;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+
+                if (rejected) {
+                    parser.skipChildren();
+                } else {
+                    rejected = TYPE.equals(name) && !isRequested(projection.getEvidenceTypes(), parser);
+                    set(parser, evidenceElement, name, parser.readValueAsTree());
+                }
+            }
+
+            if (!rejected) {
+                evidence.add(evidenceElement);
+            }
+        }
+
+        return evidence;
+    }
+
+    private static ObjectNode readClaims(JsonParser parser, VerifiedClaimsProjection projection) throws IOException {
+        ObjectNode claims = MAPPER.createObjectNode();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+
+            if (projection.getClaims() == null || projection.getClaims().contains(name)) {
+                set(parser, claims, name, parser.readValueAsTree());
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return claims;
+    }
+
+    /**
+     * Checks whether the current value is one of the requested ones
+     * 
+     * @param values The requested values, or null if any value may be released
+     * @param parser Positioned at the value
+     * @return false only if the value is a string that was not requested. Other values are kept, so the schema 
+     *         rejects them
+     * @throws IOException
+     */
+    private static boolean isRequested(Set<String> values, JsonParser parser) throws IOException {
+        return values == null || parser.currentToken() != JsonToken.VALUE_STRING || values.contains(parser.getText());
+    }
+
+    /**
+     * Sets a field of an object being built, rejecting duplicated keys like the trees read by Jackson
+     * 
+     * @param parser
+     * @param object
+     * @param name
+     * @param value
+     * @throws JsonParseException If the object already has the field
+     */
+    private static void set(JsonParser parser, ObjectNode object, String name, JsonNode value) 
+            throws JsonParseException {
+        if (object.replace(name, value) != null) {
+            throw new JsonParseException(parser, ERROR_MESSAGE_DUPLICATE_KEY);
+        }
+    }
+
+    /**
+     * Adds an element to the candidates, unless it cannot release any of the requested claims
+     * 
+     * @param candidates
+     * @param element
+     * @param projection
+     */
+    private static void addCandidate(List<JsonNode> candidates, JsonNode element, VerifiedClaimsProjection projection) {
+        if (element == null) {
+            return;
+        }
+
+        JsonNode claims = element.get(CLAIMS);
+        if (projection != null && projection.getClaims() != null && claims != null && claims.isObject() 
+                && claims.isEmpty()) {
+        // If the element holds none of the requested claims
+
+            return;
+        }
+
+        candidates.add(element);
+    }
+}
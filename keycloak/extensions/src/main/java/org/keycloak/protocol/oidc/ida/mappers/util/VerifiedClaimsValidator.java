@@ -2,6 +2,8 @@ package org.keycloak.protocol.oidc.ida.mappers.util;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jboss.logging.Logger;
 
@@ -26,6 +28,9 @@ import static org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidato
 public class VerifiedClaimsValidator {
     private static final Logger LOG = Logger.getLogger(VerifiedClaimsValidator.class);
 
+    // Compiled schemas, indexed by their resource path. Schemas never change at runtime, so each one is compiled once
+    private static final Map<String, Schema> COMPILED_SCHEMAS = new ConcurrentHashMap<>();
+
     /**
      * Validates a JSON "verified_claims" object
      * 
@@ -34,15 +39,10 @@ public class VerifiedClaimsValidator {
      * @throws ValidationException
      */
     public static void validateVerifiedClaims(JsonNode verifiedClaims) throws ValidationException, GenerationException {
-        try {
-            JsonNode schema = new ObjectMapper().readTree(VerifiedClaimsValidator.class.getResourceAsStream(VERIFIED_CLAIMS_SCHEMA_PATH));
+        Schema schema = getSchema(VERIFIED_CLAIMS_SCHEMA_PATH, ERROR_MESSAGE_VERIFIED_CLAIMS_SCHEMA_NOT_FOUND);
 
+        if (schema != null) {
             validateJson(verifiedClaims, schema);
-        } catch (IOException e) {
-        // This shouldn't happen
-
-            LOG.error(ERROR_MESSAGE_VERIFIED_CLAIMS_SCHEMA_NOT_FOUND);
-            e.printStackTrace();
         }
     }
 
@@ -54,27 +54,65 @@ public class VerifiedClaimsValidator {
      * @throws ValidationException
      */
     public static void validateVerifiedClaimsRequest(JsonNode requestedVerifiedClaims) throws ValidationException, GenerationException {
-        try {
-            JsonNode schema = new ObjectMapper().readTree(VerifiedClaimsValidator.class.getResourceAsStream(REQUEST_SCHEMA_PATH));
+        Schema schema = getSchema(REQUEST_SCHEMA_PATH, ERROR_MESSAGE_REQUEST_SCHEMA_NOT_FOUND);
 
+        if (schema != null) {
             validateJson(requestedVerifiedClaims, schema);
+        }
+    }
+
+    /**
+     * Compiles every schema ahead of its first use
+     * 
+     * @throws GenerationException
+     */
+    public static void compileSchemas() throws GenerationException {
+        getSchema(VERIFIED_CLAIMS_SCHEMA_PATH, ERROR_MESSAGE_VERIFIED_CLAIMS_SCHEMA_NOT_FOUND);
+        getSchema(REQUEST_SCHEMA_PATH, ERROR_MESSAGE_REQUEST_SCHEMA_NOT_FOUND);
+    }
+
+    /**
+     * Gets a compiled schema from the resources' directory, compiling it on first use
+     * 
+     * @param schemaPath
+     * @param notFoundMessage
+     * @return the compiled schema or null, if the schema file could not be read
+     * @throws GenerationException
+     */
+    private static Schema getSchema(String schemaPath, String notFoundMessage) throws GenerationException {
+        Schema schema = COMPILED_SCHEMAS.get(schemaPath);
+
+        if (schema != null) {
+        // If the schema has already been compiled
+
+            return schema;
+        }
+
+        try {
+            JsonNode schemaJson = new ObjectMapper().readTree(VerifiedClaimsValidator.class.getResourceAsStream(schemaPath));
+
+            // Concurrent first calls may compile the same schema twice, which is harmless
+            schema = compileSchema(schemaJson);
+            COMPILED_SCHEMAS.put(schemaPath, schema);
+
+            return schema;
         } catch (IOException e) {
         // This shouldn't happen
 
-            LOG.error(ERROR_MESSAGE_REQUEST_SCHEMA_NOT_FOUND);
+            LOG.error(notFoundMessage);
             e.printStackTrace();
+            return null;
         }
     }
 
     /**
-     * Validates a JSON Object based on a schema
+     * Compiles a JSON schema, resolving its references through the resources' directory
      * 
-     * @param json
      * @param schema
+     * @return
      * @throws GenerationException
-     * @throws ValidationException
      */
-    private static void validateJson(JsonNode json, JsonNode schema) throws ValidationException, GenerationException {
+    private static Schema compileSchema(JsonNode schema) throws GenerationException {
         // This is a custom loader that retrieves the schemas being referenced through the resources' directory
         Loader resourcesLoader = new Loader() {
             @Override
@@ -88,12 +126,24 @@ public class VerifiedClaimsValidator {
             }
         };
 
-        // Load the schema and create a new validator
+        // Load the schema
         SchemaStore schemaStore = new SchemaStore(resourcesLoader);
-        Schema convertedSchema = schemaStore.loadSchemaJson(schema.toString());
+        return schemaStore.loadSchemaJson(schema.toString());
+    }
+
+    /**
+     * Validates a JSON Object based on a compiled schema
+     * 
+     * @param json
+     * @param schema
+     * @throws GenerationException
+     * @throws ValidationException
+     */
+    private static void validateJson(JsonNode json, Schema schema) throws ValidationException, GenerationException {
+        // Validators hold no state between calls, so a new one is created for each validation
         Validator validator = new Validator();
 
         // Validates the JSON
-        validator.validateJson(convertedSchema, json.toString());
+        validator.validateJson(schema, json.toString());
     }
 }
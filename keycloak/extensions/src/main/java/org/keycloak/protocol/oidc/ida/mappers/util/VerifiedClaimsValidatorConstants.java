@@ -9,4 +9,7 @@ public class VerifiedClaimsValidatorConstants {
     // Error messages
     public static final String ERROR_MESSAGE_REQUEST_SCHEMA_NOT_FOUND = "The schema file for verified claims' request could not be found!";
     public static final String ERROR_MESSAGE_VERIFIED_CLAIMS_SCHEMA_NOT_FOUND = "The schema file for verified claims could not be found!";
+    public static final String ERROR_MESSAGE_NOT_AN_OBJECT = "The stored verified claims are not a JSON object.";
+    public static final String ERROR_MESSAGE_DUPLICATE_KEY = "The stored verified claims have a duplicated key.";
+    public static final String ERROR_MESSAGE_TRAILING_TOKENS = "The stored verified claims are followed by trailing tokens.";
 }
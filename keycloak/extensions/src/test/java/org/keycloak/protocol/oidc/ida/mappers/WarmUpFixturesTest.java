@@ -0,0 +1,39 @@
+package org.keycloak.protocol.oidc.ida.mappers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.USERINFO;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.WARM_UP_REQUEST_PATH;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.WARM_UP_USER_CLAIMS_PATH;
+import static org.keycloak.protocol.oidc.utils.OIDCResponseType.ID_TOKEN;
+
+class WarmUpFixturesTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void bundlesTheWarmUpFixtures() throws IOException {
+        JsonNode request = read(WARM_UP_REQUEST_PATH);
+        JsonNode userClaims = read(WARM_UP_USER_CLAIMS_PATH);
+
+        // The warm-up serves both endpoints from the bundled user's claims
+        assertNotNull(request.path(USERINFO).get(VERIFIED_CLAIMS));
+        assertNotNull(request.path(ID_TOKEN).get(VERIFIED_CLAIMS));
+        assertNotNull(userClaims.get(VERIFIED_CLAIMS));
+    }
+
+    private static JsonNode read(String path) throws IOException {
+        try (InputStream in = IdaProtocolMapper.class.getResourceAsStream(path)) {
+            assertNotNull(in, path);
+
+            return MAPPER.readTree(in);
+        }
+    }
+}
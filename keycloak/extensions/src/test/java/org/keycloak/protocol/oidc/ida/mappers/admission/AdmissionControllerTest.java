@@ -0,0 +1,50 @@
+package org.keycloak.protocol.oidc.ida.mappers.admission;
+
+import org.keycloak.protocol.oidc.ida.mappers.metrics.IdaMetrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdmissionControllerTest {
+    private static final String REALM_ID = "realm";
+    private static final String CLIENT_ID = "client";
+
+    @Test
+    void keepsSeparateLimitersForEachMapperOfAClient() {
+        AdmissionController controller = new AdmissionController(AdmissionLimits.UNLIMITED, IdaMetrics.getInstance());
+        AdmissionLimits clientMapperLimits = new AdmissionLimits(0.001, 1, 0);
+        AdmissionLimits scopeMapperLimits = new AdmissionLimits(0.001, 2, 0);
+
+        // Alternating between the mappers must not reset their token buckets
+        assertNotNull(controller.tryAdmit(REALM_ID, CLIENT_ID, "client-mapper", clientMapperLimits));
+        assertNotNull(controller.tryAdmit(REALM_ID, CLIENT_ID, "scope-mapper", scopeMapperLimits));
+        assertNull(controller.tryAdmit(REALM_ID, CLIENT_ID, "client-mapper", clientMapperLimits));
+        assertNotNull(controller.tryAdmit(REALM_ID, CLIENT_ID, "scope-mapper", scopeMapperLimits));
+        assertNull(controller.tryAdmit(REALM_ID, CLIENT_ID, "scope-mapper", scopeMapperLimits));
+        assertNull(controller.tryAdmit(REALM_ID, CLIENT_ID, "client-mapper", clientMapperLimits));
+    }
+
+    @Test
+    void rebuildsTheLimiterWhenTheMapperLimitsChange() {
+        AdmissionController controller = new AdmissionController(AdmissionLimits.UNLIMITED, IdaMetrics.getInstance());
+
+        assertNotNull(controller.tryAdmit(REALM_ID, CLIENT_ID, "mapper", new AdmissionLimits(0.001, 1, 0)));
+        assertNull(controller.tryAdmit(REALM_ID, CLIENT_ID, "mapper", new AdmissionLimits(0.001, 1, 0)));
+        assertNotNull(controller.tryAdmit(REALM_ID, CLIENT_ID, "mapper", new AdmissionLimits(0.001, 5, 0)));
+    }
+
+    @Test
+    void discardsEveryLimiterOfARemovedClient() {
+        AdmissionController controller = new AdmissionController(AdmissionLimits.UNLIMITED, IdaMetrics.getInstance());
+        AdmissionLimits limits = new AdmissionLimits(0.001, 1, 0);
+
+        assertNotNull(controller.tryAdmit(REALM_ID, CLIENT_ID, "mapper", limits));
+        assertNull(controller.tryAdmit(REALM_ID, CLIENT_ID, "mapper", limits));
+
+        controller.removeClient(CLIENT_ID);
+
+        assertNotNull(controller.tryAdmit(REALM_ID, CLIENT_ID, "mapper", limits));
+    }
+}
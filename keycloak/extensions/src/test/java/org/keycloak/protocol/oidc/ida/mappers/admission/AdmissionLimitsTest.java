@@ -0,0 +1,32 @@
+package org.keycloak.protocol.oidc.ida.mappers.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AdmissionLimitsTest {
+    @Test
+    void parsesDecimalRatesAndIntegerCounts() {
+        assertEquals(new AdmissionLimits(2.5, 4, 8), AdmissionLimits.parse(" 2.5 ", "4", " 8"));
+
+        // Without a burst, the rate rounded up is used
+        assertEquals(3, AdmissionLimits.parse("2.5", "", null).getBurst());
+        assertSame(AdmissionLimits.UNLIMITED, AdmissionLimits.parse("0", " ", null));
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> AdmissionLimits.parse("NaN", "0", "0"));
+        assertThrows(IllegalArgumentException.class, () -> AdmissionLimits.parse("Infinity", "0", "0"));
+        assertThrows(IllegalArgumentException.class, () -> AdmissionLimits.parse("-1", "0", "0"));
+        assertThrows(IllegalArgumentException.class, () -> AdmissionLimits.parse("one", "0", "0"));
+
+        // Counts are no longer truncated
+        assertThrows(IllegalArgumentException.class, () -> AdmissionLimits.parse("1", "1.5", "0"));
+        assertThrows(IllegalArgumentException.class, () -> AdmissionLimits.parse("1", "0", "1e3"));
+        assertThrows(IllegalArgumentException.class, () -> AdmissionLimits.parse("1", "0", "3000000000"));
+        assertThrows(IllegalArgumentException.class, () -> AdmissionLimits.parse("1", "-2", "0"));
+    }
+}
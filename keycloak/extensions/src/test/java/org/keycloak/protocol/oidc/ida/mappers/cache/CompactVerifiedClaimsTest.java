@@ -0,0 +1,52 @@
+package org.keycloak.protocol.oidc.ida.mappers.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactVerifiedClaimsTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void roundTripsTheBundledVerifiedClaims() throws IOException {
+        JsonNode verifiedClaims;
+        try (InputStream in = CompactVerifiedClaimsTest.class.getResourceAsStream("/user_claims.json")) {
+            verifiedClaims = MAPPER.readTree(in);
+        }
+
+        CompactVerifiedClaims encoded = CompactVerifiedClaims.encode(new ClaimsDictionary(1024), verifiedClaims);
+
+        assertEquals(verifiedClaims, encoded.toJsonNode());
+        assertTrue(encoded.size() < MAPPER.writeValueAsBytes(verifiedClaims).length);
+    }
+
+    @Test
+    void keepsTheTypeOfNumbers() throws IOException {
+        JsonNode verifiedClaims = MAPPER.readTree("{\"int\": 1, \"negative\": -7, \"long\": 4294967296, "
+            + "\"double\": 1.0, \"fraction\": 0.25, \"big\": 123456789012345678901234567890, "
+            + "\"array\": [1, 1.0, -1.5e3]}");
+
+        JsonNode decoded = CompactVerifiedClaims.encode(new ClaimsDictionary(1024), verifiedClaims).toJsonNode();
+
+        assertEquals(verifiedClaims, decoded);
+        assertEquals("1.0", decoded.get("double").toString());
+        assertEquals("123456789012345678901234567890", decoded.get("big").toString());
+    }
+
+    @Test
+    void roundTripsWhenTheDictionaryIsFull() throws IOException {
+        JsonNode verifiedClaims = MAPPER.readTree("{\"verification\": {\"trust_framework\": \"eidas\"}, "
+            + "\"claims\": {\"given_name\": \"Max\", \"nationalities\": [\"DE\", \"FR\"], \"address\": null}}");
+
+        JsonNode decoded = CompactVerifiedClaims.encode(new ClaimsDictionary(2), verifiedClaims).toJsonNode();
+
+        assertEquals(verifiedClaims, decoded);
+    }
+}
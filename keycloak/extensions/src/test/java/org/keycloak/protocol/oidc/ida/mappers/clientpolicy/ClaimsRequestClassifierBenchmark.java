@@ -0,0 +1,72 @@
+package org.keycloak.protocol.oidc.ida.mappers.clientpolicy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading a client session's classification of its "claims" parameter, matched by the parameter's length and 
+ * fingerprint, compared with the former String.hashCode() match and with classifying the parameter again. The 
+ * fingerprint is computed once per token, since the mapper passes it on to find the validated request, so it is 
+ * included in the note's cost. Runs with {@code org.openjdk.jmh.Main ClaimsRequestClassifierBenchmark} on the test 
+ * classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClaimsRequestClassifierBenchmark {
+    private static final String OTHER_CLAIMS = "\"email\": null, \"phone_number\": {\"essential\": true}, ";
+    private static final String VERIFIED_CLAIMS = "\"verified_claims\": {\"verification\": {\"trust_framework\": null, "
+        + "\"evidence\": [{\"type\": {\"value\": \"document\"}}]}, \"claims\": {\"given_name\": null, "
+        + "\"family_name\": null, \"birthdate\": null}}";
+
+    // Number of other claims requested along with the verified claims
+    @Param({ "0", "16" })
+    public int otherClaims;
+
+    private String claims;
+    private String note;
+    private String hashCodeNote;
+
+    @Setup
+    public void setUp() {
+        claims = "{\"userinfo\": {" + OTHER_CLAIMS.repeat(otherClaims) + VERIFIED_CLAIMS + "}, \"id_token\": {" 
+            + OTHER_CLAIMS.repeat(otherClaims) + "\"auth_time\": null}}";
+        int flags = ClaimsRequestClassifier.classify(claims);
+        note = claims.length() + ":" + ValidatedClaimsRequests.fingerprint(claims) + ":" + flags;
+        hashCodeNote = Integer.toHexString(claims.hashCode()) + ":" + flags;
+    }
+
+    @Benchmark
+    public int fingerprintNote() {
+        return ClaimsRequestClassifier.getClassification(note, claims, ValidatedClaimsRequests.fingerprint(claims));
+    }
+
+    @Benchmark
+    public int classify() {
+        return ClaimsRequestClassifier.classify(claims);
+    }
+
+    @Benchmark
+    public int hashCodeNote() {
+        // The former note, matched by the parameter's 32-bit hash only
+        int separator = hashCodeNote.indexOf(':');
+
+        return Integer.parseUnsignedInt(hashCodeNote, 0, separator, 16) == claims.hashCode() 
+            ? Integer.parseInt(hashCodeNote, separator + 1, hashCodeNote.length(), 10) 
+            : -1;
+    }
+}
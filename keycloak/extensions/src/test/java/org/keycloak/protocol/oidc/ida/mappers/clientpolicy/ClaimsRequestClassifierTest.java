@@ -0,0 +1,135 @@
+package org.keycloak.protocol.oidc.ida.mappers.clientpolicy;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.models.AuthenticatedClientSessionModel;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestConstants.ID_TOKEN_FLAG;
+import static org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestConstants.USERINFO_FLAG;
+
+class ClaimsRequestClassifierTest {
+    @Test
+    void findsTheEndpointsRequestingVerifiedClaims() {
+        assertEquals(USERINFO_FLAG, ClaimsRequestClassifier.classify(
+            "{\"userinfo\": {\"verified_claims\": {\"claims\": {\"given_name\": null}}}, \"id_token\": {\"email\": null}}"));
+        assertEquals(USERINFO_FLAG | ID_TOKEN_FLAG, ClaimsRequestClassifier.classify(
+            "{\"id_token\": {\"verified_claims\": []}, \"userinfo\": {\"email\": null, \"verified_claims\": null}}"));
+        assertEquals(0, ClaimsRequestClassifier.classify("{\"id_token\": {\"email\": null}}"));
+    }
+
+    @Test
+    void readsEscapedKeys() {
+        assertEquals(ID_TOKEN_FLAG, ClaimsRequestClassifier.classify(
+            "{\"id\\u005ftoken\": {\"verified\\u005Fclaims\": {\"claims\": {\"given_name\": null}}}}"));
+        assertTrue(requestsVerifiedClaims(createClientSession(), 
+            "{\"userinfo\": {\"verified\\u005fclaims\": {}}}", "userinfo"));
+    }
+
+    @Test
+    void onlyInspectsTheMembersOfEndpointObjects() {
+        assertEquals(0, ClaimsRequestClassifier.classify(
+            "{\"id_token\": [\"verified_claims\"], \"userinfo\": \"verified_claims\", \"verified_claims\": {}}"));
+        assertEquals(0, ClaimsRequestClassifier.classify(
+            "{\"userinfo\": {\"given_name\": {\"verified_claims\": {}}, \"email\": [{\"verified_claims\": null}]}}"));
+        assertEquals(ID_TOKEN_FLAG, ClaimsRequestClassifier.classify(
+            "{\"userinfo\": [{\"verified_claims\": {}}], \"id_token\": {\"verified_claims\": {}}}"));
+    }
+
+    @Test
+    void leavesInvalidParametersToTheCaller() {
+        assertEquals(USERINFO_FLAG | ID_TOKEN_FLAG, ClaimsRequestClassifier.classify("{\"userinfo\": {\"verified_claims\""));
+        assertEquals(USERINFO_FLAG | ID_TOKEN_FLAG, ClaimsRequestClassifier.classify("[\"verified_claims\"]"));
+        assertEquals(USERINFO_FLAG | ID_TOKEN_FLAG, ClaimsRequestClassifier.classify("verified_claims"));
+        assertTrue(requestsVerifiedClaims(createClientSession(), "{verified_claims", "id_token"));
+    }
+
+    @Test
+    void classifiesAgainWhenTheParameterChanges() {
+        // Both parameters have the same length and the same String.hashCode()
+        String userinfo = "{\"userinfo\": {\"verified_claims\": {}}}";
+        String other = "{\"useringP\": {\"verified_claims\": {}}}";
+        assertEquals(userinfo.hashCode(), other.hashCode());
+
+        AuthenticatedClientSessionModel clientSession = createClientSession();
+
+        assertTrue(requestsVerifiedClaims(clientSession, userinfo, "userinfo"));
+        assertFalse(requestsVerifiedClaims(clientSession, other, "userinfo"));
+        assertTrue(requestsVerifiedClaims(clientSession, userinfo, "userinfo"));
+    }
+
+    @Test
+    void ignoresNotesThatCannotBeRead() {
+        String claims = "{\"userinfo\": {\"verified_claims\": {}}}";
+        String fingerprint = ValidatedClaimsRequests.fingerprint(claims);
+
+        assertEquals(-1, ClaimsRequestClassifier.getClassification("1a2b:3", claims, fingerprint));
+        assertEquals(-1, ClaimsRequestClassifier.getClassification(claims.length() + ":" + fingerprint, claims, 
+            fingerprint));
+        assertEquals(-1, ClaimsRequestClassifier.getClassification(claims.length() + ":x" + fingerprint + ":1", claims, 
+            fingerprint));
+        assertEquals(USERINFO_FLAG, ClaimsRequestClassifier.getClassification(
+            claims.length() + ":" + fingerprint + ":" + USERINFO_FLAG, claims, fingerprint));
+    }
+
+    @Test
+    void comparesTheLengthBeforeTheFingerprint() {
+        String claims = "{\"userinfo\": {\"verified_claims\": {}}}";
+        String fingerprint = ValidatedClaimsRequests.fingerprint(claims);
+        String note = claims.length() + ":" + fingerprint + ":" + USERINFO_FLAG;
+
+        // Notes made for another parameter never match, and those of another length never reach the fingerprint
+        assertEquals(-1, ClaimsRequestClassifier.getClassification(note, claims + " ", null));
+        assertEquals(-1, ClaimsRequestClassifier.getClassification(note, claims.replace('u', 'v'),
+            ValidatedClaimsRequests.fingerprint(claims.replace('u', 'v'))));
+
+        // Parameters that cannot request verified claims are never fingerprinted
+        assertFalse(ClaimsRequestClassifier.mayRequestVerifiedClaims("{\"userinfo\": {\"email\": null}}", "userinfo"));
+        assertFalse(ClaimsRequestClassifier.mayRequestVerifiedClaims(claims, "access_token"));
+    }
+
+    /**
+     * Checks whether a parameter requests verified claims the way the mapper does, fingerprinting it only once it 
+     * mentions verified claims
+     *
+     * @param clientSession
+     * @param claims
+     * @param endpointKey
+     * @return
+     */
+    private static boolean requestsVerifiedClaims(AuthenticatedClientSessionModel clientSession, String claims, 
+            String endpointKey) {
+        return ClaimsRequestClassifier.mayRequestVerifiedClaims(claims, endpointKey) 
+            && ClaimsRequestClassifier.requestsVerifiedClaims(clientSession, claims, 
+                ValidatedClaimsRequests.fingerprint(claims), endpointKey);
+    }
+
+    /**
+     * Creates a client session answering only the note operations
+     *
+     * @return
+     */
+    private static AuthenticatedClientSessionModel createClientSession() {
+        Map<String, String> notes = new HashMap<>();
+
+        return (AuthenticatedClientSessionModel) Proxy.newProxyInstance(
+            AuthenticatedClientSessionModel.class.getClassLoader(), 
+            new Class<?>[] { AuthenticatedClientSessionModel.class },
+            (instance, method, args) -> {
+                switch (method.getName()) {
+                    case "getNote":
+                        return notes.get((String) args[0]);
+                    case "setNote":
+                        notes.put((String) args[0], (String) args[1]);
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+}
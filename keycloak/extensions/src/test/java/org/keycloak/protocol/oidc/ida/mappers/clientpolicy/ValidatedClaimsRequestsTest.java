@@ -0,0 +1,42 @@
+package org.keycloak.protocol.oidc.ida.mappers.clientpolicy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.keycloak.protocol.oidc.ida.mappers.clientpolicy.ClaimsRequestConstants.VALIDATED_REQUEST_MAX_PARSED_LENGTH;
+
+class ValidatedClaimsRequestsTest {
+    private static final String CLAIMS = "{\"id_token\": {\"verified_claims\": {\"verification\": "
+        + "{\"trust_framework\": null}, \"claims\": {\"given_name\": null}}}}";
+
+    @Test
+    void forgetsTheLeastRecentlyUsedRequests() throws IOException {
+        ValidatedClaimsRequests requests = new ValidatedClaimsRequests(2);
+        JsonNode requestedClaims = ValidatedClaimsRequests.parse(CLAIMS);
+
+        requests.put("a", CLAIMS, requestedClaims);
+        requests.put("b", CLAIMS, requestedClaims);
+        requests.get("a");
+        requests.put("c", CLAIMS, requestedClaims);
+
+        assertEquals(requestedClaims, requests.get("a"));
+        assertNull(requests.get("b"));
+        assertEquals(requestedClaims, requests.get("c"));
+    }
+
+    @Test
+    void onlyMarksLargeRequestsAsValidated() throws IOException {
+        ValidatedClaimsRequests requests = new ValidatedClaimsRequests(2);
+        String largeClaims = CLAIMS + " ".repeat(VALIDATED_REQUEST_MAX_PARSED_LENGTH);
+
+        requests.put("large", largeClaims, ValidatedClaimsRequests.parse(largeClaims));
+
+        assertTrue(requests.get("large").isMissingNode());
+    }
+}
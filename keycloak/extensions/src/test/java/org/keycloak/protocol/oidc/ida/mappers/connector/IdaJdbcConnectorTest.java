@@ -0,0 +1,211 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.models.KeycloakContext;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.protocol.ProtocolMapperConfigException;
+import org.keycloak.protocol.oidc.ida.mappers.connector.jdbc.JdbcConnectionPool;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.QUERY_REALM_CONDITION;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.QUERY_VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.connector.IdaJdbcConnectorConstants.QUERY_VERIFIED_CLAIMS_BATCH;
+
+class IdaJdbcConnectorTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String EIDAS = "{\"verification\": {\"trust_framework\": \"eidas\"}, "
+        + "\"claims\": {\"given_name\": \"Max\"}}";
+    private static final String UK_DIATF = "{\"verification\": {\"trust_framework\": \"uk_diatf\"}, "
+        + "\"claims\": {\"family_name\": \"Meier\"}}";
+    // Has no trust framework, so it does not match the verified claims' schema
+    private static final String INVALID = "{\"verification\": {}, \"claims\": {\"given_name\": \"Max\"}}";
+    private static final String QUERY = String.format(QUERY_VERIFIED_CLAIMS, "verified_claims", "user_id",
+        "verified_claims") + String.format(QUERY_REALM_CONDITION, "realm");
+    private static final String BATCH_QUERY = String.format(QUERY_VERIFIED_CLAIMS_BATCH, "verified_claims", "user_id",
+        "verified_claims", "%s") + String.format(QUERY_REALM_CONDITION, "realm");
+
+    private String url;
+    private Connection keepAlive;
+    private JdbcConnectionPool pool;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void createDatabase() throws SQLException {
+        // The in-memory database lives as long as a connection to it is open
+        url = "jdbc:h2:mem:" + UUID.randomUUID();
+        keepAlive = DriverManager.getConnection(url);
+
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("CREATE TABLE verified_claims (user_id VARCHAR(255), realm VARCHAR(255), "
+                + "verified_claims CLOB)");
+        }
+
+        insert("alice", "ida", EIDAS);
+        insert("alice", "ida", "{\"verified_claims\": " + UK_DIATF + "}");
+        insert("bob", "ida", EIDAS);
+        insert("carol", "ida", "[" + UK_DIATF + "]");
+        insert("dave", "ida", INVALID);
+        insert("dave", "ida", EIDAS);
+        insert("erin", "ida", "{not json");
+        insert("erin", "ida", UK_DIATF);
+        insert("mallory", "other", EIDAS);
+        insert("bob", "other", UK_DIATF);
+
+        pool = new JdbcConnectionPool(url, new Properties(), 2, 1000, 30000);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void dropDatabase() throws SQLException, InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        pool.close();
+        keepAlive.close();
+    }
+
+    @Test
+    void getsASingleUsersRows() throws IOException {
+        IdaJdbcConnector connector = createConnector("ida", null, 500);
+
+        assertEquals(verifiedClaims(EIDAS), connector.getVerifiedClaims(Collections.emptyMap(), "bob"));
+        assertEquals(verifiedClaims("[" + EIDAS + ", " + UK_DIATF + "]"),
+            connector.getVerifiedClaims(Collections.emptyMap(), "alice"));
+        assertEquals(verifiedClaims(UK_DIATF), connector.getVerifiedClaims(Collections.emptyMap(), "carol"));
+        assertNull(connector.getVerifiedClaims(Collections.emptyMap(), "nobody"));
+    }
+
+    @Test
+    void getsASingleUsersRowsAsynchronously() throws Exception {
+        IdaJdbcConnector connector = createConnector("ida", null, 500);
+
+        assertEquals(verifiedClaims(EIDAS),
+            connector.getVerifiedClaimsAsync(Collections.emptyMap(), "bob").get(5, TimeUnit.SECONDS));
+        assertNull(connector.getVerifiedClaimsAsync(Collections.emptyMap(), "nobody").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void getsManyUsersRowsThroughPaddedBatches() throws IOException {
+        // 3 users are queried with 4 parameters, repeating the last user
+        IdaJdbcConnector connector = createConnector("ida", null, 4);
+
+        Map<String, JsonNode> three = connector.getVerifiedClaimsBatch(Collections.emptyMap(),
+            Arrays.asList("alice", "bob", "carol"));
+
+        assertEquals(Set.of("alice", "bob", "carol"), three.keySet());
+        assertEquals(verifiedClaims(EIDAS), three.get("bob"));
+        assertEquals(verifiedClaims(UK_DIATF), three.get("carol"));
+
+        // 6 distinct users are split into batches of 4 and 2, which need no padding
+        Map<String, JsonNode> six = connector.getVerifiedClaimsBatch(Collections.emptyMap(),
+            Arrays.asList("alice", "bob", "carol", "nobody", "bob", "mallory", "dave"));
+
+        assertEquals(Set.of("alice", "bob", "carol", "dave"), six.keySet());
+        assertEquals(three.get("alice"), six.get("alice"));
+
+        // 7 distinct users are split into batches of 4 and 3, the second one padded to 4 parameters with "erin"
+        Map<String, JsonNode> seven = connector.getVerifiedClaimsBatch(Collections.emptyMap(),
+            Arrays.asList("alice", "bob", "carol", "nobody", "mallory", "dave", "erin"));
+
+        assertEquals(Set.of("alice", "bob", "carol", "dave", "erin"), seven.keySet());
+        assertEquals(verifiedClaims(EIDAS), seven.get("dave"));
+
+        // The repeated parameter matches the same rows once
+        assertEquals(verifiedClaims(UK_DIATF), seven.get("erin"));
+    }
+
+    @Test
+    void leavesOutOnlyTheRowsThatAreNotValid() throws IOException {
+        IdaJdbcConnector connector = createConnector("ida", null, 500);
+
+        assertEquals(verifiedClaims(EIDAS), connector.getVerifiedClaims(Collections.emptyMap(), "dave"));
+        assertEquals(verifiedClaims(UK_DIATF), connector.getVerifiedClaims(Collections.emptyMap(), "erin"));
+    }
+
+    @Test
+    void onlyGetsTheRowsOfTheRealmBeingServed() throws IOException {
+        IdaJdbcConnector connector = createConnector("other", null, 500);
+
+        assertEquals(verifiedClaims(UK_DIATF), connector.getVerifiedClaims(Collections.emptyMap(), "bob"));
+        assertNull(connector.getVerifiedClaims(Collections.emptyMap(), "alice"));
+    }
+
+    @Test
+    void rejectsRealmsThatAreNotAllowed() throws ProtocolMapperConfigException {
+        IdaJdbcConnector allowed = createConnector("ida", Set.of("ida"), 500);
+        IdaJdbcConnector notAllowed = createConnector("other", Set.of("ida"), 500);
+
+        allowed.validateIdaExternalStore(Collections.emptyMap());
+        assertThrows(ProtocolMapperConfigException.class,
+            () -> notAllowed.validateIdaExternalStore(Collections.emptyMap()));
+        assertTrue(notAllowed.getVerifiedClaimsBatch(Collections.emptyMap(), List.of("mallory")).isEmpty());
+    }
+
+    private IdaJdbcConnector createConnector(String realm, Set<String> realms, int batchSize) {
+        return new IdaJdbcConnector(createSession(realm), pool, QUERY, BATCH_QUERY, true, realms, batchSize, 5,
+            executor);
+    }
+
+    private void insert(String userId, String realm, String json) throws SQLException {
+        try (PreparedStatement statement = keepAlive.prepareStatement("INSERT INTO verified_claims VALUES (?, ?, ?)")) {
+            statement.setString(1, userId);
+            statement.setString(2, realm);
+            statement.setString(3, json);
+            statement.executeUpdate();
+        }
+    }
+
+    private static JsonNode verifiedClaims(String element) throws IOException {
+        return MAPPER.createObjectNode().set("verified_claims", MAPPER.readTree(element));
+    }
+
+    /**
+     * Creates a session bound to a realm, answering only what the connector uses
+     *
+     * @param realmName
+     * @return
+     */
+    private static KeycloakSession createSession(String realmName) {
+        RealmModel realm = proxy(RealmModel.class, "getName", realmName);
+        KeycloakContext context = proxy(KeycloakContext.class, "getRealm", realm);
+
+        return proxy(KeycloakSession.class, "getContext", context);
+    }
+
+    private static <T> T proxy(Class<T> type, String method, Object result) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+            (instance, invoked, args) -> {
+                if (invoked.getName().equals(method)) {
+                    return result;
+                }
+
+                throw new UnsupportedOperationException(invoked.getName());
+            }));
+    }
+}
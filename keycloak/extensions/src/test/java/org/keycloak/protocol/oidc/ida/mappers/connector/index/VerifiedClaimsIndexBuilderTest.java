@@ -0,0 +1,66 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Builds indexes from small datasets, whose records are keyed by username only
+ */
+class VerifiedClaimsIndexBuilderTest {
+    private static final String VERIFIED_CLAIMS = "{\"verified_claims\":{\"verification\":"
+        + "{\"trust_framework\":\"uk_diatf\"},\"claims\":{\"given_name\":\"Sarah\"}}}";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keysTheRecordsByUsername() throws IOException {
+        VerifiedClaimsIndex index = build(List.of(
+            "{\"username\": \"ida_user\", \"userId\": \"8f0c2f3e\", " + VERIFIED_CLAIMS.substring(1),
+            "{\"username\": \"other_user\", " + VERIFIED_CLAIMS.substring(1)), 0);
+
+        assertEquals(2, index.size());
+        assertEquals(VERIFIED_CLAIMS, new String(index.get("ida_user"), StandardCharsets.UTF_8));
+        assertEquals(VERIFIED_CLAIMS, new String(index.get("other_user"), StandardCharsets.UTF_8));
+
+        // The user's ID is never a key, even when the record carries one
+        assertNull(index.get("8f0c2f3e"));
+    }
+
+    @Test
+    void skipsTheRecordsIdentifiedByTheirUserIdOnly() throws IOException {
+        VerifiedClaimsIndex index = build(List.of(
+            "{\"userId\": \"8f0c2f3e\", " + VERIFIED_CLAIMS.substring(1),
+            "{\"username\": \"ida_user\", " + VERIFIED_CLAIMS.substring(1),
+            VERIFIED_CLAIMS), 2);
+
+        assertEquals(1, index.size());
+        assertNull(index.get("8f0c2f3e"));
+    }
+
+    /**
+     * Builds the index of a dataset
+     *
+     * @param lines
+     * @param skipped The number of lines expected to be skipped
+     * @return
+     * @throws IOException
+     */
+    private VerifiedClaimsIndex build(List<String> lines, int skipped) throws IOException {
+        Path source = Files.write(directory.resolve("dataset.ndjson"), lines, StandardCharsets.UTF_8);
+        Path target = directory.resolve("dataset.idx");
+
+        assertEquals(skipped, new VerifiedClaimsIndexBuilder().build(source, target));
+
+        return VerifiedClaimsIndex.open(target);
+    }
+}
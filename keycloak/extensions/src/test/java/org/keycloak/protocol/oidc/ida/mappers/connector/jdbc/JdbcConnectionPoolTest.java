@@ -0,0 +1,81 @@
+package org.keycloak.protocol.oidc.ida.mappers.connector.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JdbcConnectionPoolTest {
+    private static final String QUERY = "SELECT 1";
+
+    private String url;
+    private Connection keepAlive;
+
+    @BeforeEach
+    void createDatabase() throws SQLException {
+        // The in-memory database lives as long as a connection to it is open
+        url = "jdbc:h2:mem:" + UUID.randomUUID();
+        keepAlive = DriverManager.getConnection(url);
+    }
+
+    @AfterEach
+    void dropDatabase() throws SQLException {
+        keepAlive.close();
+    }
+
+    @Test
+    void reusesRecentlyReleasedConnectionsWithoutValidatingThem() throws SQLException {
+        try (JdbcConnectionPool pool = new JdbcConnectionPool(url, new Properties(), 1, 1000, 60000)) {
+            JdbcConnectionPool.PooledConnection connection = dropWhileBorrowed(pool);
+
+            // The connection was idle for less than the threshold, so its failure is only noticed when a statement is
+            // prepared on it
+            JdbcConnectionPool.PooledConnection reused = pool.acquire();
+            assertSame(connection, reused);
+            assertThrows(SQLException.class, () -> reused.prepare(QUERY + " + 1"));
+            pool.release(reused, true);
+
+            // Connections that failed are closed instead of reused
+            JdbcConnectionPool.PooledConnection opened = pool.acquire();
+            assertNotSame(connection, opened);
+            opened.prepare(QUERY).executeQuery().close();
+            pool.release(opened, false);
+        }
+    }
+
+    @Test
+    void validatesConnectionsIdlePastTheThreshold() throws SQLException {
+        try (JdbcConnectionPool pool = new JdbcConnectionPool(url, new Properties(), 1, 1000, 0)) {
+            JdbcConnectionPool.PooledConnection connection = dropWhileBorrowed(pool);
+
+            JdbcConnectionPool.PooledConnection opened = pool.acquire();
+            assertNotSame(connection, opened);
+            opened.prepare(QUERY).executeQuery().close();
+            pool.release(opened, false);
+        }
+    }
+
+    /**
+     * Borrows a connection and gives it back after closing it behind the pool's back, as a database dropping it would
+     *
+     * @param pool
+     * @return the dropped connection
+     * @throws SQLException
+     */
+    private static JdbcConnectionPool.PooledConnection dropWhileBorrowed(JdbcConnectionPool pool) throws SQLException {
+        JdbcConnectionPool.PooledConnection connection = pool.acquire();
+        connection.prepare(QUERY).getConnection().close();
+        pool.release(connection, false);
+
+        return connection;
+    }
+}
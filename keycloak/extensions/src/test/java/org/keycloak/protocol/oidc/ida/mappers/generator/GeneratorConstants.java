@@ -0,0 +1,96 @@
+package org.keycloak.protocol.oidc.ida.mappers.generator;
+
+import java.util.List;
+
+public class GeneratorConstants {
+    // Options
+    public static final String USERS_OPTION = "--users";
+    public static final String USERS_DEFAULT = "1000";
+    public static final String OUTPUT_OPTION = "--output";
+    public static final String OUTPUT_DEFAULT = "generated";
+    public static final String FORMATS_OPTION = "--formats";
+    public static final String FORMATS_DEFAULT = "realm,ndjson,store";
+    public static final String REALM_OPTION = "--realm";
+    public static final String REALM_DEFAULT = "OIDC4IDA";
+    public static final String USERNAME_PREFIX_OPTION = "--username-prefix";
+    public static final String USERNAME_PREFIX_DEFAULT = "ida_user_";
+    public static final String PASSWORD_OPTION = "--password";
+    public static final String USERS_PER_FILE_OPTION = "--users-per-file";
+    public static final String USERS_PER_FILE_DEFAULT = "50000";
+    public static final String RECORDS_OPTION = "--records";
+    public static final String RECORDS_DEFAULT = "1:70,2:25,3:5";
+    public static final String EVIDENCE_OPTION = "--evidence";
+    public static final String EVIDENCE_DEFAULT = "0:10,1:50,2:25,4:10,8:5";
+    public static final String EVIDENCE_TYPES_OPTION = "--evidence-types";
+    public static final String EVIDENCE_TYPES_DEFAULT = "document:50,electronic_record:40,vouch:5,electronic_signature:5";
+    public static final String TRUST_FRAMEWORKS_OPTION = "--trust-frameworks";
+    public static final String TRUST_FRAMEWORKS_DEFAULT = "uk_diatf:60,eidas:25,de_aml:15";
+    public static final String PADDING_OPTION = "--padding";
+    public static final String PADDING_DEFAULT = "0:80,512:15,4096:5";
+    public static final String VALIDATE_EVERY_OPTION = "--validate-every";
+    public static final String VALIDATE_EVERY_DEFAULT = "1000";
+    public static final String SEED_OPTION = "--seed";
+    public static final String SEED_DEFAULT = "42";
+    public static final String HELP_OPTION = "--help";
+
+    // Formats
+    public static final String FORMAT_REALM = "realm";
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_STORE = "store";
+    public static final String REALM_FILE = "%s-realm.json";
+    public static final String USERS_FILE = "%s-users-%d.json";
+    public static final String NDJSON_FILE = "verified_claims.ndjson";
+    public static final String STORE_FILE = "verified_claims.csv";
+    public static final String STORE_HEADER = "user_id,verified_claims";
+
+    // Realm
+    public static final String CLIENT_ID = "ida-client";
+    public static final String MAPPER_NAME = "IDA Mapper";
+    public static final String MAPPER_PROVIDER_ID = "oidc-ida-mapper";
+
+    // Sample values
+    public static final List<String> GIVEN_NAMES = List.of("Sarah", "Max", "Ana", "João", "Emma", "Liam", "Olivia", 
+        "Noah", "Mia", "Lucas", "Sofia", "Hugo", "Chloé", "Mateo", "Léa", "Jonas");
+    public static final List<String> FAMILY_NAMES = List.of("Meredyth", "Meier", "Silva", "Santos", "Smith", "Müller", 
+        "Dubois", "García", "Rossi", "Jansen", "Kowalski", "Nowak", "Novak", "Johansson", "O'Brien", "Costa");
+    public static final List<String> LOCALITIES = List.of("Edinburgh", "Berlin", "São Paulo", "Lisbon", "Paris", 
+        "Madrid", "Rome", "Amsterdam", "Warsaw", "Stockholm", "Dublin", "Porto");
+    public static final List<String> COUNTRIES = List.of("UK", "DE", "BR", "PT", "FR", "ES", "IT", "NL", "PL", "SE", 
+        "IE");
+    public static final List<String> ASSURANCE_LEVELS = List.of("low", "medium", "high", "substantial");
+    public static final List<String> DOCUMENT_TYPES = List.of("idcard", "passport", "driving_permit", 
+        "residence_permit");
+    public static final List<String> RECORD_TYPES = List.of("bank_account", "mortgage_account", "mno", 
+        "population_register", "utility_account");
+    public static final List<String> ORGANIZATIONS = List.of("DVLA", "TheCreditBureau", "OpenBankingTPP", "GSMA", 
+        "GRO", "NextLex", "IdentityCheck", "Bundesdruckerei");
+    public static final List<String> CHECK_METHODS = List.of("vpip", "vri", "vcrypt", "data", "kbv", "bvr");
+
+    // Error messages
+    public static final String ERROR_MESSAGE_INVALID_OPTION = "Unknown option '%s'.";
+    public static final String ERROR_MESSAGE_INVALID_NUMBER = "The number of users and the validation interval must not be negative, and there must be at least one user per file.";
+    public static final String ERROR_MESSAGE_MISSING_VALUE = "The option '%s' needs a value.";
+    public static final String ERROR_MESSAGE_INVALID_DISTRIBUTION = "The distribution '%s' must be a list of value:weight pairs, with positive weights.";
+    public static final String ERROR_MESSAGE_INVALID_FORMAT = "Unknown format '%s', the formats are realm, ndjson and store.";
+    public static final String ERROR_MESSAGE_INVALID_DOCUMENT = "The generated verified claims of '%s' could not be validated using the JSON schema: %s";
+    public static final String USAGE = String.join(System.lineSeparator(), 
+        "Generates synthetic verified claims for scale testing.",
+        "",
+        "Options:",
+        "  --users <n>                 Number of users (" + USERS_DEFAULT + ")",
+        "  --output <directory>        Output directory (" + OUTPUT_DEFAULT + ")",
+        "  --formats <list>            Outputs among realm, ndjson and store (" + FORMATS_DEFAULT + ")",
+        "  --realm <name>              Name of the realm to import (" + REALM_DEFAULT + ")",
+        "  --username-prefix <prefix>  Prefix of the generated usernames (" + USERNAME_PREFIX_DEFAULT + ")",
+        "  --password <password>       Password given to every user in the realm import (none)",
+        "  --users-per-file <n>        Users per realm import file (" + USERS_PER_FILE_DEFAULT + ")",
+        "  --records <distribution>    Verified claims records per user (" + RECORDS_DEFAULT + ")",
+        "  --evidence <distribution>   Evidence per record (" + EVIDENCE_DEFAULT + ")",
+        "  --evidence-types <dist.>    Types of evidence (" + EVIDENCE_TYPES_DEFAULT + ")",
+        "  --trust-frameworks <dist.>  Trust frameworks of the records (" + TRUST_FRAMEWORKS_DEFAULT + ")",
+        "  --padding <distribution>    Extra characters per record (" + PADDING_DEFAULT + ")",
+        "  --validate-every <n>        Validates every n-th user against the schema, 0 disables (" + VALIDATE_EVERY_DEFAULT + ")",
+        "  --seed <n>                  Seed of the random generator (" + SEED_DEFAULT + ")",
+        "",
+        "Distributions are lists of value:weight pairs, e.g. 1:70,2:25,3:5.");
+}
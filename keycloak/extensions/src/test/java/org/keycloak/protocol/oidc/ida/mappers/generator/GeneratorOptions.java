@@ -0,0 +1,182 @@
+package org.keycloak.protocol.oidc.ida.mappers.generator;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.ERROR_MESSAGE_INVALID_FORMAT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.ERROR_MESSAGE_INVALID_NUMBER;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.ERROR_MESSAGE_INVALID_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.ERROR_MESSAGE_MISSING_VALUE;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.EVIDENCE_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.EVIDENCE_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.EVIDENCE_TYPES_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.EVIDENCE_TYPES_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.FORMATS_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.FORMATS_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.FORMAT_NDJSON;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.FORMAT_REALM;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.FORMAT_STORE;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.HELP_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.OUTPUT_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.OUTPUT_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.PADDING_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.PADDING_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.PASSWORD_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.REALM_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.REALM_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.RECORDS_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.RECORDS_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.SEED_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.SEED_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.TRUST_FRAMEWORKS_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.TRUST_FRAMEWORKS_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.USERNAME_PREFIX_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.USERNAME_PREFIX_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.USERS_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.USERS_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.USERS_PER_FILE_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.USERS_PER_FILE_OPTION;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.VALIDATE_EVERY_DEFAULT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.VALIDATE_EVERY_OPTION;
+
+/**
+ * Options of the synthetic data generator, read from the command line
+ */
+public class GeneratorOptions {
+    private static final Set<String> OPTIONS = Set.of(USERS_OPTION, OUTPUT_OPTION, FORMATS_OPTION, REALM_OPTION, 
+        USERNAME_PREFIX_OPTION, PASSWORD_OPTION, USERS_PER_FILE_OPTION, RECORDS_OPTION, EVIDENCE_OPTION, 
+        EVIDENCE_TYPES_OPTION, TRUST_FRAMEWORKS_OPTION, PADDING_OPTION, VALIDATE_EVERY_OPTION, SEED_OPTION);
+
+    private final long users;
+    private final Path output;
+    private final Set<String> formats = new LinkedHashSet<>();
+    private final String realm;
+    private final String usernamePrefix;
+    private final String password;
+    private final int usersPerFile;
+    private final WeightedDistribution records;
+    private final WeightedDistribution evidence;
+    private final WeightedDistribution evidenceTypes;
+    private final WeightedDistribution trustFrameworks;
+    private final WeightedDistribution padding;
+    private final long validateEvery;
+    private final long seed;
+
+    private GeneratorOptions(Map<String, String> values) {
+        users = Long.parseLong(values.getOrDefault(USERS_OPTION, USERS_DEFAULT));
+        output = Path.of(values.getOrDefault(OUTPUT_OPTION, OUTPUT_DEFAULT));
+        realm = values.getOrDefault(REALM_OPTION, REALM_DEFAULT);
+        usernamePrefix = values.getOrDefault(USERNAME_PREFIX_OPTION, USERNAME_PREFIX_DEFAULT);
+        password = values.get(PASSWORD_OPTION);
+        usersPerFile = Integer.parseInt(values.getOrDefault(USERS_PER_FILE_OPTION, USERS_PER_FILE_DEFAULT));
+        records = WeightedDistribution.parseIntegers(values.getOrDefault(RECORDS_OPTION, RECORDS_DEFAULT));
+        evidence = WeightedDistribution.parseIntegers(values.getOrDefault(EVIDENCE_OPTION, EVIDENCE_DEFAULT));
+        evidenceTypes = WeightedDistribution.parse(values.getOrDefault(EVIDENCE_TYPES_OPTION, EVIDENCE_TYPES_DEFAULT));
+        trustFrameworks = WeightedDistribution.parse(values.getOrDefault(TRUST_FRAMEWORKS_OPTION, TRUST_FRAMEWORKS_DEFAULT));
+        padding = WeightedDistribution.parseIntegers(values.getOrDefault(PADDING_OPTION, PADDING_DEFAULT));
+        validateEvery = Long.parseLong(values.getOrDefault(VALIDATE_EVERY_OPTION, VALIDATE_EVERY_DEFAULT));
+        seed = Long.parseLong(values.getOrDefault(SEED_OPTION, SEED_DEFAULT));
+
+        if (users < 0 || usersPerFile <= 0 || validateEvery < 0) {
+            throw new IllegalArgumentException(ERROR_MESSAGE_INVALID_NUMBER);
+        }
+
+        for (String format : values.getOrDefault(FORMATS_OPTION, FORMATS_DEFAULT).split(",")) {
+            format = format.trim();
+
+            if (!Set.of(FORMAT_REALM, FORMAT_NDJSON, FORMAT_STORE).contains(format)) {
+                throw new IllegalArgumentException(String.format(ERROR_MESSAGE_INVALID_FORMAT, format));
+            }
+
+            formats.add(format);
+        }
+    }
+
+    /**
+     * Parses the command line
+     * 
+     * @param args
+     * @return the options or null, if help was requested
+     * @throws IllegalArgumentException If an option is unknown or has an invalid value
+     */
+    public static GeneratorOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (HELP_OPTION.equals(args[i])) {
+                return null;
+            }
+
+            if (!OPTIONS.contains(args[i])) {
+                throw new IllegalArgumentException(String.format(ERROR_MESSAGE_INVALID_OPTION, args[i]));
+            }
+
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException(String.format(ERROR_MESSAGE_MISSING_VALUE, args[i]));
+            }
+
+            values.put(args[i], args[++i]);
+        }
+
+        return new GeneratorOptions(values);
+    }
+
+    public long getUsers() {
+        return users;
+    }
+
+    public Path getOutput() {
+        return output;
+    }
+
+    public boolean hasFormat(String format) {
+        return formats.contains(format);
+    }
+
+    public String getRealm() {
+        return realm;
+    }
+
+    public String getUsernamePrefix() {
+        return usernamePrefix;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getUsersPerFile() {
+        return usersPerFile;
+    }
+
+    public WeightedDistribution getRecords() {
+        return records;
+    }
+
+    public WeightedDistribution getEvidence() {
+        return evidence;
+    }
+
+    public WeightedDistribution getEvidenceTypes() {
+        return evidenceTypes;
+    }
+
+    public WeightedDistribution getTrustFrameworks() {
+        return trustFrameworks;
+    }
+
+    public WeightedDistribution getPadding() {
+        return padding;
+    }
+
+    public long getValidateEvery() {
+        return validateEvery;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,180 @@
+package org.keycloak.protocol.oidc.ida.mappers.generator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.ASSURANCE_LEVELS;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.CHECK_METHODS;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.COUNTRIES;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.DOCUMENT_TYPES;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.FAMILY_NAMES;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.GIVEN_NAMES;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.LOCALITIES;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.ORGANIZATIONS;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.RECORD_TYPES;
+
+/**
+ * Builds random, schema-valid "verified_claims" documents. Every record of a user describes the same person, under 
+ * its own trust framework and with its own evidence, following the distributions given in the options
+ */
+public class SyntheticVerifiedClaims {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm'Z'");
+    private static final char[] ALPHANUMERIC = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+
+    private final GeneratorOptions options;
+    private final ObjectMapper mapper;
+    private final Random random;
+
+    public SyntheticVerifiedClaims(GeneratorOptions options, ObjectMapper mapper, Random random) {
+        this.options = options;
+        this.mapper = mapper;
+        this.random = random;
+    }
+
+    /**
+     * Builds a user's verified claims
+     * 
+     * @return an object holding the "verified_claims" element, or an array of them if the user has many records
+     */
+    public ObjectNode next() {
+        ObjectNode person = buildClaims();
+        int records = Math.max(options.getRecords().sampleInt(random), 1);
+
+        ObjectNode verifiedClaims = mapper.createObjectNode();
+        if (records == 1) {
+            verifiedClaims.set("verified_claims", buildRecord(person));
+        } else {
+            ArrayNode elements = verifiedClaims.putArray("verified_claims");
+
+            for (int i = 0; i < records; i++) {
+                elements.add(buildRecord(person));
+            }
+        }
+
+        return verifiedClaims;
+    }
+
+    private ObjectNode buildClaims() {
+        ObjectNode claims = mapper.createObjectNode();
+        claims.put("given_name", pick(GIVEN_NAMES));
+        claims.put("family_name", pick(FAMILY_NAMES));
+        claims.put("birthdate", LocalDate.of(1940, 1, 1).plusDays(random.nextInt(365 * 65)).toString());
+
+        String country = pick(COUNTRIES);
+        claims.putObject("place_of_birth").put("country", country);
+
+        if (random.nextBoolean()) {
+            claims.putObject("address")
+                .put("street_address", (1 + random.nextInt(300)) + " " + pick(FAMILY_NAMES) + " Street")
+                .put("locality", pick(LOCALITIES))
+                .put("postal_code", randomString(6))
+                .put("country", country);
+        }
+
+        return claims;
+    }
+
+    private ObjectNode buildRecord(ObjectNode person) {
+        ObjectNode record = mapper.createObjectNode();
+        ObjectNode verification = record.putObject("verification");
+        verification.put("trust_framework", options.getTrustFrameworks().sample(random));
+        verification.put("assurance_level", pick(ASSURANCE_LEVELS));
+        verification.put("time", randomTime());
+
+        // Padding grows the record to the sizes seen in production, without changing its shape
+        verification.put("verification_process", randomString(32 + options.getPadding().sampleInt(random)));
+
+        int evidenceCount = options.getEvidence().sampleInt(random);
+        if (evidenceCount > 0) {
+        // The schema requires at least one element whenever "evidence" is present
+
+            ArrayNode evidence = verification.putArray("evidence");
+
+            for (int i = 0; i < evidenceCount; i++) {
+                evidence.add(buildEvidence(options.getEvidenceTypes().sample(random)));
+            }
+        }
+
+        // Each record releases a random subset of the person's claims, but always the names
+        ObjectNode claims = record.putObject("claims");
+        person.fields().forEachRemaining(claim -> {
+            if (claim.getKey().endsWith("_name") || random.nextInt(4) > 0) {
+                claims.set(claim.getKey(), claim.getValue());
+            }
+        });
+
+        return record;
+    }
+
+    private ObjectNode buildEvidence(String type) {
+        ObjectNode evidence = mapper.createObjectNode();
+        evidence.put("type", type);
+        evidence.put("time", randomTime());
+        evidence.putArray("check_details").addObject()
+            .put("check_method", pick(CHECK_METHODS))
+            .put("organization", pick(ORGANIZATIONS))
+            .put("txn", randomString(20));
+
+        switch (type) {
+            case "document":
+                LocalDate issuance = LocalDate.of(2010, 1, 1).plusDays(random.nextInt(365 * 14));
+                evidence.putObject("document_details")
+                    .put("type", pick(DOCUMENT_TYPES))
+                    .put("document_number", randomString(12))
+                    .put("date_of_issuance", issuance.toString())
+                    .put("date_of_expiry", issuance.plusYears(10).toString())
+                    .putObject("issuer")
+                        .put("name", pick(ORGANIZATIONS))
+                        .put("country", pick(COUNTRIES));
+                break;
+            case "electronic_record":
+                evidence.putObject("record")
+                    .put("type", pick(RECORD_TYPES))
+                    .putObject("source")
+                        .put("name", pick(ORGANIZATIONS));
+                break;
+            case "vouch":
+                evidence.putObject("attestation")
+                    .put("type", "written_attestation")
+                    .put("reference_number", randomString(10))
+                    .putObject("voucher")
+                        .put("name", pick(GIVEN_NAMES) + " " + pick(FAMILY_NAMES));
+                break;
+            case "electronic_signature":
+                evidence.put("signature_type", "qes_eidas");
+                evidence.put("issuer", pick(ORGANIZATIONS));
+                evidence.put("serial_number", randomString(16));
+                evidence.put("created_at", randomTime());
+                break;
+            default:
+                break;
+        }
+
+        return evidence;
+    }
+
+    private String pick(List<String> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private String randomTime() {
+        return LocalDateTime.of(2015, 1, 1, 0, 0).plusMinutes(random.nextInt(60 * 24 * 365 * 9)).format(TIME_FORMAT);
+    }
+
+    private String randomString(int length) {
+        char[] chars = new char[length];
+
+        for (int i = 0; i < length; i++) {
+            chars[i] = ALPHANUMERIC[random.nextInt(ALPHANUMERIC.length)];
+        }
+
+        return new String(chars);
+    }
+}
@@ -0,0 +1,275 @@
+package org.keycloak.protocol.oidc.ida.mappers.generator;
+
+import org.keycloak.protocol.oidc.ida.mappers.util.VerifiedClaimsValidator;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import net.jimblackler.jsonschemafriend.GenerationException;
+import net.jimblackler.jsonschemafriend.ValidationException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.IDA_LOCAL_SOURCE_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.CLIENT_ID;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.ERROR_MESSAGE_INVALID_DOCUMENT;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.FORMAT_NDJSON;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.FORMAT_REALM;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.FORMAT_STORE;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.MAPPER_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.MAPPER_PROVIDER_ID;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.NDJSON_FILE;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.REALM_FILE;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.STORE_FILE;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.STORE_HEADER;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.USAGE;
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.USERS_FILE;
+
+/**
+ * Generates synthetic verified claims for scale testing, so caching, storage and extraction can be measured on 
+ * datasets of production size. Every user is written, as soon as it is generated, to each selected output:
+ * 
+ * <ul>
+ * <li>realm: a Keycloak realm import, split in files of a bounded number of users ({@code kc.sh import --dir});</li>
+ * <li>ndjson: one {"username", "verified_claims"} object per line, as read by the bulk import and the file 
+ * connector;</li>
+ * <li>store: a CSV file holding one verified claims element per row, as read by the JDBC connector.</li>
+ * </ul>
+ * 
+ * Runs with the extension's jar and Keycloak's libraries on the classpath, e.g.:
+ * 
+ * <pre>
+ * java -cp "keycloak-oidc4ida.jar:$KEYCLOAK_HOME/lib/lib/main/*" \
+ *     org.keycloak.protocol.oidc.ida.mappers.generator.VerifiedClaimsGenerator --users 1000000
+ * </pre>
+ */
+public class VerifiedClaimsGenerator implements AutoCloseable {
+    private static final long PROGRESS_INTERVAL = 100000;
+
+    private final GeneratorOptions options;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SyntheticVerifiedClaims documents;
+
+    private JsonGenerator usersFile;
+    private int usersFileIndex;
+    private int usersInFile;
+    private Writer ndjsonFile;
+    private Writer storeFile;
+
+    public VerifiedClaimsGenerator(GeneratorOptions options) {
+        this.options = options;
+        this.documents = new SyntheticVerifiedClaims(options, mapper, new Random(options.getSeed()));
+    }
+
+    public static void main(String[] args) {
+        GeneratorOptions options;
+        try {
+            options = GeneratorOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+
+        if (options == null) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        try (VerifiedClaimsGenerator generator = new VerifiedClaimsGenerator(options)) {
+            generator.generate();
+        } catch (IOException | IllegalStateException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Generates every user and writes them to the selected outputs
+     * 
+     * @throws IOException
+     * @throws IllegalStateException If a generated document is not valid
+     */
+    public void generate() throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(options.getOutput());
+
+        if (options.hasFormat(FORMAT_REALM)) {
+            writeRealm();
+        }
+
+        if (options.hasFormat(FORMAT_NDJSON)) {
+            ndjsonFile = Files.newBufferedWriter(options.getOutput().resolve(NDJSON_FILE), StandardCharsets.UTF_8);
+        }
+
+        if (options.hasFormat(FORMAT_STORE)) {
+            storeFile = Files.newBufferedWriter(options.getOutput().resolve(STORE_FILE), StandardCharsets.UTF_8);
+            storeFile.write(STORE_HEADER);
+            storeFile.write('\n');
+        }
+
+        for (long i = 0; i < options.getUsers(); i++) {
+            String username = options.getUsernamePrefix() + i;
+            ObjectNode verifiedClaims = documents.next();
+
+            if (options.getValidateEvery() > 0 && i % options.getValidateEvery() == 0) {
+                validate(username, verifiedClaims);
+            }
+
+            writeUser(username, verifiedClaims);
+
+            if ((i + 1) % PROGRESS_INTERVAL == 0) {
+                System.out.printf("%d users generated%n", i + 1);
+            }
+        }
+
+        System.out.printf("%d users generated in %s in %d s%n", options.getUsers(), options.getOutput().toAbsolutePath(), 
+            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+
+    private void validate(String username, JsonNode verifiedClaims) {
+        try {
+            VerifiedClaimsValidator.validateVerifiedClaims(verifiedClaims);
+        } catch (ValidationException | GenerationException e) {
+        // Invalid documents would only measure the rejection path, so the generation stops
+
+            throw new IllegalStateException(String.format(ERROR_MESSAGE_INVALID_DOCUMENT, username, e.getMessage()), e);
+        }
+    }
+
+    private void writeUser(String username, ObjectNode verifiedClaims) throws IOException {
+        if (options.hasFormat(FORMAT_REALM)) {
+            writeRealmUser(username, verifiedClaims);
+        }
+
+        if (ndjsonFile != null) {
+            ObjectNode line = mapper.createObjectNode();
+            line.put("username", username);
+            line.set(VERIFIED_CLAIMS, verifiedClaims.get(VERIFIED_CLAIMS));
+
+            ndjsonFile.write(mapper.writeValueAsString(line));
+            ndjsonFile.write('\n');
+        }
+
+        if (storeFile != null) {
+            JsonNode elements = verifiedClaims.get(VERIFIED_CLAIMS);
+
+            for (JsonNode element : elements.isArray() ? elements : mapper.createArrayNode().add(elements)) {
+                storeFile.write(toCsv(username));
+                storeFile.write(',');
+                storeFile.write(toCsv(mapper.writeValueAsString(element)));
+                storeFile.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Writes the realm, with a client whose mapper reads the users' verified claims from their attributes
+     * 
+     * @throws IOException
+     */
+    private void writeRealm() throws IOException {
+        ObjectNode realm = mapper.createObjectNode();
+        realm.put("realm", options.getRealm());
+        realm.put("enabled", true);
+
+        ObjectNode client = realm.putArray("clients").addObject();
+        client.put("clientId", CLIENT_ID);
+        client.put("publicClient", true);
+        client.put("directAccessGrantsEnabled", true);
+        client.putArray("redirectUris").add("*");
+
+        ObjectNode mapperConfig = client.putArray("protocolMappers").addObject()
+            .put("name", MAPPER_NAME)
+            .put("protocol", "openid-connect")
+            .put("protocolMapper", MAPPER_PROVIDER_ID)
+            .putObject("config");
+        mapperConfig.put("id.token.claim", "true");
+        mapperConfig.put("access.token.claim", "true");
+        mapperConfig.put("userinfo.token.claim", "true");
+        mapperConfig.put(IDA_LOCAL_SOURCE_NAME, "true");
+
+        mapper.writerWithDefaultPrettyPrinter()
+            .writeValue(options.getOutput().resolve(String.format(REALM_FILE, options.getRealm())).toFile(), realm);
+    }
+
+    /**
+     * Streams a user to the current users file, starting a new file once it is full
+     * 
+     * @param username
+     * @param verifiedClaims
+     * @throws IOException
+     */
+    private void writeRealmUser(String username, ObjectNode verifiedClaims) throws IOException {
+        if (usersFile == null || usersInFile >= options.getUsersPerFile()) {
+            closeUsersFile();
+
+            Path path = options.getOutput().resolve(String.format(USERS_FILE, options.getRealm(), usersFileIndex++));
+            usersFile = mapper.getFactory().createGenerator(path.toFile(), JsonEncoding.UTF8);
+            usersFile.writeStartObject();
+            usersFile.writeStringField("realm", options.getRealm());
+            usersFile.writeArrayFieldStart("users");
+            usersInFile = 0;
+        }
+
+        usersFile.writeStartObject();
+        usersFile.writeStringField("username", username);
+        usersFile.writeBooleanField("enabled", true);
+
+        if (options.getPassword() != null) {
+            usersFile.writeArrayFieldStart("credentials");
+            usersFile.writeStartObject();
+            usersFile.writeStringField("type", "password");
+            usersFile.writeStringField("value", options.getPassword());
+            usersFile.writeEndObject();
+            usersFile.writeEndArray();
+        }
+
+        // Attributes hold the whole document as a JSON string, as the mapper expects it
+        usersFile.writeObjectFieldStart("attributes");
+        usersFile.writeArrayFieldStart(VERIFIED_CLAIMS);
+        usersFile.writeString(mapper.writeValueAsString(verifiedClaims));
+        usersFile.writeEndArray();
+        usersFile.writeEndObject();
+
+        usersFile.writeEndObject();
+        usersInFile++;
+    }
+
+    private void closeUsersFile() throws IOException {
+        if (usersFile != null) {
+            usersFile.writeEndArray();
+            usersFile.writeEndObject();
+            usersFile.close();
+            usersFile = null;
+        }
+    }
+
+    private static String toCsv(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeUsersFile();
+
+        if (ndjsonFile != null) {
+            ndjsonFile.close();
+        }
+
+        if (storeFile != null) {
+            storeFile.close();
+        }
+    }
+}
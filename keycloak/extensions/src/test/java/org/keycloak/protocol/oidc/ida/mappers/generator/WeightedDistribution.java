@@ -0,0 +1,110 @@
+package org.keycloak.protocol.oidc.ida.mappers.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorConstants.ERROR_MESSAGE_INVALID_DISTRIBUTION;
+
+/**
+ * Distribution of values, each one drawn with a probability proportional to its weight
+ */
+public class WeightedDistribution {
+    private final List<String> values;
+    private final long[] cumulativeWeights;
+
+    private WeightedDistribution(List<String> values, long[] cumulativeWeights) {
+        this.values = values;
+        this.cumulativeWeights = cumulativeWeights;
+    }
+
+    /**
+     * Parses a distribution written as value:weight pairs, e.g. "1:70,2:25,3:5"
+     * 
+     * @param distribution
+     * @return
+     * @throws IllegalArgumentException If the distribution is malformed
+     */
+    public static WeightedDistribution parse(String distribution) {
+        List<String> values = new ArrayList<>();
+        List<Long> weights = new ArrayList<>();
+
+        try {
+            for (String pair : distribution.split(",")) {
+                int separator = pair.lastIndexOf(':');
+                long weight = Long.parseLong(pair.substring(separator + 1).trim());
+
+                if (separator <= 0 || weight <= 0) {
+                    throw new IllegalArgumentException();
+                }
+
+                values.add(pair.substring(0, separator).trim());
+                weights.add(weight);
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(String.format(ERROR_MESSAGE_INVALID_DISTRIBUTION, distribution), e);
+        }
+
+        long[] cumulativeWeights = new long[weights.size()];
+        long total = 0;
+
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            total += weights.get(i);
+            cumulativeWeights[i] = total;
+        }
+
+        return new WeightedDistribution(values, cumulativeWeights);
+    }
+
+    /**
+     * Parses a distribution of non-negative integers, e.g. "1:70,2:25,3:5"
+     * 
+     * @param distribution
+     * @return
+     * @throws IllegalArgumentException If the distribution is malformed, or a value is not a non-negative integer
+     */
+    public static WeightedDistribution parseIntegers(String distribution) {
+        WeightedDistribution parsed = parse(distribution);
+
+        for (String value : parsed.values) {
+            try {
+                if (Integer.parseInt(value) < 0) {
+                    throw new NumberFormatException();
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(String.format(ERROR_MESSAGE_INVALID_DISTRIBUTION, distribution), e);
+            }
+        }
+
+        return parsed;
+    }
+
+    /**
+     * Draws a value
+     * 
+     * @param random
+     * @return
+     */
+    public String sample(Random random) {
+        long draw = (long) (random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1]);
+
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return values.get(i);
+            }
+        }
+
+        return values.get(values.size() - 1);
+    }
+
+    /**
+     * Draws a value, as an integer
+     * 
+     * @param random
+     * @return
+     * @throws NumberFormatException If the value is not an integer
+     */
+    public int sampleInt(Random random) {
+        return Integer.parseInt(sample(random));
+    }
+}
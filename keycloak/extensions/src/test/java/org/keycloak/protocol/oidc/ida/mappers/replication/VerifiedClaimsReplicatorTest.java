@@ -0,0 +1,333 @@
+package org.keycloak.protocol.oidc.ida.mappers.replication;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.connections.jpa.JpaConnectionProvider;
+import org.keycloak.connections.jpa.util.JpaUtils;
+import org.keycloak.models.KeycloakContext;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.KeycloakTransactionManager;
+import org.keycloak.models.ProtocolMapperModel;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.jpa.JpaRealmProvider;
+import org.keycloak.models.jpa.JpaUserProvider;
+import org.keycloak.models.jpa.entities.RealmAttributeEntity;
+import org.keycloak.models.jpa.entities.RealmEntity;
+import org.keycloak.models.jpa.entities.UserAttributeEntity;
+import org.keycloak.models.jpa.entities.UserEntity;
+import org.keycloak.protocol.oidc.ida.mappers.IdaMapperConfig;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.IdaConnector;
+import org.keycloak.protocol.oidc.ida.mappers.connector.spi.VerifiedClaimsChanges;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.IDA_CONNECTOR_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.IDA_REPLICATION_NAME;
+import static org.keycloak.protocol.oidc.ida.mappers.replication.ReplicationConstants.SNAPSHOT_ATTRIBUTE_SUFFIX;
+
+/**
+ * Replicates a store into an in-memory database holding Keycloak's own entities, read and written through Keycloak's
+ * JPA providers, so the replicator's queries run just like on a server
+ */
+class VerifiedClaimsReplicatorTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String CONNECTOR_ID = "test-connector";
+    // Written as the replicator serializes them
+    private static final String EIDAS = "{\"verified_claims\":{\"verification\":{\"trust_framework\":\"eidas\"},"
+        + "\"claims\":{\"given_name\":\"Max\"}}}";
+    private static final String UK_DIATF = "{\"verified_claims\":{\"verification\":{\"trust_framework\":"
+        + "\"uk_diatf\"},\"claims\":{\"family_name\":\"Meier\"}}}";
+    private static final String OUTDATED = "{\"verified_claims\":[]}";
+
+    private final Deque<VerifiedClaimsChanges> pages = new ArrayDeque<>();
+    private final List<String> watermarks = new ArrayList<>();
+
+    private EntityManagerFactory entityManagerFactory;
+    private KeycloakSessionFactory sessionFactory;
+    private IdaMapperConfig config;
+    private String claimsAttribute;
+    private String otherClaimsAttribute;
+
+    @BeforeEach
+    void createDatabase() {
+        Map<String, Object> properties = new HashMap<>();
+        // Keycloak's entities have columns named VALUE, like Keycloak's own H2 databases
+        properties.put("jakarta.persistence.jdbc.url", "jdbc:h2:mem:" + UUID.randomUUID() 
+            + ";DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE");
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        // Keycloak's persistence unit lists its entities, so the classpath is not scanned
+        properties.put("hibernate.archive.scanner", "org.hibernate.boot.archive.scan.internal.DisabledScanner");
+
+        sessionFactory = proxy(KeycloakSessionFactory.class, Map.of("create", args -> createSession()));
+        entityManagerFactory = JpaUtils.createEntityManagerFactory(createSession(), "keycloak-default", properties,
+            false);
+
+        config = createConfig("https://store.example/verified-claims");
+        claimsAttribute = config.getReplicationClaimsAttribute();
+        otherClaimsAttribute = createConfig("https://other.example/verified-claims").getReplicationClaimsAttribute();
+
+        inTransaction(em -> {
+            createRealm(em, "ida");
+            createRealm(em, "other");
+
+            // Claims left by a former replication of the store, whose watermark has been removed
+            for (String username : List.of("alice", "bob", "carol", "dave", "erin")) {
+                createUser(em, "ida", username, Map.of(claimsAttribute, OUTDATED));
+            }
+
+            createUser(em, "ida", "frank", Map.of("verified_claims", EIDAS, otherClaimsAttribute, UK_DIATF));
+            createUser(em, "other", "alice", Map.of(claimsAttribute, OUTDATED));
+
+            return null;
+        });
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void removesTheClaimsOfTheUsersASnapshotDidNotList() throws IOException {
+        VerifiedClaimsReplicator replicator = new VerifiedClaimsReplicator(sessionFactory, 2);
+
+        pages.add(page(changes("alice", EIDAS, "bob", UK_DIATF), "1", true));
+        replicator.replicate("ida", config, Long.MAX_VALUE);
+
+        // Nothing is removed before the snapshot is complete
+        assertEquals(EIDAS, getAttributes("ida", "alice").get(claimsAttribute));
+        assertEquals(OUTDATED, getAttributes("ida", "dave").get(claimsAttribute));
+        String snapshot = getRealmAttribute("ida", config.getReplicationWatermarkAttribute() + SNAPSHOT_ATTRIBUTE_SUFFIX);
+        assertNotNull(snapshot);
+        assertEquals(snapshot, getAttributes("ida", "bob").get(claimsAttribute + SNAPSHOT_ATTRIBUTE_SUFFIX));
+
+        // The store removes bob, and lists a user Keycloak does not know
+        pages.add(page(changes("carol", UK_DIATF, "bob", null, "nobody", EIDAS), "2", false));
+        replicator.replicate("ida", config, Long.MAX_VALUE);
+
+        assertEquals(Map.of(claimsAttribute, EIDAS), getAttributes("ida", "alice"));
+        assertEquals(Map.of(), getAttributes("ida", "bob"));
+        assertEquals(Map.of(claimsAttribute, UK_DIATF), getAttributes("ida", "carol"));
+        assertEquals(Map.of(), getAttributes("ida", "dave"));
+        assertEquals(Map.of(), getAttributes("ida", "erin"));
+
+        // Other stores' claims, the users' own claims and other realms are left untouched
+        assertEquals(Map.of("verified_claims", EIDAS, otherClaimsAttribute, UK_DIATF), getAttributes("ida", "frank"));
+        assertEquals(Map.of(claimsAttribute, OUTDATED), getAttributes("other", "alice"));
+
+        assertEquals(Arrays.asList(null, "1", "1"), watermarks);
+        assertEquals("2", getRealmAttribute("ida", config.getReplicationWatermarkAttribute()));
+        assertNull(getRealmAttribute("ida", config.getReplicationWatermarkAttribute() + SNAPSHOT_ATTRIBUTE_SUFFIX));
+        assertNotNull(getRealmAttribute("ida", config.getReplicationCompletedAttribute()));
+    }
+
+    @Test
+    void removesNothingWhileReplicatingChanges() throws IOException {
+        VerifiedClaimsReplicator replicator = new VerifiedClaimsReplicator(sessionFactory, 2);
+
+        pages.add(page(changes("alice", EIDAS, "bob", EIDAS, "carol", EIDAS), "1", false));
+        replicator.replicate("ida", config, Long.MAX_VALUE);
+        pages.add(page(changes("bob", UK_DIATF, "carol", null), "2", false));
+        replicator.replicate("ida", config, Long.MAX_VALUE);
+
+        assertEquals(Arrays.asList(null, "1"), watermarks);
+        assertEquals(Map.of(claimsAttribute, EIDAS), getAttributes("ida", "alice"));
+        assertEquals(Map.of(claimsAttribute, UK_DIATF), getAttributes("ida", "bob"));
+        assertEquals(Map.of(), getAttributes("ida", "carol"));
+    }
+
+    @Test
+    void marksTheUsersWithTheSnapshotAlreadyStarted() throws IOException {
+        // Another node has started the snapshot
+        String snapshotAttribute = config.getReplicationWatermarkAttribute() + SNAPSHOT_ATTRIBUTE_SUFFIX;
+        inTransaction(em -> {
+            RealmAttributeEntity attribute = new RealmAttributeEntity();
+            attribute.setRealm(em.find(RealmEntity.class, "ida"));
+            attribute.setName(snapshotAttribute);
+            attribute.setValue("other-node");
+            em.persist(attribute);
+
+            return null;
+        });
+
+        pages.add(page(changes("alice", EIDAS), "1", true));
+        new VerifiedClaimsReplicator(sessionFactory, 2).replicate("ida", config, Long.MAX_VALUE);
+
+        assertEquals("other-node", getRealmAttribute("ida", snapshotAttribute));
+        assertEquals("other-node", getAttributes("ida", "alice").get(claimsAttribute + SNAPSHOT_ATTRIBUTE_SUFFIX));
+    }
+
+    private static IdaMapperConfig createConfig(String externalStore) {
+        ProtocolMapperModel model = new ProtocolMapperModel();
+        model.setId(UUID.randomUUID().toString());
+        model.setConfig(Map.of(IDA_CONNECTOR_NAME, CONNECTOR_ID, IdaConnector.IDA_EXTERNAL_STORE_NAME, externalStore,
+            IDA_REPLICATION_NAME, "true"));
+
+        return IdaMapperConfig.compile(model);
+    }
+
+    private static VerifiedClaimsChanges page(Map<String, JsonNode> changes, String watermark, boolean hasMore) {
+        return new VerifiedClaimsChanges(changes, watermark, hasMore);
+    }
+
+    private static Map<String, JsonNode> changes(String... usersAndClaims) throws IOException {
+        Map<String, JsonNode> changes = new LinkedHashMap<>();
+
+        for (int i = 0; i < usersAndClaims.length; i += 2) {
+            changes.put(usersAndClaims[i], usersAndClaims[i + 1] == null ? null : MAPPER.readTree(usersAndClaims[i + 1]));
+        }
+
+        return changes;
+    }
+
+    private static void createRealm(EntityManager em, String name) {
+        RealmEntity realm = new RealmEntity();
+        realm.setId(name);
+        realm.setName(name);
+        em.persist(realm);
+    }
+
+    private static void createUser(EntityManager em, String realmId, String username, Map<String, String> attributes) {
+        UserEntity user = new UserEntity();
+        user.setId(UUID.randomUUID().toString());
+        user.setUsername(username);
+        user.setRealmId(realmId);
+        user.setEmailConstraint(user.getId());
+        em.persist(user);
+
+        attributes.forEach((name, value) -> {
+            UserAttributeEntity attribute = new UserAttributeEntity();
+            attribute.setId(UUID.randomUUID().toString());
+            attribute.setUser(user);
+            attribute.setName(name);
+            attribute.setValue(value);
+            em.persist(attribute);
+        });
+    }
+
+    private Map<String, String> getAttributes(String realmId, String username) {
+        return inTransaction(em -> {
+            Map<String, String> attributes = new HashMap<>();
+
+            em.createQuery("select attr from UserAttributeEntity attr where attr.user.realmId = :realmId "
+                    + "and attr.user.username = :username", UserAttributeEntity.class)
+                .setParameter("realmId", realmId)
+                .setParameter("username", username)
+                .getResultStream()
+                .forEach(attribute -> attributes.put(attribute.getName(), attribute.getValue()));
+
+            return attributes;
+        });
+    }
+
+    private String getRealmAttribute(String realmId, String name) {
+        return inTransaction(em -> em.createQuery("select attr.value from RealmAttributeEntity attr "
+                + "where attr.realm.id = :realmId and attr.name = :name", String.class)
+            .setParameter("realmId", realmId)
+            .setParameter("name", name)
+            .getResultStream()
+            .findFirst()
+            .orElse(null));
+    }
+
+    private <T> T inTransaction(Function<EntityManager, T> job) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+
+        try {
+            em.getTransaction().begin();
+            T result = job.apply(em);
+            em.getTransaction().commit();
+
+            return result;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Creates a session answering only what the replicator uses, backed by Keycloak's JPA providers. Its transaction
+     * is committed when it is closed, like Keycloak's
+     *
+     * @return
+     */
+    private KeycloakSession createSession() {
+        EntityManager em = entityManagerFactory == null ? null : entityManagerFactory.createEntityManager();
+        boolean[] rollbackOnly = new boolean[1];
+        RealmModel[] contextRealm = new RealmModel[1];
+        KeycloakSession[] session = new KeycloakSession[1];
+
+        IdaConnector connector = proxy(IdaConnector.class, Map.of("getVerifiedClaimsChanges", args -> {
+            watermarks.add((String) args[1]);
+
+            // Once its pages have been sent, the store has nothing new
+            return pages.isEmpty() ? page(Collections.emptyMap(), null, true) : pages.poll();
+        }));
+        JpaConnectionProvider connection = proxy(JpaConnectionProvider.class, Map.of("getEntityManager", args -> em));
+        KeycloakContext context = proxy(KeycloakContext.class, Map.of(
+            "getRealm", args -> contextRealm[0],
+            "setRealm", args -> contextRealm[0] = (RealmModel) args[0]));
+        KeycloakTransactionManager transactionManager = proxy(KeycloakTransactionManager.class, Map.of(
+            "begin", args -> { em.getTransaction().begin(); return null; },
+            "setRollbackOnly", args -> rollbackOnly[0] = true,
+            "getRollbackOnly", args -> rollbackOnly[0],
+            "isActive", args -> em.getTransaction().isActive()));
+
+        session[0] = proxy(KeycloakSession.class, Map.of(
+            "getTransactionManager", args -> transactionManager,
+            "getContext", args -> context,
+            "getKeycloakSessionFactory", args -> sessionFactory,
+            "getAllProviders", args -> Collections.emptySet(),
+            "realms", args -> new JpaRealmProvider(session[0], em, Collections.emptySet(), Collections.emptySet()),
+            "users", args -> new JpaUserProvider(session[0], em),
+            "getProvider", args -> args[0] == IdaConnector.class ? connector : connection,
+            "close", args -> {
+                if (em.getTransaction().isActive()) {
+                    if (rollbackOnly[0]) {
+                        em.getTransaction().rollback();
+                    } else {
+                        em.getTransaction().commit();
+                    }
+                }
+
+                em.close();
+                return null;
+            }));
+
+        return session[0];
+    }
+
+    private static <T> T proxy(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+            (instance, invoked, args) -> {
+                Function<Object[], Object> method = methods.get(invoked.getName());
+                if (method == null) {
+                    throw new UnsupportedOperationException(invoked.getName());
+                }
+
+                return method.apply(args);
+            }));
+    }
+}
@@ -0,0 +1,84 @@
+package org.keycloak.protocol.oidc.ida.mappers.util;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import org.keycloak.protocol.oidc.ida.mappers.connector.VerifiedClaimsProjection;
+import org.keycloak.protocol.oidc.ida.mappers.generator.GeneratorOptions;
+import org.keycloak.protocol.oidc.ida.mappers.generator.SyntheticVerifiedClaims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+
+/**
+ * Cost of reading a user's verified claims attribute with the reader, compared with the former readTree followed by
+ * copying its elements. Each record has 8 evidence elements, and its trust framework is one of 4, while the request
+ * asks for eIDAS records, document evidence, and the person's names. Runs with
+ * {@code org.openjdk.jmh.Main VerifiedClaimsAttributeReaderBenchmark -prof gc} on the test classpath, so the
+ * allocation per read is reported along with the latency.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VerifiedClaimsAttributeReaderBenchmark {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
+        .enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
+    private static final String REQUEST = "{\"verification\": {\"trust_framework\": {\"value\": \"eidas\"}, "
+        + "\"evidence\": [{\"type\": {\"value\": \"document\"}}]}, \"claims\": {\"given_name\": null, "
+        + "\"family_name\": null}}";
+
+    // Number of records in the attribute
+    @Param({ "100", "1000" })
+    public int records;
+
+    private String attribute;
+    private VerifiedClaimsProjection projection;
+
+    @Setup
+    public void setUp() throws IOException {
+        GeneratorOptions options = GeneratorOptions.parse(new String[] {
+            "--records", records + ":1",
+            "--evidence", "8:1",
+            "--trust-frameworks", "uk_diatf:1,eidas:1,de_aml:1,it_spid:1",
+            "--padding", "0:1" });
+
+        attribute = MAPPER.writeValueAsString(new SyntheticVerifiedClaims(options, MAPPER, new Random(42)).next());
+        projection = VerifiedClaimsProjection.of(MAPPER.readTree(REQUEST));
+    }
+
+    @Benchmark
+    public ArrayNode readTree() throws IOException {
+        // The former path, reading every element before the extractor picks the requested ones
+        JsonNode verifiedClaims = MAPPER.readTree(attribute).get(VERIFIED_CLAIMS);
+        ArrayNode elements = MAPPER.createArrayNode();
+        verifiedClaims.elements().forEachRemaining(elements::add);
+
+        return elements;
+    }
+
+    @Benchmark
+    public List<JsonNode> read() throws IOException {
+        return VerifiedClaimsAttributeReader.read(attribute, projection);
+    }
+}
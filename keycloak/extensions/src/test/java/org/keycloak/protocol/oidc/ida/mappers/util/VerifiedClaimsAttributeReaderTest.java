@@ -0,0 +1,179 @@
+package org.keycloak.protocol.oidc.ida.mappers.util;
+
+import com.authlete.common.ida.DatasetExtractor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.protocol.oidc.ida.mappers.connector.VerifiedClaimsProjection;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.keycloak.protocol.oidc.ida.mappers.IdaConstants.VERIFIED_CLAIMS;
+
+/**
+ * Compares the reader with the former path, where the whole attribute was read with readTree and every element was
+ * given to the DatasetExtractor: both must release the same claims
+ */
+class VerifiedClaimsAttributeReaderTest {
+    // Configured like the mapper's, which read the attributes before the reader existed
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
+        .enable(DeserializationFeature.FAIL_ON_READING_DUP_TREE_KEY);
+    private static final String EIDAS = "{\"verification\": {\"trust_framework\": \"eidas\", "
+        + "\"assurance_level\": \"high\", \"evidence\": [{\"type\": \"document\", \"method\": \"pipp\"}, "
+        + "{\"type\": \"electronic_record\", \"record\": {\"type\": \"bank_account\"}}]}, "
+        + "\"claims\": {\"given_name\": \"Max\", \"family_name\": \"Meier\", \"birthdate\": \"1956-01-28\"}}";
+    private static final String UK_DIATF = "{\"verification\": {\"trust_framework\": \"uk_diatf\", "
+        + "\"evidence\": [{\"type\": \"vouch\", \"attestation\": {\"type\": \"digital_attestation\"}}]}, "
+        + "\"claims\": {\"given_name\": \"Max\", \"address\": {\"locality\": \"Berlin\"}}}";
+    // The trust framework is only known after the evidence and the claims were read through
+    private static final String DE_AML = "{\"claims\": {\"family_name\": \"Meier\", \"birthdate\": \"1956-01-28\"}, "
+        + "\"verification\": {\"evidence\": [{\"type\": \"document\", \"method\": \"vcrypt\"}, "
+        + "{\"type\": \"electronic_record\", \"record\": {\"type\": \"mno\"}}], \"trust_framework\": \"de_aml\"}}";
+    private static final String RECORDS = "{\"verified_claims\": [" + EIDAS + ", " + UK_DIATF + ", " + DE_AML + "]}";
+
+    @Test
+    void releasesTheSameClaimsFromManyRecords() throws IOException {
+        assertSameAsTree(RECORDS, "{\"verification\": {\"trust_framework\": {\"value\": \"eidas\"}}, "
+            + "\"claims\": {\"given_name\": null}}");
+        assertSameAsTree(RECORDS, "{\"verification\": {\"trust_framework\": {\"values\": [\"eidas\", \"uk_diatf\"]}, "
+            + "\"evidence\": [{\"type\": {\"value\": \"document\"}}]}, \"claims\": {\"given_name\": null, "
+            + "\"address\": null}}");
+        assertSameAsTree(RECORDS, "[{\"verification\": {\"trust_framework\": {\"value\": \"uk_diatf\"}}, "
+            + "\"claims\": {\"address\": null}}, {\"verification\": {\"trust_framework\": null, \"evidence\": null}, "
+            + "\"claims\": {\"family_name\": null}}]");
+        assertSameAsTree("{\"verified_claims\": " + EIDAS + "}", "{\"verification\": {\"trust_framework\": null}, "
+            + "\"claims\": {\"birthdate\": null}}");
+
+        // Records whose claims were not requested are left out
+        assertEquals(2, VerifiedClaimsAttributeReader.read(RECORDS, projection("{\"verification\": "
+            + "{\"trust_framework\": null}, \"claims\": {\"birthdate\": null}}")).size());
+    }
+
+    @Test
+    void releasesTheSameClaimsWhenTheTrustFrameworkFollowsTheEvidence() throws IOException {
+        String request = "{\"verification\": {\"trust_framework\": {\"value\": \"de_aml\"}, "
+            + "\"evidence\": [{\"type\": {\"value\": \"electronic_record\"}}]}, \"claims\": {\"family_name\": null}}";
+
+        assertSameAsTree(RECORDS, request);
+        assertEquals(List.of(MAPPER.readTree("{\"claims\": {\"family_name\": \"Meier\"}, \"verification\": "
+            + "{\"evidence\": [{\"type\": \"electronic_record\", \"record\": {\"type\": \"mno\"}}], "
+            + "\"trust_framework\": \"de_aml\"}}")), VerifiedClaimsAttributeReader.read(RECORDS, projection(request)));
+    }
+
+    @Test
+    void leavesOutEvidenceEmptiedByTheRequest() throws IOException {
+        String request = "{\"verification\": {\"trust_framework\": null, \"evidence\": [{\"type\": "
+            + "{\"value\": \"vouch\"}}]}, \"claims\": {\"given_name\": null}}";
+
+        assertSameAsTree(RECORDS, request);
+
+        // The eIDAS record has no vouch, and evidence arrays are not allowed to be empty
+        List<JsonNode> candidates = VerifiedClaimsAttributeReader.read(RECORDS, projection(request));
+        assertEquals(2, candidates.size());
+        assertNull(candidates.get(0).get("verification").get("evidence"));
+        assertEquals(1, candidates.get(1).get("verification").get("evidence").size());
+    }
+
+    @Test
+    void readsEveryElementInFullWithoutAProjection() throws IOException {
+        assertEquals(MAPPER.readTree(RECORDS).get(VERIFIED_CLAIMS),
+            MAPPER.createArrayNode().addAll(VerifiedClaimsAttributeReader.read(RECORDS, null)));
+        assertSameAsTree(RECORDS, "{\"claims\": {\"given_name\": null}}");
+    }
+
+    @Test
+    void rejectsDuplicatedKeysInTheReleasedParts() throws IOException {
+        String request = "{\"verification\": {\"trust_framework\": {\"value\": \"eidas\"}}, "
+            + "\"claims\": {\"given_name\": null}}";
+
+        assertRejectedLikeTheTree("{\"verified_claims\": " + EIDAS + ", \"verified_claims\": []}", request);
+        assertRejectedLikeTheTree("{\"verified_claims\": " + EIDAS.replace("\"family_name\"", "\"given_name\"") + "}",
+            request);
+        assertRejectedLikeTheTree("{\"verified_claims\": "
+            + EIDAS.replace("\"assurance_level\"", "\"trust_framework\"") + "}", request);
+
+        // Duplicated keys in the parts that are read through are only rejected by readTree
+        String skipped = "{\"verified_claims\": [" + EIDAS + ", "
+            + UK_DIATF.replace("\"address\"", "\"given_name\"") + "]}";
+        assertThrows(JsonProcessingException.class, () -> MAPPER.readTree(skipped));
+        assertEquals(1, VerifiedClaimsAttributeReader.read(skipped, projection(request)).size());
+    }
+
+    @Test
+    void rejectsTrailingTokens() {
+        String request = "{\"verification\": {\"trust_framework\": null}, \"claims\": {\"given_name\": null}}";
+
+        assertRejectedLikeTheTree(RECORDS + " {}", request);
+        assertRejectedLikeTheTree(RECORDS + " x", request);
+        assertRejectedLikeTheTree(RECORDS + "]", request);
+    }
+
+    /**
+     * Asserts that the reader's candidates release the same claims as every element of the attribute
+     *
+     * @param attribute
+     * @param request   The requested "verified_claims"
+     * @throws IOException
+     */
+    private static void assertSameAsTree(String attribute, String request) throws IOException {
+        JsonNode requested = MAPPER.readTree(request);
+        JsonNode verifiedClaims = MAPPER.readTree(attribute).get(VERIFIED_CLAIMS);
+        ArrayNode elements = verifiedClaims.isArray()
+            ? (ArrayNode) verifiedClaims
+            : MAPPER.createArrayNode().add(verifiedClaims);
+        ArrayNode candidates = MAPPER.createArrayNode().addAll(
+            VerifiedClaimsAttributeReader.read(attribute, VerifiedClaimsProjection.of(requested)));
+
+        List<Map<String, Object>> expected = extract(requested, elements);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, extract(requested, candidates));
+    }
+
+    private static void assertRejectedLikeTheTree(String attribute, String request) {
+        assertThrows(JsonProcessingException.class, () -> MAPPER.readTree(attribute));
+        assertThrows(JsonProcessingException.class,
+            () -> VerifiedClaimsAttributeReader.read(attribute, projection(request)));
+    }
+
+    /**
+     * Extracts the requested claims the way the mapper does
+     *
+     * @param requested          A single requested element, or an array of them
+     * @param userVerifiedClaims
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> extract(JsonNode requested, ArrayNode userVerifiedClaims) {
+        List<Map<String, Object>> extracted = new ArrayList<>();
+
+        for (JsonNode request : requested.isArray() ? requested : List.of(requested)) {
+            for (JsonNode element : userVerifiedClaims) {
+                Map<String, Object> claims = new DatasetExtractor().extract(
+                    MAPPER.convertValue(request, Map.class), MAPPER.convertValue(element, Map.class));
+
+                if (claims != null && !claims.isEmpty()) {
+                    extracted.add(claims);
+                }
+            }
+        }
+
+        return extracted;
+    }
+
+    private static VerifiedClaimsProjection projection(String request) throws JsonProcessingException {
+        return VerifiedClaimsProjection.of(MAPPER.readTree(request));
+    }
+}